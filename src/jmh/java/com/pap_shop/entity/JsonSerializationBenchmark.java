@@ -0,0 +1,129 @@
+package com.pap_shop.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pap_shop.enums.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the entity graphs returned by the product and order endpoints:
+ * a page of products with their category and images, and an order with its customer and items.
+ * The mapper is configured like the one Spring Boot creates for the application.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=JsonSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<Product> products;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+
+        Category category = new Category();
+        category.setID(1);
+        category.setName("Điện thoại");
+
+        products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(product(i, category));
+        }
+
+        User user = User.builder()
+                .id(1)
+                .name("Nguyễn Văn A")
+                .email("customer@example.com")
+                .phone("0900000000")
+                .address("1 Lê Lợi, Quận 1, TP.HCM")
+                .username("customer")
+                .role(new Roles(2, "USER"))
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build();
+
+        order = new Order();
+        order.setId(1);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        order.setShippingAddress(user.getAddress());
+        List<OrderItem> orderItems = new ArrayList<>(size);
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Product product : products) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setId(product.getId());
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(2);
+            orderItem.setPrice(product.getPrice());
+            orderItems.add(orderItem);
+            totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(2)));
+        }
+        order.setOrderItems(orderItems);
+        order.setTotalPrice(totalPrice);
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return writer.writeValueAsBytes(order);
+    }
+
+    private static Product product(int id, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Sản phẩm " + id);
+        product.setSku("D" + String.format("%06d", id));
+        product.setCategory(category);
+        product.setDescription("Mô tả chi tiết của sản phẩm " + id + ", bảo hành 12 tháng.");
+        product.setPrice(BigDecimal.valueOf(19_990_000L + id * 1_000L, 2));
+        product.setStock(id % 100);
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+
+        List<ProductImage> images = new ArrayList<>(3);
+        for (int i = 1; i <= 3; i++) {
+            ProductImage image = new ProductImage();
+            image.setId(id * 10 + i);
+            image.setImageUrl("https://cdn.example.com/products/" + id + "/" + i + ".jpg");
+            image.setProduct(product);
+            images.add(image);
+        }
+        product.setImages(images);
+        return product;
+    }
+}
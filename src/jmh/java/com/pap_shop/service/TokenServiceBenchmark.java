@@ -0,0 +1,104 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.Roles;
+import com.pap_shop.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TokenService} with the token handling it replaced: jjwt with the key derived and
+ * the parser built on every call for issuing, and a Nimbus decoder for validating requests.
+ * The jmh task runs with the GC profiler, so {@code gc.alloc.rate.norm} in the results is the
+ * allocation per token. Runs on four threads to exercise the MAC pool under contention.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TokenServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET_KEY = "benchmark-secret-key-benchmark-secret-key-0123456789";
+
+    private TokenService tokenService;
+    private JwtDecoder nimbusDecoder;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService(SECRET_KEY, new SimpleMeterRegistry());
+        nimbusDecoder = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(SECRET_KEY.getBytes(), "HS256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        user = User.builder()
+                .id(1)
+                .username("customer")
+                .role(new Roles(2, "USER"))
+                .build();
+        token = tokenService.issue(user);
+    }
+
+    @Benchmark
+    public String issue() {
+        return tokenService.issue(user);
+    }
+
+    @Benchmark
+    public String issueWithJjwt() {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .setId(UUID.randomUUID().toString())
+                .claim("scope", user.getRole().getRole())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return tokenService.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeWithNimbus() {
+        return nimbusDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Claims parseWithJjwt() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
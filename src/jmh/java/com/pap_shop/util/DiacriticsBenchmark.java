@@ -0,0 +1,68 @@
+package com.pap_shop.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the lookup-table folding of {@link DiacriticsUtil} with the chain of
+ * {@code replaceAll} calls it replaced, on a category name, a search query,
+ * a product description and text without diacritics.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=DiacriticsBenchmark}; compare
+ * {@code gc.alloc.rate.norm} in the results for the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiacriticsBenchmark {
+
+    @Param({
+            "Điện thoại",
+            "tai nghe không dây chống ồn",
+            "Máy tính xách tay mỏng nhẹ, màn hình 14 inch, pin dùng cả ngày, phù hợp cho học tập và làm việc văn phòng.",
+            "Wireless noise cancelling headphones"
+    })
+    public String input;
+
+    @Benchmark
+    public String lookupTable() {
+        return DiacriticsUtil.removeDiacritics(input);
+    }
+
+    @Benchmark
+    public String replaceAllChain() {
+        return removeDiacriticsWithRegex(input);
+    }
+
+    /**
+     * The previous implementation of {@link DiacriticsUtil#removeDiacritics(String)}.
+     */
+    static String removeDiacriticsWithRegex(String input) {
+        return input.replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
+                   .replaceAll("[èéẹẻẽêềếệểễ]", "e")
+                   .replaceAll("[ìíịỉĩ]", "i")
+                   .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
+                   .replaceAll("[ùúụủũưừứựửữ]", "u")
+                   .replaceAll("[ỳýỵỷỹ]", "y")
+                   .replaceAll("[đ]", "d")
+                   .replaceAll("[ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ]", "A")
+                   .replaceAll("[ÈÉẸẺẼÊỀẾỆỂỄ]", "E")
+                   .replaceAll("[ÌÍỊỈĨ]", "I")
+                   .replaceAll("[ÒÓỌỎÕÔỒỐỘỔỖƠỜỚỢỞỠ]", "O")
+                   .replaceAll("[ÙÚỤỦŨƯỪỨỰỬỮ]", "U")
+                   .replaceAll("[ỲÝỴỶỸ]", "Y")
+                   .replaceAll("[Đ]", "D");
+    }
+}
@@ -0,0 +1,74 @@
+package com.pap_shop.util;
+
+import com.pap_shop.repository.InvalidatedTokenRepository;
+import com.pap_shop.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CustomJwtAuthenticationConverter#convert}, which runs on every authenticated request
+ * after the signature has been verified: the revocation check and building the authorities.
+ * The token is not revoked and carries the user ID, so neither the revocation check nor the
+ * principal needs the database; the repository behind {@link TokenRevocationService} fails if it is ever reached.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=JwtAuthenticationConverterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationConverterBenchmark {
+
+    private CustomJwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        InvalidatedTokenRepository repository = (InvalidatedTokenRepository) Proxy.newProxyInstance(
+                InvalidatedTokenRepository.class.getClassLoader(),
+                new Class<?>[]{InvalidatedTokenRepository.class},
+                (proxy, method, args) -> {
+                    throw new IllegalStateException("Revocation check reached the database");
+                });
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(repository, new SimpleMeterRegistry());
+
+        converter = new CustomJwtAuthenticationConverter();
+        Field field = CustomJwtAuthenticationConverter.class.getDeclaredField("tokenRevocationService");
+        field.setAccessible(true);
+        field.set(converter, tokenRevocationService);
+
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("customer")
+                .jti(UUID.randomUUID().toString())
+                .claim("uid", 1)
+                .claim("scope", "USER")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(TimeUnit.DAYS.toSeconds(1)))
+                .build();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
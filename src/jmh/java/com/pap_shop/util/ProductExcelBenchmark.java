@@ -0,0 +1,156 @@
+package com.pap_shop.util;
+
+import com.pap_shop.repository.projection.ProductExportView;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the product Excel export and import at several catalog sizes.
+ * The export writes {@link ProductExportView} rows as the repository stream would return them;
+ * the import parses a workbook in the import layout with the chunk size used by the import service.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=ProductExcelBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductExcelBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private List<ProductExportView> products;
+    private byte[] importFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        products = new ArrayList<>(rows);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= rows; i++) {
+            products.add(new ExportRow(i, "Product " + i, "Category " + (i % 20),
+                    "Description of product " + i, BigDecimal.valueOf(1000 + i, 2), i % 100, createdAt.plusMinutes(i)));
+        }
+        importFile = importWorkbook(rows);
+    }
+
+    @Benchmark
+    public int export() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProductExcelExporter.export(products.stream(), out);
+        return out.size();
+    }
+
+    @Benchmark
+    public void importFromExcel(Blackhole blackhole) throws IOException {
+        ProductExcelImporter.importFromExcel(new ByteArrayInputStream(importFile), CHUNK_SIZE, blackhole::consume);
+    }
+
+    private static byte[] importWorkbook(int rows) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            Sheet sheet = workbook.createSheet("Products");
+            String[] header = {"SKU", "Name", "Category ID", "Description", "Price", "Stock", "Purchase Price", "Supplier"};
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < header.length; i++) {
+                headerRow.createCell(i).setCellValue(header[i]);
+            }
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("SKU" + i);
+                row.createCell(1).setCellValue("Product " + i);
+                row.createCell(2).setCellValue(i % 20 + 1);
+                row.createCell(3).setCellValue("Description of product " + i);
+                row.createCell(4).setCellValue(1000 + i / 100.0);
+                row.createCell(5).setCellValue(i % 100);
+                row.createCell(6).setCellValue(800 + i / 100.0);
+                row.createCell(7).setCellValue("Supplier");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            workbook.dispose();
+            return out.toByteArray();
+        }
+    }
+
+    private static class ExportRow implements ProductExportView {
+
+        private final Integer id;
+        private final String name;
+        private final String categoryName;
+        private final String description;
+        private final BigDecimal price;
+        private final Integer stock;
+        private final LocalDateTime createdAt;
+
+        private ExportRow(Integer id, String name, String categoryName, String description,
+                          BigDecimal price, Integer stock, LocalDateTime createdAt) {
+            this.id = id;
+            this.name = name;
+            this.categoryName = categoryName;
+            this.description = description;
+            this.price = price;
+            this.stock = stock;
+            this.createdAt = createdAt;
+        }
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public Integer getStock() {
+            return stock;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pap_shop.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Seeds the rows of the table-backed ID allocator (see {@link com.pap_shop.entity.IdBlocks}).
+ *
+ * Hibernate starts a missing allocator row at 1, which would collide with the IDs already
+ * assigned by AUTO_INCREMENT. Before anything is inserted, every missing row is created
+ * with the next value after the highest ID of its table. Rows that exist are left alone,
+ * so this only does work the first time an entity moves to the allocator.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdBlockInitializer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void seedMissingBlocks() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (persister.getIdentifierGenerator() instanceof TableGenerator && persister instanceof AbstractEntityPersister) {
+                seed((TableGenerator) persister.getIdentifierGenerator(), (AbstractEntityPersister) persister);
+            }
+        }
+    }
+
+    private void seed(TableGenerator generator, AbstractEntityPersister persister) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + generator.getTableName() + " WHERE " + generator.getSegmentColumnName() + " = ?",
+                Integer.class, generator.getSegmentValue());
+        if (rows != null && rows > 0) {
+            return;
+        }
+
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + persister.getIdentifierColumnNames()[0] + "), 0) + 1 FROM " + persister.getTableName(),
+                Long.class);
+        try {
+            jdbcTemplate.update("INSERT INTO " + generator.getTableName() + " (" + generator.getSegmentColumnName() + ", "
+                    + generator.getValueColumnName() + ") VALUES (?, ?)", generator.getSegmentValue(), next);
+            log.info("ID allocation for {} starts at {}", generator.getSegmentValue(), next);
+        } catch (DuplicateKeyException e) {
+            // Another node seeded the row first
+        }
+    }
+}
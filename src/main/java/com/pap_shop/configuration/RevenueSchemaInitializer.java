@@ -0,0 +1,50 @@
+package com.pap_shop.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Drops the unique key on revenue.order_id left by the former one-entry-per-order mapping.
+ *
+ * The ledger now books a reversal as a second entry of the same order, which the old key rejects,
+ * and Hibernate's schema update never drops constraints. Runs after the schema update, so the
+ * plain idx_revenue_order index already covers the foreign key. Nothing is done once the key is gone,
+ * and a node that loses the race to drop it just moves on.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueSchemaInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void dropOrderUniqueKey() {
+        List<String> keys;
+        try {
+            keys = jdbcTemplate.queryForList("SELECT DISTINCT index_name FROM information_schema.statistics "
+                    + "WHERE table_schema = DATABASE() AND table_name = 'revenue' AND column_name = 'order_id' "
+                    + "AND non_unique = 0", String.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not inspect the keys of the revenue table", e);
+            return;
+        }
+        for (String key : keys) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE revenue DROP INDEX `" + key + "`");
+                log.info("Dropped unique key {} on revenue.order_id", key);
+            } catch (DataAccessException e) {
+                // Another node dropped it first
+                log.debug("Could not drop key {} on revenue.order_id", key, e);
+            }
+        }
+    }
+}
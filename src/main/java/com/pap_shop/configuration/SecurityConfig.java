@@ -1,6 +1,9 @@
 package com.pap_shop.configuration;
 
+import com.pap_shop.service.TokenService;
+import com.pap_shop.util.BCryptDelegatingPasswordEncoder;
 import com.pap_shop.util.CustomJwtAuthenticationConverter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,11 +11,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
@@ -20,14 +20,15 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
-import javax.crypto.spec.SecretKeySpec;
 import java.util.Map;
 import java.util.HashMap;
 
 @Configuration
 @EnableWebSecurity
+@Slf4j
 public class SecurityConfig {
 
     /**
@@ -78,8 +79,15 @@ public class SecurityConfig {
         put("/api/role/update", HttpMethod.PUT);
         put("/api/dashboard/stats", HttpMethod.GET);
         put("/api/dashboard/recent-orders", HttpMethod.GET);
+        put("/api/dashboard/cache-stats", HttpMethod.GET);
+        put("/api/dashboard/revenue", HttpMethod.GET);
         put("/api/products", HttpMethod.POST);
         put("/api/products/*/upload-image", HttpMethod.POST);
+        put("/api/products/import", HttpMethod.POST);
+        put("/api/products/import/*", HttpMethod.GET);
+        put("/api/products/import/*/errors", HttpMethod.GET);
+        put("/api/products/import/*/cancel", HttpMethod.POST);
+        put("/api/products/import/*/resume", HttpMethod.POST);
         put("/api/user", HttpMethod.GET);
         put("/api/user/admin/create", HttpMethod.POST);
         put("/api/user/admin/*/role", HttpMethod.PUT);
@@ -93,10 +101,10 @@ public class SecurityConfig {
         put("/api/announcements/*", HttpMethod.DELETE);
     }};
     /**
-     * JWT secret key injected from application properties.
+     * Issues and validates the access tokens.
      */
-    @Value("${jwt.secretkey}")
-    private String secretkey;
+    @Autowired
+    private TokenService tokenService;
 
     @Autowired
     private CustomJwtAuthenticationConverter jwtAuthenticationConverter;
@@ -147,23 +155,35 @@ public class SecurityConfig {
     }
 
     /**
-     * Creates a JWT decoder to validate JWT tokens using the HS256 algorithm.
+     * Creates a JWT decoder that validates HS256 tokens with the key and MAC pool of the {@link TokenService}.
      *
      * @return the configured JwtDecoder
      */
     @Bean
     JwtDecoder jwtDecoder(){
-        SecretKeySpec secretKeySpec = new SecretKeySpec(secretkey.getBytes(),"HS256");
-        return NimbusJwtDecoder
-                .withSecretKey(secretKeySpec)
-                .macAlgorithm(MacAlgorithm.HS256)
-                .build();
-
+        return tokenService::decode;
     }
 
+    /**
+     * Creates the password encoder: BCrypt behind a delegating encoder, so hashes are rehashed at
+     * login when {@code password.bcrypt.strength} is raised. The cost is the same on every node.
+     * With {@code password.bcrypt.calibrate-on-startup}, the highest cost whose hash time on this
+     * machine fits {@code password.bcrypt.latency-budget} is logged as a recommendation only.
+     *
+     * @return the configured PasswordEncoder
+     */
     @Bean
-    PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder(10);
+    PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:10}") int strength,
+                                    @Value("${password.bcrypt.calibrate-on-startup:false}") boolean calibrate,
+                                    @Value("${password.bcrypt.latency-budget:100ms}") Duration latencyBudget,
+                                    @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                    @Value("${password.bcrypt.max-strength:14}") int maxStrength){
+        if (calibrate) {
+            int recommended = BCryptDelegatingPasswordEncoder.calibrate(latencyBudget, minStrength, maxStrength);
+            log.info("Recommended password.bcrypt.strength for a latency budget of {} on this machine: {} (configured: {})",
+                    latencyBudget, recommended, strength);
+        }
+        return new BCryptDelegatingPasswordEncoder(strength);
     }
 
     @Bean
@@ -50,14 +50,22 @@ public class AnnouncementController {
     }
 
     /**
-     * Get all announcements (Admin only)
+     * Get announcements, newest first (Admin only)
+     * Without cursor or size the first page is returned as a plain list (compatibility mode)
      * 
-     * @return List of all announcements
+     * @param cursor Cursor of the next page returned by a previous call
+     * @param size Page size
+     * @return Page of announcements, or a list with the first page in compatibility mode
      */
     @GetMapping
     @Operation(summary = "Get all announcements (Admin)", security = @SecurityRequirement(name = "Bearer Authentication"))
-    public ResponseEntity<List<AnnouncementResponse>> getAllAnnouncements() {
-        return ResponseEntity.ok(announcementService.getAllAnnouncements());
+    public ResponseEntity<?> getAllAnnouncements(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(announcementService.getAllAnnouncements());
+        }
+        return ResponseEntity.ok(announcementService.getAllAnnouncements(cursor, size));
     }
 
     /**
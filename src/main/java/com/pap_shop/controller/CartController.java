@@ -4,7 +4,7 @@ import com.pap_shop.dto.AddToCartRequest;
 import com.pap_shop.dto.UpdateCartItemRequest;
 import com.pap_shop.entity.Cart;
 import com.pap_shop.service.CartService;
-import com.pap_shop.service.UserService;
+import com.pap_shop.util.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -22,7 +22,6 @@ import javax.validation.Valid;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
 
     /**
      * Get user's shopping cart.
@@ -32,8 +31,7 @@ public class CartController {
      */
     @GetMapping
     public ResponseEntity<Cart> getCart(Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         Cart cart = cartService.getCart(userId);
         return ResponseEntity.ok(cart);
     }
@@ -48,8 +46,7 @@ public class CartController {
     @PostMapping("/add")
     public ResponseEntity<Cart> addToCart(@Valid @RequestBody AddToCartRequest request, 
                                          Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         Cart cart = cartService.addToCart(userId, request);
         return ResponseEntity.ok(cart);
     }
@@ -66,8 +63,7 @@ public class CartController {
     public ResponseEntity<Cart> updateCartItem(@PathVariable Integer cartItemId,
                                               @Valid @RequestBody UpdateCartItemRequest request,
                                               Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         Cart cart = cartService.updateCartItem(userId, cartItemId, request);
         return ResponseEntity.ok(cart);
     }
@@ -82,8 +78,7 @@ public class CartController {
     @DeleteMapping("/items/{cartItemId}")
     public ResponseEntity<Cart> removeFromCart(@PathVariable Integer cartItemId,
                                               Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         Cart cart = cartService.removeFromCart(userId, cartItemId);
         return ResponseEntity.ok(cart);
     }
@@ -96,8 +91,7 @@ public class CartController {
      */
     @DeleteMapping("/clear")
     public ResponseEntity<Void> clearCart(Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         cartService.clearCart(userId);
         return ResponseEntity.ok().build();
     }
@@ -110,8 +104,7 @@ public class CartController {
      */
     @GetMapping("/count")
     public ResponseEntity<Integer> getCartItemCount(Authentication authentication) {
-        String username = authentication.getName();
-        Integer userId = userService.findByUsername(username).getId();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         Integer count = cartService.getCartItemCount(userId);
         return ResponseEntity.ok(count);
     }
@@ -1,18 +1,23 @@
 package com.pap_shop.controller;
 
-import com.pap_shop.entity.Order;
-import com.pap_shop.repository.OrderRepository;
-import com.pap_shop.repository.ProductRepository;
-import com.pap_shop.repository.UserRepository;
+import com.pap_shop.dto.CacheRegionStatsResponse;
+import com.pap_shop.dto.DashboardStatsResponse;
+import com.pap_shop.dto.RecentOrderResponse;
+import com.pap_shop.dto.RevenuePointResponse;
+import com.pap_shop.enums.RevenuePeriod;
+import com.pap_shop.service.DashboardStatsService;
+import com.pap_shop.service.EntityCacheService;
+import com.pap_shop.service.RecentOrdersService;
+import com.pap_shop.service.RevenueLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 /**
  * REST controller for dashboard statistics and analytics.
@@ -22,59 +27,73 @@ import java.util.Map;
 @RequestMapping("/api/dashboard")
 public class DashboardController {
     
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final RecentOrdersService recentOrdersService;
+    private final RevenueLedgerService revenueLedgerService;
+    private final EntityCacheService entityCacheService;
     
     /**
      * Constructor to inject required repositories.
      *
-     * @param productRepository the product repository
-     * @param userRepository the user repository
-     * @param orderRepository the order repository
+     * @param dashboardStatsService the in-memory dashboard totals
+     * @param recentOrdersService the in-memory list of the newest orders
+     * @param revenueLedgerService the revenue ledger and its rollups
+     * @param entityCacheService the second-level cache service
      */
-    public DashboardController(ProductRepository productRepository, UserRepository userRepository, OrderRepository orderRepository) {
-        this.productRepository = productRepository;
-        this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
+    public DashboardController(DashboardStatsService dashboardStatsService, RecentOrdersService recentOrdersService,
+                               RevenueLedgerService revenueLedgerService, EntityCacheService entityCacheService) {
+        this.dashboardStatsService = dashboardStatsService;
+        this.recentOrdersService = recentOrdersService;
+        this.revenueLedgerService = revenueLedgerService;
+        this.entityCacheService = entityCacheService;
     }
     
     /**
      * Get dashboard statistics including total products, users, orders and revenue.
+     * Served from memory; see {@link DashboardStatsService}.
      *
      * @return dashboard statistics
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-
-        long totalProducts = productRepository.count();
-
-        long totalUsers = userRepository.count();
-
-        long totalOrders = orderRepository.count();
-
-        BigDecimal revenue = orderRepository.getTotalRevenue();
-        double totalRevenue = revenue != null ? revenue.doubleValue() : 0.0;
-        
-        stats.put("totalProducts", totalProducts);
-        stats.put("totalUsers", totalUsers);
-        stats.put("totalOrders", totalOrders);
-        stats.put("revenue", totalRevenue);
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<DashboardStatsResponse> getDashboardStats() {
+        return ResponseEntity.ok(dashboardStatsService.getStats());
     }
     
     /**
-     * Get recent orders (limited to 10).
+     * Get net revenue per hour, day or month over a time range, for charts.
+     * Read from the revenue rollups, one row per non-empty bucket; empty buckets are returned as zero.
+     *
+     * @param period the bucket size (HOUR, DAY or MONTH)
+     * @param from the start of the range, ISO date-time in server local time
+     * @param to the end of the range (exclusive), ISO date-time in server local time
+     * @return one point per bucket, in time order
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenuePointResponse>> getRevenue(
+            @RequestParam(defaultValue = "DAY") RevenuePeriod period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(revenueLedgerService.getRevenue(period, from, to));
+    }
+
+    /**
+     * Get the summaries of the newest orders (10 by default, see {@code dashboard.recent-orders.size}).
+     * Served from memory; see {@link RecentOrdersService}.
      *
-     * @return list of recent orders
+     * @return list of recent orders, newest first
      */
     @GetMapping("/recent-orders")
-    public ResponseEntity<List<Order>> getRecentOrders() {
-        List<Order> recentOrders = orderRepository.findRecentOrders();
-        List<Order> limitedOrders = recentOrders.size() > 10 ? 
-            recentOrders.subList(0, 10) : recentOrders;
-        return ResponseEntity.ok(limitedOrders);
+    public ResponseEntity<List<RecentOrderResponse>> getRecentOrders() {
+        return ResponseEntity.ok(recentOrdersService.getRecentOrders());
+    }
+
+    /**
+     * Get second-level cache statistics per region, including the hit ratio.
+     *
+     * @return cache statistics
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheRegionStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(entityCacheService.getStatistics());
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,17 @@
 package com.pap_shop.controller;
 
 import com.pap_shop.dto.CreateOrderRequest;
+import com.pap_shop.dto.CursorPageResponse;
 import com.pap_shop.entity.Order;
 import com.pap_shop.enums.OrderStatus;
 import com.pap_shop.service.OrderService;
+import com.pap_shop.util.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -40,26 +41,35 @@ public class OrderController {
             @Valid @RequestBody CreateOrderRequest request,
             Authentication authentication) {
         
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String username = jwt.getSubject();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         
-        Order order = orderService.createOrder(username, request);
+        Order order = orderService.createOrder(userId, request);
         return ResponseEntity.ok(order);
     }
 
     /**
-     * Get all orders of the authenticated user
+     * Get orders of the authenticated user, newest first
+     * Without cursor or size the first page is returned as a plain list (compatibility mode)
+     * @param cursor Cursor of the next page returned by a previous call
+     * @param size Page size
      * @param authentication User authentication info
-     * @return List of user's orders
+     * @return Page of user's orders, or a list with the first page in compatibility mode
      */
     @GetMapping
     @Operation(summary = "Get user orders", security = @SecurityRequirement(name = "Bearer Authentication"))
-    public ResponseEntity<List<Order>> getUserOrders(Authentication authentication) {
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String username = jwt.getSubject();
-        
-        List<Order> orders = orderService.getUserOrders(username);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getUserOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        Integer userId = AuthenticatedUser.from(authentication).getId();
+
+        if (cursor == null && size == null) {
+            List<Order> orders = orderService.getUserOrders(userId);
+            return ResponseEntity.ok(orders);
+        }
+
+        CursorPageResponse<Order> page = orderService.getUserOrders(userId, cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     /**
@@ -74,10 +84,9 @@ public class OrderController {
             @PathVariable Integer orderId,
             Authentication authentication) {
         
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String username = jwt.getSubject();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         
-        Order order = orderService.getOrderById(orderId, username);
+        Order order = orderService.getOrderById(orderId, userId);
         return ResponseEntity.ok(order);
     }
 
@@ -93,10 +102,9 @@ public class OrderController {
             @PathVariable Integer orderId,
             Authentication authentication) {
         
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String username = jwt.getSubject();
+        Integer userId = AuthenticatedUser.from(authentication).getId();
         
-        Order order = orderService.cancelOrder(orderId, username);
+        Order order = orderService.cancelOrder(orderId, userId);
         return ResponseEntity.ok(order);
     }
 
@@ -117,13 +125,25 @@ public class OrderController {
     }
 
     /**
-     * Get all orders in the system (Admin only)
-     * @return List of all orders
+     * Get orders of all users, newest first (Admin only)
+     * Without cursor, size or status the first page is returned as a plain list (compatibility mode)
+     * @param status Status to filter by
+     * @param cursor Cursor of the next page returned by a previous call
+     * @param size Page size
+     * @return Page of orders, or a list with the first page in compatibility mode
      */
     @GetMapping("/admin/all")
     @Operation(summary = "Get all orders (Admin)", security = @SecurityRequirement(name = "Bearer Authentication"))
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (status == null && cursor == null && size == null) {
+            List<Order> orders = orderService.getAllOrders();
+            return ResponseEntity.ok(orders);
+        }
+
+        CursorPageResponse<Order> page = orderService.getAllOrders(status, cursor, size);
+        return ResponseEntity.ok(page);
     }
 }
@@ -2,18 +2,25 @@ package com.pap_shop.controller;
 
 import com.pap_shop.entity.Product;
 import com.pap_shop.entity.ProductImage;
+import com.pap_shop.entity.ImportJobError;
 import com.pap_shop.dto.AddProductRequest;
 import com.pap_shop.dto.UpdateProductRequest;
 import com.pap_shop.dto.AddImageRequest;
+import com.pap_shop.dto.CursorPageResponse;
+import com.pap_shop.dto.ImportJobResponse;
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.dto.ProductResponse;
+import com.pap_shop.enums.ProductSortKey;
 import com.pap_shop.service.ProductService;
 import com.pap_shop.service.ProductImportService;
-import com.pap_shop.util.ProductExcelExporter;
 import com.pap_shop.util.ProductExcelTemplate;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.ResponseEntity;
 
 import java.io.ByteArrayInputStream;
@@ -54,13 +61,27 @@ public class ProductController {
     }
 
     /**
-     * Retrieves all products from the system.
+     * Retrieves a page of the product catalog.
+     * Filters are bound from the categoryId, minPrice, maxPrice, inStock and minRating query parameters.
+     * Without any parameter the first page is returned as a plain list (compatibility mode).
      *
-     * @return a list of all products
+     * @param cursor the cursor of the next page returned by a previous call
+     * @param size the page size
+     * @param sort the sort key: id, price, createdAt, stock or rating
+     * @param direction the sort direction: asc or desc
+     * @param filter the filters to apply
+     * @return a page of products, or a list with the first page in compatibility mode
      */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String direction,
+                                            ProductFilter filter) {
+        if (cursor == null && size == null && sort == null && direction == null && filter.equals(new ProductFilter())) {
+            return ResponseEntity.ok(productService.getAllProducts());
+        }
+        return ResponseEntity.ok(getProducts(filter, cursor, size, sort, direction));
     }
 
     /**
@@ -70,21 +91,43 @@ public class ProductController {
      * @return a ResponseEntity containing the product if found, or a 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductByID(@PathVariable("id") Integer ID) {
-        Optional<Product> product = productService.getProductsByID(ID);
+    public ResponseEntity<ProductResponse> getProductByID(@PathVariable("id") Integer ID) {
+        Optional<ProductResponse> product = productService.getProductsByID(ID);
         return product.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
-     * Retrieves all products in a specific category.
+     * Retrieves a page of the products in a specific category.
+     * Accepts the same paging, sorting and filter parameters as the catalog; without any
+     * parameter the first page is returned as a plain list (compatibility mode).
      *
      * @param categoryID the ID of the category to search for
-     * @return a ResponseEntity containing a list of products in the specified category
+     * @param cursor the cursor of the next page returned by a previous call
+     * @param size the page size
+     * @param sort the sort key: id, price, createdAt, stock or rating
+     * @param direction the sort direction: asc or desc
+     * @param filter the price, stock and rating filters to apply
+     * @return a page of products, or a list with the first page in compatibility mode
      */
     @GetMapping("/category/{categoryID}")
-    public ResponseEntity<List<Product>> getProductByCategoryID(@PathVariable Integer categoryID) {
-        List<Product> products = productService.getProductsByCategoryID(categoryID);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getProductByCategoryID(@PathVariable Integer categoryID,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestParam(required = false) String sort,
+                                                    @RequestParam(required = false) String direction,
+                                                    ProductFilter filter) {
+        if (cursor == null && size == null && sort == null && direction == null && filter.equals(new ProductFilter())) {
+            List<ProductResponse> products = productService.getProductsByCategoryID(categoryID);
+            return ResponseEntity.ok(products);
+        }
+        filter.setCategoryId(categoryID);
+        return ResponseEntity.ok(getProducts(filter, cursor, size, sort, direction));
+    }
+
+    private CursorPageResponse<ProductResponse> getProducts(ProductFilter filter, String cursor, Integer size,
+                                                            String sort, String direction) {
+        Sort.Direction sortDirection = direction != null ? Sort.Direction.fromString(direction) : Sort.Direction.ASC;
+        return productService.getProducts(filter, ProductSortKey.fromParam(sort), sortDirection, cursor, size);
     }
 
     /**
@@ -102,14 +145,13 @@ public class ProductController {
 
     /**
      * Export all products to Excel file.
+     * The workbook is streamed straight to the response while products are read from the database.
      *
      * @return Excel file containing all products
-     * @throws Exception if export fails
      */
     @GetMapping("/export")
-    public ResponseEntity<InputStreamResource> exportExcel() throws Exception {
-        List<Product> products = productService.getAllProducts();
-        ByteArrayInputStream in = ProductExcelExporter.export(products);
+    public ResponseEntity<StreamingResponseBody> exportExcel() {
+        StreamingResponseBody body = productService::exportProducts;
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=products.xlsx");
@@ -117,7 +159,7 @@ public class ProductController {
         return ResponseEntity.ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .body(body);
     }
 
     /**
@@ -135,9 +177,11 @@ public class ProductController {
 
     /**
      * Import products from Excel file.
+     * The file is processed in the background; progress is published on
+     * {@code /topic/imports/{jobId}} and can be polled with {@link #getImportJob(String)}.
      *
      * @param file the Excel file containing products to import
-     * @return success message with import count
+     * @return the queued import job
      */
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> importExcel(@RequestParam("file") MultipartFile file) {
@@ -146,15 +190,57 @@ public class ProductController {
         }
 
         try {
-            List<Product> importedProducts = productImportService.importProductsFromExcel(file);
-            return ResponseEntity.ok("Imported " + importedProducts.size() + " products successfully");
+            ImportJobResponse job = productImportService.startImport(file);
+            return ResponseEntity.accepted().body(job);
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Error reading Excel file: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error importing products: " + e.getMessage());
         }
     }
 
+    /**
+     * Get the state and progress of an import job.
+     *
+     * @param jobId the import job ID
+     * @return the import job
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId));
+    }
+
+    /**
+     * Get the rows of an import job that could not be imported.
+     *
+     * @param jobId the import job ID
+     * @return the failed rows with their error messages
+     */
+    @GetMapping("/import/{jobId}/errors")
+    public ResponseEntity<List<ImportJobError>> getImportJobErrors(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getErrors(jobId));
+    }
+
+    /**
+     * Cancel an import job. Rows imported so far are kept.
+     *
+     * @param jobId the import job ID
+     * @return the import job
+     */
+    @PostMapping("/import/{jobId}/cancel")
+    public ResponseEntity<ImportJobResponse> cancelImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.cancel(jobId));
+    }
+
+    /**
+     * Resume a canceled import job from its checkpoint.
+     *
+     * @param jobId the import job ID
+     * @return the queued import job
+     */
+    @PostMapping("/import/{jobId}/resume")
+    public ResponseEntity<ImportJobResponse> resumeImportJob(@PathVariable String jobId) {
+        return ResponseEntity.accepted().body(productImportService.resume(jobId));
+    }
+
     /**
      * Download Excel template for product import.
      *
@@ -175,14 +261,18 @@ public class ProductController {
     }
 
     /**
-     * Searches for products by name (case-insensitive partial match).
+     * Searches for products by name, SKU or description, ignoring case and diacritics.
      *
-     * @param name the name or partial name to search for
-     * @return a ResponseEntity containing a list of products matching the search term
+     * @param name the text to search for
+     * @param page zero-based page number
+     * @param size page size
+     * @return a ResponseEntity containing the requested page of matching products, best match first
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProductsByName(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
+    public ResponseEntity<List<ProductResponse>> searchProductsByName(@RequestParam String name,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        List<ProductResponse> products = productService.searchProductsByName(name, page, size);
         return ResponseEntity.ok(products);
     }
 
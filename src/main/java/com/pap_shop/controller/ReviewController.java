@@ -3,6 +3,7 @@ package com.pap_shop.controller;
 import com.pap_shop.dto.ReviewRequest;
 import com.pap_shop.dto.ReviewResponse;
 import com.pap_shop.service.ReviewService;
+import com.pap_shop.util.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -39,8 +40,8 @@ public class ReviewController {
             @PathVariable Integer productId,
             @Valid @RequestBody ReviewRequest request,
             Authentication authentication) {
-        String username = authentication.getName();
-        return ResponseEntity.ok(reviewService.addReview(productId, username, request));
+        Integer userId = AuthenticatedUser.from(authentication).getId();
+        return ResponseEntity.ok(reviewService.addReview(productId, userId, request));
     }
 
     /**
@@ -56,8 +57,8 @@ public class ReviewController {
             @PathVariable Integer reviewId,
             @Valid @RequestBody ReviewRequest request,
             Authentication authentication) {
-        String username = authentication.getName();
-        return ResponseEntity.ok(reviewService.updateReview(reviewId, username, request));
+        Integer userId = AuthenticatedUser.from(authentication).getId();
+        return ResponseEntity.ok(reviewService.updateReview(reviewId, userId, request));
     }
 
     /**
@@ -71,8 +72,8 @@ public class ReviewController {
     public ResponseEntity<Void> deleteReview(
             @PathVariable Integer reviewId,
             Authentication authentication) {
-        String username = authentication.getName();
-        reviewService.deleteReview(reviewId, username);
+        Integer userId = AuthenticatedUser.from(authentication).getId();
+        reviewService.deleteReview(reviewId, userId);
         return ResponseEntity.noContent().build();
     }
 
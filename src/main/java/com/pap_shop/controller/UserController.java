@@ -7,21 +7,23 @@ import com.pap_shop.dto.ResetPasswordRequest;
 import com.pap_shop.dto.UserRequest;
 import com.pap_shop.dto.ValidateCodeRequest;
 import com.pap_shop.entity.User;
+import com.pap_shop.service.LoginRateLimiter;
 import com.pap_shop.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
     private final UserService userService;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, LoginRateLimiter loginRateLimiter) {
         this.userService = userService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     /**
@@ -56,11 +58,16 @@ public class UserController {
     /**
      * Login an existing customer.
      *
+     * Attempts are limited per client address and per account before the password is checked.
+     * Behind a trusted proxy the client address is the forwarded one (see {@code server.forward-headers-strategy}).
+     *
      * @param request the login request containing email/phone and password
+     * @param httpRequest the HTTP request, for the client address
      * @return the generated JWT token if login is successful
      */
     @PostMapping("/login")
-    public String login(@RequestBody LoginRequest request) {
+    public String login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.acquire(request.getEmailOrPhoneOrUsername(), httpRequest.getRemoteAddr());
         return userService.login(request.getEmailOrPhoneOrUsername(), request.getPassword());
     }
 
@@ -86,12 +93,21 @@ public class UserController {
     }
 
     /**
-     * Get all users.
+     * Get users, newest first.
+     * Without cursor or size the first page is returned as a plain list (compatibility mode).
      *
-     * @return list of all users
+     * @param cursor the cursor of the next page returned by a previous call
+     * @param size the page size
+     * @return a page of users, or a list with the first page in compatibility mode
      */
     @GetMapping
-    public List<User> getAllUsers(){ return userService.getAllUsers();}
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size){
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(userService.getAllUsers());
+        }
+        return ResponseEntity.ok(userService.getAllUsers(cursor, size));
+    }
 
     /**
      * Logout user by invalidating JWT token.
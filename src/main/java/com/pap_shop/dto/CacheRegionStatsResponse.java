@@ -0,0 +1,18 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO with the hit/miss counters of one second-level cache region since startup.
+ */
+@Data
+@AllArgsConstructor
+public class CacheRegionStatsResponse {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long size;
+    private double hitRatio;
+}
@@ -0,0 +1,11 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CategoryResponse {
+    private Integer id;
+    private String name;
+}
@@ -0,0 +1,16 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO with the totals shown on the admin dashboard; revenue is the total price of delivered orders.
+ */
+@Data
+@AllArgsConstructor
+public class DashboardStatsResponse {
+    private long totalProducts;
+    private long totalUsers;
+    private long totalOrders;
+    private double revenue;
+}
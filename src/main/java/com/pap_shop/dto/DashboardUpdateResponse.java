@@ -0,0 +1,28 @@
+package com.pap_shop.dto;
+
+import com.pap_shop.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO pushed on {@code /topic/dashboard}: a snapshot when a client subscribes, then coalesced deltas.
+ * Both carry the current totals; a snapshot lists the recent orders, a delta the orders placed,
+ * the status changes, the revenue change and the number of new users since the previous message.
+ */
+@Data
+@AllArgsConstructor
+public class DashboardUpdateResponse {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+
+    private String type;
+    private DashboardStatsResponse stats;
+    private List<RecentOrderResponse> orders;
+    private Map<Integer, OrderStatus> statusChanges;
+    private BigDecimal revenueDelta;
+    private int newUsers;
+}
@@ -0,0 +1,27 @@
+package com.pap_shop.dto;
+
+import com.pap_shop.enums.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing the state and progress of a product import job.
+ * Also published on {@code /topic/imports/{jobId}} after every chunk.
+ */
+@Data
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String id;
+    private String fileName;
+    private ImportJobStatus status;
+    private Integer rowsRead;
+    private Integer inserted;
+    private Integer updated;
+    private Integer failed;
+    private Integer checkpointRow;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
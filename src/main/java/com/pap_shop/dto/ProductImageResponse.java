@@ -0,0 +1,11 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductImageResponse {
+    private Integer id;
+    private String imageUrl;
+}
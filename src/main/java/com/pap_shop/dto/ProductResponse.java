@@ -0,0 +1,28 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO returned by the catalog endpoints.
+ * Has the same JSON shape as the {@code Product} entity, with the rating aggregates grouped
+ * under {@code rating}, but is built from projections, so serializing it never triggers lazy loading.
+ */
+@Data
+@AllArgsConstructor
+public class ProductResponse {
+    private Integer id;
+    private String name;
+    private CategoryResponse category;
+    private String description;
+    private BigDecimal price;
+    private Integer stock;
+    private LocalDateTime createdAt;
+    private String sku;
+    private List<ProductImageResponse> images;
+    private RatingSummaryResponse rating;
+}
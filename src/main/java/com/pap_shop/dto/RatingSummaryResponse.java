@@ -0,0 +1,19 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO with the rating aggregates of a product: review count, average rating and
+ * the number of 1 to 5 star reviews, in that order.
+ */
+@Data
+@AllArgsConstructor
+public class RatingSummaryResponse {
+    private Integer count;
+    private BigDecimal average;
+    private List<Integer> histogram;
+}
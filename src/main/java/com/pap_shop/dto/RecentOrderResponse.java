@@ -0,0 +1,22 @@
+package com.pap_shop.dto;
+
+import com.pap_shop.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * DTO with the summary of an order shown in the recent orders list of the admin dashboard.
+ */
+@Data
+@AllArgsConstructor
+public class RecentOrderResponse {
+    private Integer id;
+    private String customerName;
+    private BigDecimal totalPrice;
+    private OrderStatus status;
+    private Timestamp createdAt;
+    private Long itemCount;
+}
@@ -0,0 +1,18 @@
+package com.pap_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO with the net revenue and delivered order count of one bucket of a revenue chart.
+ */
+@Data
+@AllArgsConstructor
+public class RevenuePointResponse {
+    private LocalDateTime bucketStart;
+    private BigDecimal amount;
+    private int orders;
+}
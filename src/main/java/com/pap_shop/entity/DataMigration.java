@@ -0,0 +1,28 @@
+package com.pap_shop.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+/**
+ * Entity representing a one-off data migration that has been applied.
+ * The row is inserted in the same transaction as the migration's changes, so a migration
+ * runs on exactly one node, once, see {@link com.pap_shop.service.DataMigrationService}.
+ */
+@Entity
+@Table(name = "data_migrations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataMigration {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private Timestamp appliedAt;
+}
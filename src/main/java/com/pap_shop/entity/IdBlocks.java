@@ -0,0 +1,19 @@
+package com.pap_shop.entity;
+
+/**
+ * Mapping constants of the table-backed ID allocator.
+ * Entities that are inserted in bulk take their IDs from a row of the {@code id_blocks} table
+ * instead of an AUTO_INCREMENT column, so Hibernate knows the ID before the INSERT and can
+ * send inserts as JDBC batches. Each node reserves {@link #BLOCK_SIZE} IDs per round trip
+ * (pooled-lo optimizer) and hands them out from memory.
+ */
+public final class IdBlocks {
+
+    public static final String TABLE = "id_blocks";
+    public static final String SEGMENT_COLUMN = "entity_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int BLOCK_SIZE = 50;
+
+    private IdBlocks() {
+    }
+}
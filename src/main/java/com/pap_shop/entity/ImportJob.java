@@ -0,0 +1,73 @@
+package com.pap_shop.entity;
+
+import com.pap_shop.enums.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a product import running in the background.
+ * Counters and the checkpoint are committed together with each chunk of imported rows,
+ * so a canceled or interrupted job resumes right after the last committed row.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    /**
+     * Location of the uploaded file on the server, kept until the job completes.
+     */
+    @Column(nullable = false, length = 1024)
+    private String filePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImportJobStatus status;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer rowsRead = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer inserted = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer updated = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer failed = 0;
+
+    /**
+     * Spreadsheet row number of the last committed row; rows up to it are skipped on resume.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer checkpointRow = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime updatedAt;
+}
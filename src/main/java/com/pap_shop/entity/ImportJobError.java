@@ -0,0 +1,33 @@
+package com.pap_shop.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Entity representing a row of an import file that could not be imported.
+ */
+@Entity
+@Table(name = "import_job_errors", indexes = {@Index(name = "idx_import_job_errors_job", columnList = "job_id, row_num")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "import_job_errors_id")
+    @TableGenerator(name = "import_job_errors_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "import_job_errors", allocationSize = IdBlocks.BLOCK_SIZE)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Column(name = "row_num", nullable = false)
+    private Integer rowNumber;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+}
@@ -16,7 +16,11 @@ import javax.persistence.*;
  * creation timestamp, and the list of order items.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_orders_created", columnList = "created_at, id"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at, id")
+})
 @Setter
 @Getter
 @AllArgsConstructor
@@ -27,7 +31,9 @@ public class Order {
      * The unique identifier for the order.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "orders", allocationSize = IdBlocks.BLOCK_SIZE)
     private Integer id;
 
     /**
@@ -25,7 +25,9 @@ public class OrderItem {
      * The unique identifier for the order item.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_items_id")
+    @TableGenerator(name = "order_items_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "order_items", allocationSize = IdBlocks.BLOCK_SIZE)
     private Integer id;
 
     /**
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -16,9 +19,22 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 /**
  * Entity representing a product in the shop.
  * Contains information about product id, name, category, description, price, stock, and creation timestamp.
+ * Cached in the second-level cache; stock and rating changes made through JDBC must evict the entry
+ * through {@link com.pap_shop.service.EntityCacheService}.
  */
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price", columnList = "price, id"),
+        @Index(name = "idx_products_created", columnList = "created_at, id"),
+        @Index(name = "idx_products_stock", columnList = "stock, id"),
+        @Index(name = "idx_products_category_price", columnList = "id_category, price, id"),
+        @Index(name = "idx_products_category_created", columnList = "id_category, created_at, id"),
+        @Index(name = "idx_products_category_stock", columnList = "id_category, stock, id"),
+        @Index(name = "idx_products_rating", columnList = "rating_average, id"),
+        @Index(name = "idx_products_category_rating", columnList = "id_category, rating_average, id")
+})
 @Setter
 @Getter
 @AllArgsConstructor
@@ -30,7 +46,9 @@ public class Product {
      * The unique identifier for the product.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "products_id")
+    @TableGenerator(name = "products_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "products", allocationSize = IdBlocks.BLOCK_SIZE)
     private Integer id;
 
     /**
@@ -83,4 +101,51 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<ProductImage> images;
+
+    /**
+     * The number of reviews of the product.
+     * The rating columns are maintained by {@link com.pap_shop.repository.ProductRatingRepository}
+     * and never written by entity updates.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+
+    /**
+     * The sum of the ratings of all reviews.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Integer ratingSum = 0;
+
+    /**
+     * The average rating, rounded to two decimals, or 0 without reviews.
+     * Stored so the catalog can be sorted and filtered by rating through an index.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_average", nullable = false, updatable = false, precision = 3, scale = 2)
+    private BigDecimal ratingAverage = BigDecimal.ZERO;
+
+    /**
+     * The number of reviews with 1 to 5 stars.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_1", nullable = false, updatable = false)
+    private Integer rating1 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_2", nullable = false, updatable = false)
+    private Integer rating2 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_3", nullable = false, updatable = false)
+    private Integer rating3 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_4", nullable = false, updatable = false)
+    private Integer rating4 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_5", nullable = false, updatable = false)
+    private Integer rating5 = 0;
 }
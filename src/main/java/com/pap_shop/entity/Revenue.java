@@ -10,11 +10,16 @@ import java.sql.Timestamp;
 import java.math.BigDecimal;
 
 /**
- * Entity representing the revenue generated from an order.
+ * Entity representing an entry of the revenue ledger.
+ * An order gets a positive entry when it is delivered and a negative one if it leaves DELIVERED later,
+ * e.g. when it is canceled; entries are never updated.
  * Contains information about the revenue ID, associated order, total revenue amount, and the date of revenue.
  */
 @Entity
-@Table(name = "revenue")
+@Table(name = "revenue", indexes = {
+        @Index(name = "idx_revenue_order", columnList = "order_id"),
+        @Index(name = "idx_revenue_date", columnList = "revenue_date")
+})
 @Setter
 @Getter
 @AllArgsConstructor
@@ -30,14 +35,14 @@ public class Revenue {
 
     /**
      * The order associated with this revenue.
-     * The relationship is one-to-one (each revenue corresponds to one order).
+     * The relationship is many-to-one (a delivery and its reversals belong to one order).
      */
-    @OneToOne
+    @ManyToOne
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
     /**
-     * The total revenue generated from the order.
+     * The total revenue generated from the order, negative for a reversal.
      * The value is stored as a BigDecimal with a precision of 10 digits and scale of 2 digits after the decimal point.
      */
     @Column(nullable = false, precision = 10, scale = 2)
@@ -0,0 +1,60 @@
+package com.pap_shop.entity;
+
+import com.pap_shop.enums.RevenuePeriod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the net revenue of one hour, day or month, summed from the revenue ledger.
+ * Rows are only ever incremented, in the transaction that appends to the ledger, so a time-range
+ * chart reads one row per bucket instead of the orders.
+ */
+@Entity
+@Table(name = "revenue_rollups")
+@IdClass(RevenueRollup.Key.class)
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueRollup {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private RevenuePeriod period;
+
+    /**
+     * Start of the bucket, in server local time.
+     */
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    /**
+     * Revenue booked in the bucket minus revenue reversed in it.
+     */
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * Orders delivered in the bucket minus deliveries reversed in it.
+     */
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private RevenuePeriod period;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -3,9 +3,14 @@ package com.pap_shop.entity;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
 @Table(name = "role_list")
 @Setter @Getter
 @AllArgsConstructor @NoArgsConstructor
@@ -0,0 +1,27 @@
+package com.pap_shop.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Entity representing the SKU counter of one prefix.
+ * Holds the first number not yet reserved by any node; numbers are reserved in blocks
+ * by {@link com.pap_shop.service.SkuAllocator}.
+ */
+@Entity
+@Table(name = "sku_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuCounter {
+
+    @Id
+    @Column(length = 10)
+    private String prefix;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
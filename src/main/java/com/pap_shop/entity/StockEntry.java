@@ -25,7 +25,9 @@ public class StockEntry {
      * The unique identifier for the stock entry.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "stock_entries_id")
+    @TableGenerator(name = "stock_entries_id", table = IdBlocks.TABLE, pkColumnName = IdBlocks.SEGMENT_COLUMN,
+            valueColumnName = IdBlocks.VALUE_COLUMN, pkColumnValue = "stock_entries", allocationSize = IdBlocks.BLOCK_SIZE)
     private Integer id;
 
     /**
@@ -70,7 +70,11 @@ public class User {
     @Column(name = "password",nullable = false)
     private String password;
 
-    @Column(name = "username",nullable = false)
+    /**
+     * The username of the customer.
+     * Cannot be null and must be unique.
+     */
+    @Column(name = "username",nullable = false, unique = true)
     private  String username;
 
     @ManyToOne
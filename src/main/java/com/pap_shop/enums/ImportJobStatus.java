@@ -0,0 +1,31 @@
+package com.pap_shop.enums;
+
+/**
+ * Enum representing the lifecycle of a product import job.
+ */
+public enum ImportJobStatus {
+    /**
+     * Job has been accepted and is waiting for a free import worker.
+     */
+    QUEUED,
+
+    /**
+     * Rows are being read and written.
+     */
+    RUNNING,
+
+    /**
+     * Every row of the file has been processed.
+     */
+    COMPLETED,
+
+    /**
+     * Job was canceled, or interrupted by a restart; it can be resumed from its checkpoint.
+     */
+    CANCELED,
+
+    /**
+     * The file could not be read; the job cannot continue.
+     */
+    FAILED
+}
@@ -0,0 +1,26 @@
+package com.pap_shop.enums;
+
+/**
+ * Enum representing the delivery state of a queued outbound email.
+ */
+public enum OutboundEmailStatus {
+    /**
+     * Waiting to be sent, either for the first time or for a retry after {@code nextAttemptAt}.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a mail worker; if the worker dies, the claim lapses at {@code nextAttemptAt}.
+     */
+    SENDING,
+
+    /**
+     * Accepted by the mail server.
+     */
+    SENT,
+
+    /**
+     * Every attempt failed; the email will not be retried.
+     */
+    FAILED
+}
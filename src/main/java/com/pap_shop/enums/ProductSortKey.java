@@ -0,0 +1,66 @@
+package com.pap_shop.enums;
+
+/**
+ * Enum representing the columns the product catalog can be sorted by.
+ * Every key is paired with the product ID as tie-breaker, so each sort order
+ * is backed by a (key, id) index and can be paginated with a keyset cursor.
+ */
+public enum ProductSortKey {
+    /**
+     * Sort by product ID, the default order.
+     */
+    ID("id"),
+
+    /**
+     * Sort by unit price.
+     */
+    PRICE("price"),
+
+    /**
+     * Sort by creation time.
+     */
+    CREATED_AT("createdAt"),
+
+    /**
+     * Sort by the number of items in stock.
+     */
+    STOCK("stock"),
+
+    /**
+     * Sort by average rating, accepted as {@code rating} or {@code ratingAverage}.
+     */
+    RATING("ratingAverage");
+
+    private final String property;
+
+    ProductSortKey(String property) {
+        this.property = property;
+    }
+
+    /**
+     * @return the name of the sorted property of the Product entity
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Resolves a sort request parameter, accepting either the property name
+     * ({@code createdAt}) or the constant name ({@code CREATED_AT}), ignoring case.
+     *
+     * @param value the request parameter, or null for the default order
+     * @return the sort key
+     * @throws IllegalArgumentException if the value names no sort key
+     */
+    public static ProductSortKey fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return ID;
+        }
+        for (ProductSortKey key : values()) {
+            if (key.property.equalsIgnoreCase(value) || key.name().equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + value);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pap_shop.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Enum representing the bucket size of the revenue rollups.
+ */
+public enum RevenuePeriod {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * Returns the start of the bucket that contains the given time.
+     *
+     * @param time a local date-time
+     * @return the start of its bucket
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        switch (this) {
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return time.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+    }
+
+    /**
+     * Returns the start of the bucket after the one starting at {@code bucketStart}.
+     *
+     * @param bucketStart the start of a bucket
+     * @return the start of the next bucket
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        switch (this) {
+            case HOUR:
+                return bucketStart.plusHours(1);
+            case DAY:
+                return bucketStart.plusDays(1);
+            default:
+                return bucketStart.plusMonths(1);
+        }
+    }
+}
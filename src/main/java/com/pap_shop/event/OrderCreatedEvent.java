@@ -0,0 +1,22 @@
+package com.pap_shop.event;
+
+import com.pap_shop.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * Published when an order has been placed, with the summary shown on the admin dashboard.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCreatedEvent {
+    private final Integer orderId;
+    private final String customerName;
+    private final BigDecimal totalPrice;
+    private final OrderStatus status;
+    private final Timestamp createdAt;
+    private final int itemCount;
+}
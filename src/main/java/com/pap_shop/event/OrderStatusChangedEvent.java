@@ -0,0 +1,19 @@
+package com.pap_shop.event;
+
+import com.pap_shop.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when the status of an order has been changed, by the customer or by an admin.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final Integer orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final BigDecimal totalPrice;
+}
@@ -0,0 +1,13 @@
+package com.pap_shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a product has been created, one event per product of an import.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCreatedEvent {
+    private final Integer productId;
+}
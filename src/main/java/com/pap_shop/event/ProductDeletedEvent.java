@@ -0,0 +1,13 @@
+package com.pap_shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a product has been deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductDeletedEvent {
+    private final Integer productId;
+}
@@ -0,0 +1,13 @@
+package com.pap_shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user account has been created, by registration or by an admin.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCreatedEvent {
+    private final Integer userId;
+}
@@ -0,0 +1,13 @@
+package com.pap_shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user account has been deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class UserDeletedEvent {
+    private final Integer userId;
+}
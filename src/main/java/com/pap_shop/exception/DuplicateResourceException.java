@@ -8,4 +8,8 @@ public class DuplicateResourceException extends RuntimeException {
     public DuplicateResourceException(String message) {
         super(message);
     }
+
+    public DuplicateResourceException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
\ No newline at end of file
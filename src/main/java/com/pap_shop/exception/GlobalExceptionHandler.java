@@ -120,6 +120,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles {@link TooManyRequestsException}.
+     * This exception is thrown when a bounded resource, such as the import job queue, is saturated.
+     *
+     * @param exception The {@link TooManyRequestsException} instance that was thrown.
+     * @param request The current web request.
+     * @return A {@link ResponseEntity} containing a structured {@link ErrorResponse} and an HTTP status of 429 TOO_MANY_REQUESTS.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException exception, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                exception.getMessage(),
+                BUG_REPORT_CONTACT,
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     /**
      * Handles {@link MaxUploadSizeExceededException}.
      * This exception is thrown when uploaded file size exceeds the configured limit.
@@ -1,6 +1,8 @@
 package com.pap_shop.repository;
 
 import com.pap_shop.entity.Announcement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,21 @@ import java.util.List;
 @Repository
 public interface AnnouncementRepository extends JpaRepository<Announcement, Integer> {
     List<Announcement> findByIsActiveTrueOrderByCreatedAtDesc();
+
+    /**
+     * Finds the most recent announcements.
+     *
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the newest announcements
+     */
+    Slice<Announcement> findAllByOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Finds the announcements created before the given cursor position (keyset pagination).
+     *
+     * @param id the ID of the last announcement of the previous page
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the next announcements after the cursor
+     */
+    Slice<Announcement> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
 }
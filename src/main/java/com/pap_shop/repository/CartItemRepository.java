@@ -15,8 +15,4 @@ public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
     @Modifying
     @Query(value = "DELETE FROM cart_items WHERE cart_id = ?1", nativeQuery = true)
     void deleteByCartId(Integer cartId);
-    
-    @Modifying
-    @Query(value = "ALTER TABLE cart_items AUTO_INCREMENT = 1", nativeQuery = true)
-    void resetAutoIncrement();
 }
\ No newline at end of file
@@ -1,10 +1,21 @@
 package com.pap_shop.repository;
 import com.pap_shop.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 /**
  * Repository interface for performing CRUD operations on Category entities.
  * Extends JpaRepository to provide basic CRUD functionality.
+ * Category lookups are served from the second-level and query caches.
  */
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Category> findAll();
 }
@@ -0,0 +1,12 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.ImportJobError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobError, Long> {
+    List<ImportJobError> findByJobIdOrderByRowNumberAsc(String jobId);
+}
@@ -0,0 +1,14 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.ImportJob;
+import com.pap_shop.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    List<ImportJob> findByStatusIn(Collection<ImportJobStatus> statuses);
+}
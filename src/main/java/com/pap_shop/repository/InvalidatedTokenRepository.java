@@ -8,9 +8,11 @@ import org.springframework.data.repository.query.Param;
 
 import javax.transaction.Transactional;
 import java.time.Instant;
+import java.util.List;
 
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, Integer> {
     boolean existsByJti(String jti);
+    List<InvalidatedToken> findByExpiryTimeAfter(Instant now);
     @Modifying
     @Transactional
     @Query("DELETE FROM InvalidatedToken t WHERE t.expiryTime < :now")
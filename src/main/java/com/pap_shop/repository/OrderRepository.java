@@ -1,19 +1,127 @@
 package com.pap_shop.repository;
 
+import com.pap_shop.dto.RecentOrderResponse;
 import com.pap_shop.entity.Order;
+import com.pap_shop.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     
     @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.status = 'DELIVERED'")
     BigDecimal getTotalRevenue();
+
+    /**
+     * Finds an order and locks its row until the end of the transaction (SELECT ... FOR UPDATE),
+     * so concurrent status changes of one order run one after the other and each sees the status
+     * left by the previous one.
+     *
+     * @param id the order ID
+     * @return the locked order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Integer id);
     
-    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
-    List<Order> findRecentOrders();
-}
\ No newline at end of file
+    /**
+     * Finds the summaries of the newest orders, read backwards along the (created_at, id) index
+     * and stopped at the page size; items are counted per returned order only.
+     *
+     * @param pageable the number of orders (page number is ignored by callers, always 0)
+     * @return the newest order summaries
+     */
+    @Query("SELECT new com.pap_shop.dto.RecentOrderResponse(o.id, u.name, o.totalPrice, o.status, o.createdAt, " +
+            "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o)) " +
+            "FROM Order o JOIN o.user u ORDER BY o.createdAt DESC, o.id DESC")
+    List<RecentOrderResponse> findRecentSummaries(Pageable pageable);
+
+    /**
+     * Finds the newest orders of a customer, served by the (customer_id, created_at, id) index.
+     *
+     * @param userId the customer ID
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the customer's newest orders
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findLatestByUserId(@Param("userId") Integer userId, Pageable pageable);
+
+    /**
+     * Finds the customer's orders placed before the given cursor position (keyset pagination).
+     *
+     * @param userId the customer ID
+     * @param createdAt creation time of the last order of the previous page
+     * @param id ID of the last order of the previous page
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the next orders after the cursor
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findByUserIdBefore(@Param("userId") Integer userId,
+                                    @Param("createdAt") Timestamp createdAt,
+                                    @Param("id") Integer id,
+                                    Pageable pageable);
+
+    /**
+     * Finds the newest orders of all customers, served by the (created_at, id) index.
+     *
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the newest orders
+     */
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findLatest(Pageable pageable);
+
+    /**
+     * Finds the orders placed before the given cursor position (keyset pagination).
+     *
+     * @param createdAt creation time of the last order of the previous page
+     * @param id ID of the last order of the previous page
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the next orders after the cursor
+     */
+    @Query("SELECT o FROM Order o " +
+            "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findBefore(@Param("createdAt") Timestamp createdAt,
+                            @Param("id") Integer id,
+                            Pageable pageable);
+
+    /**
+     * Finds the newest orders with the given status, served by the (status, created_at, id) index.
+     *
+     * @param status the order status
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the newest orders with the status
+     */
+    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findLatestByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    /**
+     * Finds the orders with the given status placed before the given cursor position (keyset pagination).
+     *
+     * @param status the order status
+     * @param createdAt creation time of the last order of the previous page
+     * @param id ID of the last order of the previous page
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the next orders after the cursor
+     */
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findByStatusBefore(@Param("status") OrderStatus status,
+                                    @Param("createdAt") Timestamp createdAt,
+                                    @Param("id") Integer id,
+                                    Pageable pageable);
+}
@@ -0,0 +1,64 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.OutboundEmail;
+import com.pap_shop.enums.OutboundEmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    /**
+     * Finds the oldest emails that are due: new or retried emails, and emails whose worker claim has lapsed.
+     *
+     * @param statuses the statuses of unsent emails
+     * @param now the current time
+     * @param pageable the batch size (page number is ignored by callers, always 0)
+     * @return the due emails, oldest first
+     */
+    List<OutboundEmail> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            Collection<OutboundEmailStatus> statuses, Instant now, Pageable pageable);
+
+    /**
+     * Claims a due email for a worker until {@code claimedUntil}, unless another worker claimed it first.
+     *
+     * @param id the email ID
+     * @param dueBy the time the email was found due at
+     * @param claimedUntil when the claim lapses if the worker does not record an outcome
+     * @return 1 if the email was claimed, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = com.pap_shop.enums.OutboundEmailStatus.SENDING, "
+            + "e.nextAttemptAt = :claimedUntil, e.attempts = e.attempts + 1 "
+            + "WHERE e.id = :id AND e.nextAttemptAt <= :dueBy "
+            + "AND e.status IN (com.pap_shop.enums.OutboundEmailStatus.PENDING, com.pap_shop.enums.OutboundEmailStatus.SENDING)")
+    int claim(@Param("id") Long id, @Param("dueBy") Instant dueBy, @Param("claimedUntil") Instant claimedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = com.pap_shop.enums.OutboundEmailStatus.SENT, "
+            + "e.sentAt = :sentAt, e.lastError = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("status") OutboundEmailStatus status,
+                   @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = com.pap_shop.enums.OutboundEmailStatus.SENT AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
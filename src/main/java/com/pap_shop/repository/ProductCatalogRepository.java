@@ -0,0 +1,30 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.enums.ProductSortKey;
+import com.pap_shop.repository.projection.ProductSummaryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Custom repository fragment for the filtered, sorted product catalog.
+ * The query is assembled from the filters that are present, so every combination
+ * can use one of the (key, id) or (id_category, key, id) indexes of the products table.
+ */
+public interface ProductCatalogRepository {
+
+    /**
+     * Reads one page of catalog rows after the given keyset position.
+     *
+     * @param filter    the filters to apply
+     * @param sortKey   the sorted column; the product ID breaks ties
+     * @param direction the sort direction of both the key and the ID
+     * @param afterKey  the sort key value of the last row of the previous page, or null for the first page
+     * @param afterId   the ID of the last row of the previous page, or null for the first page
+     * @param pageable  the page size (page number is ignored, always 0)
+     * @return the catalog rows of the page
+     */
+    Slice<ProductSummaryView> findCatalogSlice(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                               Object afterKey, Integer afterId, Pageable pageable);
+}
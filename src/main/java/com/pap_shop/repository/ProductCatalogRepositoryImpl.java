@@ -0,0 +1,119 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.enums.ProductSortKey;
+import com.pap_shop.repository.projection.ProductSummaryView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL implementation of {@link ProductCatalogRepository}.
+ */
+@RequiredArgsConstructor
+public class ProductCatalogRepositoryImpl implements ProductCatalogRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<ProductSummaryView> findCatalogSlice(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                                      Object afterKey, Integer afterId, Pageable pageable) {
+        StringBuilder jpql = new StringBuilder(ProductRepository.SUMMARY_SELECT).append(" WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (filter.getCategoryId() != null) {
+            jpql.append(" AND c.ID = :categoryId");
+            parameters.put("categoryId", filter.getCategoryId());
+        }
+        if (filter.getMinPrice() != null) {
+            jpql.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            jpql.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getInStock() != null) {
+            jpql.append(filter.getInStock() ? " AND p.stock > 0" : " AND p.stock <= 0");
+        }
+        if (filter.getMinRating() != null) {
+            jpql.append(" AND p.ratingAverage >= :minRating");
+            parameters.put("minRating", filter.getMinRating());
+        }
+
+        String key = "p." + sortKey.getProperty();
+        String comparison = direction.isAscending() ? " > " : " < ";
+        if (afterId != null) {
+            if (sortKey == ProductSortKey.ID) {
+                jpql.append(" AND p.id").append(comparison).append(":afterId");
+            } else {
+                jpql.append(" AND (").append(key).append(comparison).append(":afterKey OR (")
+                        .append(key).append(" = :afterKey AND p.id").append(comparison).append(":afterId))");
+                parameters.put("afterKey", afterKey);
+            }
+            parameters.put("afterId", afterId);
+        }
+
+        String order = direction.isAscending() ? " ASC" : " DESC";
+        jpql.append(" ORDER BY ");
+        if (sortKey != ProductSortKey.ID) {
+            jpql.append(key).append(order).append(", ");
+        }
+        jpql.append("p.id").append(order);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        parameters.forEach(query::setParameter);
+        // One extra row tells whether another page follows
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<Object[]> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        int count = Math.min(rows.size(), pageable.getPageSize());
+        List<ProductSummaryView> content = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object[] row = rows.get(i);
+            content.add(new CatalogRow((Integer) row[0], (String) row[1], (String) row[2], (String) row[3],
+                    (BigDecimal) row[4], (Integer) row[5], (LocalDateTime) row[6], (Integer) row[7], (String) row[8],
+                    (Integer) row[9], (BigDecimal) row[10], (Integer) row[11], (Integer) row[12], (Integer) row[13],
+                    (Integer) row[14], (Integer) row[15]));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Row of {@link ProductRepository#SUMMARY_SELECT}, in select-list order.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class CatalogRow implements ProductSummaryView {
+        private final Integer id;
+        private final String name;
+        private final String sku;
+        private final String description;
+        private final BigDecimal price;
+        private final Integer stock;
+        private final LocalDateTime createdAt;
+        private final Integer categoryId;
+        private final String categoryName;
+        private final Integer ratingCount;
+        private final BigDecimal ratingAverage;
+        private final Integer rating1;
+        private final Integer rating2;
+        private final Integer rating3;
+        private final Integer rating4;
+        private final Integer rating5;
+    }
+}
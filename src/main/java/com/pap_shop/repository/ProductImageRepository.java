@@ -1,9 +1,26 @@
 package com.pap_shop.repository;
 
 import com.pap_shop.entity.ProductImage;
+import com.pap_shop.repository.projection.ProductImageView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Integer> {
-}
\ No newline at end of file
+
+    String VIEW_SELECT = "SELECT i.product.id AS productId, i.id AS id, i.imageUrl AS imageUrl FROM ProductImage i";
+
+    /**
+     * Reads the images of the given products in one query.
+     *
+     * @param productIds the product IDs
+     * @return the images, in ID order
+     */
+    @Query(VIEW_SELECT + " WHERE i.product.id IN :productIds ORDER BY i.id")
+    List<ProductImageView> findViewsByProductIdIn(@Param("productIds") Collection<Integer> productIds);
+}
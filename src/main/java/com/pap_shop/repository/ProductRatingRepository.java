@@ -0,0 +1,28 @@
+package com.pap_shop.repository;
+
+/**
+ * Custom repository fragment for the rating aggregates of products.
+ * Reviews change the count, sum, average and star histogram of their product with one
+ * relative UPDATE, so concurrent reviews never read-modify-write the same row.
+ */
+public interface ProductRatingRepository {
+
+    /**
+     * Adds to the star histogram of a product and updates its count, sum and average accordingly.
+     *
+     * @param productId the product ID
+     * @param histogramDelta change of the number of 1 to 5 star reviews, at index 0 to 4
+     * @return the affected row count (0 if the product does not exist)
+     */
+    int addRatings(Integer productId, int[] histogramDelta);
+
+    /**
+     * Adds the missing reviews to the rating aggregates of every product whose star histogram differs
+     * from its reviews, e.g. for reviews written before the aggregates existed.
+     * Products are processed in batches of consecutive IDs, so this scans the whole catalog and
+     * the reviews: it is meant to run once, as a data migration.
+     *
+     * @return the number of corrected products
+     */
+    int reconcileRatings();
+}
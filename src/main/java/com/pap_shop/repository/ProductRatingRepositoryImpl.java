@@ -0,0 +1,74 @@
+package com.pap_shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link ProductRatingRepository}.
+ * Uses the same connection as the surrounding JPA transaction, so the aggregates
+ * commit or roll back together with the review.
+ */
+@RequiredArgsConstructor
+public class ProductRatingRepositoryImpl implements ProductRatingRepository {
+
+    // The average is assigned first: MySQL evaluates assignments left to right with the updated
+    // values, so it must only read columns that have not been changed yet
+    private static final String ADD_SQL = "UPDATE products SET " +
+            "rating_average = CASE WHEN rating_count + ? > 0 " +
+            "THEN ROUND(CAST(rating_sum + ? AS DECIMAL(12, 2)) / (rating_count + ?), 2) ELSE 0 END, " +
+            "rating_count = rating_count + ?, rating_sum = rating_sum + ?, " +
+            "rating_1 = rating_1 + ?, rating_2 = rating_2 + ?, rating_3 = rating_3 + ?, " +
+            "rating_4 = rating_4 + ?, rating_5 = rating_5 + ? " +
+            "WHERE id = ?";
+
+    private static final int RECONCILE_BATCH_SIZE = 1000;
+
+    // Star histogram of the reviews and of the aggregates of the products in an ID range, for the products
+    // where they differ. Count and sum always change together with the histogram, so they follow it
+    private static final String HISTOGRAM_DIFF_SQL = "SELECT p.id, " +
+            "COALESCE(r.r1, 0) - p.rating_1, COALESCE(r.r2, 0) - p.rating_2, COALESCE(r.r3, 0) - p.rating_3, " +
+            "COALESCE(r.r4, 0) - p.rating_4, COALESCE(r.r5, 0) - p.rating_5 " +
+            "FROM products p LEFT JOIN (SELECT product_id, " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS r1, SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS r2, " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS r3, SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS r4, " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS r5 " +
+            "FROM reviews WHERE product_id > ? AND product_id <= ? GROUP BY product_id) r ON r.product_id = p.id " +
+            "WHERE p.id > ? AND p.id <= ? AND (p.rating_1 <> COALESCE(r.r1, 0) OR p.rating_2 <> COALESCE(r.r2, 0) " +
+            "OR p.rating_3 <> COALESCE(r.r3, 0) OR p.rating_4 <> COALESCE(r.r4, 0) OR p.rating_5 <> COALESCE(r.r5, 0))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int addRatings(Integer productId, int[] histogramDelta) {
+        int count = 0;
+        int sum = 0;
+        for (int stars = 1; stars <= histogramDelta.length; stars++) {
+            count += histogramDelta[stars - 1];
+            sum += stars * histogramDelta[stars - 1];
+        }
+        return jdbcTemplate.update(ADD_SQL, count, sum, count, count, sum,
+                histogramDelta[0], histogramDelta[1], histogramDelta[2], histogramDelta[3], histogramDelta[4],
+                productId);
+    }
+
+    @Override
+    public int reconcileRatings() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Integer.class);
+        int corrected = 0;
+        // Ranges of the primary key keep every scan of reviews and products small
+        for (int fromId = 0; maxId != null && fromId < maxId; fromId += RECONCILE_BATCH_SIZE) {
+            int toId = fromId + RECONCILE_BATCH_SIZE;
+            List<int[]> differences = jdbcTemplate.query(HISTOGRAM_DIFF_SQL, (rs, rowNum) -> new int[]{
+                    rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6)
+            }, fromId, toId, fromId, toId);
+            for (int[] difference : differences) {
+                // Applied as a relative change, like a review, so concurrent reviews are not overwritten
+                corrected += addRatings(difference[0], Arrays.copyOfRange(difference, 1, 6));
+            }
+        }
+        return corrected;
+    }
+}
@@ -1,15 +1,34 @@
 package com.pap_shop.repository;
 
 import com.pap_shop.entity.Product;
+import com.pap_shop.repository.projection.ProductExportView;
+import com.pap_shop.repository.projection.ProductSearchView;
+import com.pap_shop.repository.projection.ProductSkuView;
+import com.pap_shop.repository.projection.ProductSummaryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for performing CRUD operations on Product entities.
- * Extends JpaRepository to provide basic CRUD functionality and custom queries.
+ * Extends JpaRepository to provide basic CRUD functionality and custom queries,
+ * {@link ProductStockRepository} for batched conditional stock updates,
+ * {@link ProductRatingRepository} for the rating aggregates and
+ * {@link ProductCatalogRepository} for the paginated catalog.
  */
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductStockRepository,
+        ProductRatingRepository, ProductCatalogRepository {
 
     /**
      * Finds all products by the specified category ID.
@@ -27,6 +46,14 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
      */
     Optional<Product> findBySku(String sku);
 
+    /**
+     * Finds the ID, SKU and name of all products with one of the given SKUs.
+     *
+     * @param skus the SKUs to look up
+     * @return the matching products
+     */
+    List<ProductSkuView> findBySkuIn(Collection<String> skus);
+
     /**
      * Finds all products whose name contains the specified string (case-insensitive).
      *
@@ -34,4 +61,65 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
      * @return a list of products whose names contain the search term
      */
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    /**
+     * Select list of {@link ProductSummaryView}: product columns, including the rating aggregates,
+     * joined with the category name.
+     */
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.name AS name, p.sku AS sku, p.description AS description, " +
+            "p.price AS price, p.stock AS stock, p.createdAt AS createdAt, c.ID AS categoryId, c.name AS categoryName, " +
+            "p.ratingCount AS ratingCount, p.ratingAverage AS ratingAverage, p.rating1 AS rating1, " +
+            "p.rating2 AS rating2, p.rating3 AS rating3, p.rating4 AS rating4, p.rating5 AS rating5 " +
+            "FROM Product p LEFT JOIN p.category c";
+
+    /**
+     * Reads the given products in one query.
+     *
+     * @param ids the product IDs
+     * @return the catalog rows, in no particular order
+     */
+    @Query(SUMMARY_SELECT + " WHERE p.id IN :ids")
+    List<ProductSummaryView> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Reads one page of products whose name contains the specified string (case-insensitive).
+     *
+     * @param name the name or partial name to search for
+     * @param pageable the page to return
+     * @return the catalog rows of the requested page
+     */
+    @Query(SUMMARY_SELECT + " WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY p.id")
+    List<ProductSummaryView> findSummariesByNameContaining(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Loads a product together with its category and images in one query, for the detail view.
+     *
+     * @param id the product ID
+     * @return the product, if found
+     */
+    @EntityGraph(attributePaths = {"category", "images"})
+    Optional<Product> findWithDetailsById(Integer id);
+
+    /**
+     * Reads the searchable columns of the products after the given ID, in ID order.
+     * Used to build the in-memory search index in batches.
+     *
+     * @param id the last ID of the previous batch
+     * @param pageable the batch size
+     * @return the next batch of products
+     */
+    List<ProductSearchView> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /**
+     * Streams the exported columns of all products in ID order.
+     * The fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+     * instead of buffering the whole result. Must be consumed inside a transaction and closed.
+     *
+     * @return a stream of product export rows
+     */
+    @Query("SELECT p.id AS id, p.name AS name, c.name AS categoryName, p.description AS description, " +
+            "p.price AS price, p.stock AS stock, p.createdAt AS createdAt " +
+            "FROM Product p LEFT JOIN p.category c ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<ProductExportView> streamAllForExport();
 }
@@ -0,0 +1,29 @@
+package com.pap_shop.repository;
+
+import java.util.Map;
+
+/**
+ * Custom repository fragment for set-based stock reservation on products.
+ * Stock is changed with conditional UPDATE statements sent as one JDBC batch,
+ * so concurrent checkouts never read-modify-write the same row.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Decrements stock for every product in the map, only where enough stock is left.
+     * Runs {@code UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?} once per entry.
+     *
+     * @param quantities quantity to reserve keyed by product ID
+     * @return affected row counts in the iteration order of the map (0 means insufficient stock)
+     */
+    int[] reserveStock(Map<Integer, Integer> quantities);
+
+    /**
+     * Increments stock for every product in the map, e.g. when an order is canceled
+     * or stock is imported.
+     *
+     * @param quantities quantity to add keyed by product ID
+     * @return affected row counts in the iteration order of the map
+     */
+    int[] addStock(Map<Integer, Integer> quantities);
+}
@@ -0,0 +1,30 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.Revenue;
+import com.pap_shop.repository.projection.RevenueBalanceView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface RevenueRepository extends JpaRepository<Revenue, Integer> {
+
+    /**
+     * Finds, for orders after the given ID, the amount each one is missing from the ledger:
+     * its total if it is DELIVERED, nothing otherwise, minus the sum of its entries.
+     * The status and the entries of an order are read in one statement, so the amount is exact
+     * even while the order's status changes.
+     *
+     * @param afterId the last order ID of the previous batch
+     * @param pageable the batch size (page number is ignored by callers, always 0)
+     * @return the orders in ID order, with the missing amount (zero when the ledger is complete)
+     */
+    @Query(value = "SELECT o.id AS orderId, o.created_at AS createdAt, "
+            + "(CASE WHEN o.status = 'DELIVERED' THEN o.total_price ELSE 0 END) "
+            + "- COALESCE((SELECT SUM(r.total_amount) FROM revenue r WHERE r.order_id = o.id), 0) AS amount "
+            + "FROM orders o WHERE o.id > :afterId AND o.created_at IS NOT NULL ORDER BY o.id",
+            nativeQuery = true)
+    List<RevenueBalanceView> findLedgerBalances(@Param("afterId") int afterId, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.RevenueRollup;
+import com.pap_shop.enums.RevenuePeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the hourly, daily and monthly revenue rollups, with
+ * {@link RevenueRollupWriteRepository} for incrementing them.
+ */
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, RevenueRollup.Key>, RevenueRollupWriteRepository {
+
+    /**
+     * Finds the non-empty buckets of a period in [from, to), read from the primary key.
+     *
+     * @param period the bucket size
+     * @param from the first bucket start, inclusive
+     * @param to the end of the range, exclusive
+     * @return the buckets in time order
+     */
+    List<RevenueRollup> findByPeriodAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            RevenuePeriod period, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,22 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.RevenueRollup;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment that adds amounts to revenue rollup rows.
+ * Each row is upserted with {@code INSERT ... ON DUPLICATE KEY UPDATE}, so concurrent deliveries
+ * in the same bucket add up without reading the row first.
+ */
+public interface RevenueRollupWriteRepository {
+
+    /**
+     * Adds the amount and order count of every given row to the stored row with the same key,
+     * creating it if needed. Rows are written in the given order, as one JDBC batch.
+     *
+     * @param increments the amounts to add, keyed by period and bucket start
+     * @return affected row counts in the order of the list
+     */
+    int[] add(List<RevenueRollup> increments);
+}
@@ -0,0 +1,34 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.RevenueRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RevenueRollupWriteRepository}.
+ * Uses the same connection as the surrounding JPA transaction, so the rollups commit
+ * or roll back together with the ledger entry they come from.
+ */
+@RequiredArgsConstructor
+public class RevenueRollupWriteRepositoryImpl implements RevenueRollupWriteRepository {
+
+    private static final String ADD_SQL = "INSERT INTO revenue_rollups (period, bucket_start, amount, order_count) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), order_count = order_count + VALUES(order_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] add(List<RevenueRollup> increments) {
+        List<Object[]> args = new ArrayList<>(increments.size());
+        for (RevenueRollup increment : increments) {
+            args.add(new Object[]{increment.getPeriod().name(), Timestamp.valueOf(increment.getBucketStart()),
+                    increment.getAmount(), increment.getOrderCount()});
+        }
+        return jdbcTemplate.batchUpdate(ADD_SQL, args);
+    }
+}
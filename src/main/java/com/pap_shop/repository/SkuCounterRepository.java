@@ -0,0 +1,47 @@
+package com.pap_shop.repository;
+
+import com.pap_shop.entity.SkuCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SkuCounterRepository extends JpaRepository<SkuCounter, String> {
+
+    /**
+     * Moves the counter of a prefix forward, locking its row until the transaction ends.
+     *
+     * @param prefix the SKU prefix
+     * @param count the number of values to reserve
+     * @return the number of updated rows, 0 if the prefix has no counter yet
+     */
+    @Modifying
+    @Query("UPDATE SkuCounter c SET c.nextValue = c.nextValue + :count WHERE c.prefix = :prefix")
+    int advance(@Param("prefix") String prefix, @Param("count") long count);
+
+    /**
+     * Creates the counter of a prefix. Unlike {@code save}, which merges an entity with an assigned ID
+     * and would overwrite a counter another node has just created, this fails if the row exists.
+     *
+     * @param prefix the SKU prefix
+     * @param nextValue the first unreserved value
+     * @return the number of inserted rows
+     * @throws org.springframework.dao.DataIntegrityViolationException if the prefix already has a counter
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sku_counters (prefix, next_value) VALUES (:prefix, :nextValue)", nativeQuery = true)
+    int create(@Param("prefix") String prefix, @Param("nextValue") long nextValue);
+
+    /**
+     * Reads the first unreserved value of a prefix.
+     *
+     * @param prefix the SKU prefix
+     * @return the next value, if the prefix has a counter
+     */
+    @Query("SELECT c.nextValue FROM SkuCounter c WHERE c.prefix = :prefix")
+    Optional<Long> findNextValue(@Param("prefix") String prefix);
+}
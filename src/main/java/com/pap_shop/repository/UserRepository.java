@@ -1,7 +1,15 @@
 package com.pap_shop.repository;
 
 import com.pap_shop.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,5 +35,59 @@ public interface UserRepository extends  JpaRepository<User, Integer>{
 
     Optional<User> findByUsername(String username);
 
+    /**
+     * Finds the ID of the user with the given username without loading the user.
+     *
+     * @param username the username
+     * @return the user ID, if found
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
     Optional<User> findById(Integer id);
+
+    /**
+     * Finds which unique keys of a new user are already taken, in one query that only reads
+     * the unique indexes on email, phone and username.
+     *
+     * @param email the email of the new user
+     * @param phone the phone of the new user
+     * @param username the username of the new user
+     * @return the taken fields among "email", "phone" and "username", empty if none
+     */
+    @Query(value = "SELECT 'email' FROM users WHERE email = :email"
+            + " UNION ALL SELECT 'phone' FROM users WHERE phone = :phone"
+            + " UNION ALL SELECT 'username' FROM users WHERE username = :username", nativeQuery = true)
+    List<String> findConflictingFields(@Param("email") String email, @Param("phone") String phone,
+                                       @Param("username") String username);
+
+    /**
+     * Replaces a password hash, unless the password was changed since the old hash was read.
+     *
+     * @param id the user ID
+     * @param oldHash the hash that was verified at login
+     * @param newHash the replacement hash
+     * @return the number of updated users (0 if the password was changed meanwhile)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") Integer id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Finds the most recently registered users.
+     *
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the newest users
+     */
+    Slice<User> findAllByOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Finds the users registered before the given cursor position (keyset pagination).
+     *
+     * @param id the ID of the last user of the previous page
+     * @param pageable the page size (page number is ignored by callers, always 0)
+     * @return the next users after the cursor
+     */
+    Slice<User> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
 }
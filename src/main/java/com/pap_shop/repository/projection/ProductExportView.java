@@ -0,0 +1,18 @@
+package com.pap_shop.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the product columns written to the Excel export.
+ * Rows are read as plain values, so streaming them does not grow the persistence context.
+ */
+public interface ProductExportView {
+    Integer getId();
+    String getName();
+    String getCategoryName();
+    String getDescription();
+    BigDecimal getPrice();
+    Integer getStock();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,10 @@
+package com.pap_shop.repository.projection;
+
+/**
+ * Projection of a product image, loaded for a whole page of products at once.
+ */
+public interface ProductImageView {
+    Integer getProductId();
+    Integer getId();
+    String getImageUrl();
+}
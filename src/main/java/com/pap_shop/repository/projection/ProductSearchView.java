@@ -0,0 +1,11 @@
+package com.pap_shop.repository.projection;
+
+/**
+ * Projection of the product columns needed to build the in-memory search index.
+ */
+public interface ProductSearchView {
+    Integer getId();
+    String getName();
+    String getSku();
+    String getDescription();
+}
@@ -0,0 +1,10 @@
+package com.pap_shop.repository.projection;
+
+/**
+ * Projection used to match imported rows against existing products by SKU.
+ */
+public interface ProductSkuView {
+    Integer getId();
+    String getSku();
+    String getName();
+}
@@ -0,0 +1,27 @@
+package com.pap_shop.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a product with its category columns and rating aggregates, read in a single
+ * joined query for the catalog list and detail responses.
+ */
+public interface ProductSummaryView {
+    Integer getId();
+    String getName();
+    String getSku();
+    String getDescription();
+    BigDecimal getPrice();
+    Integer getStock();
+    LocalDateTime getCreatedAt();
+    Integer getCategoryId();
+    String getCategoryName();
+    Integer getRatingCount();
+    BigDecimal getRatingAverage();
+    Integer getRating1();
+    Integer getRating2();
+    Integer getRating3();
+    Integer getRating4();
+    Integer getRating5();
+}
@@ -0,0 +1,13 @@
+package com.pap_shop.repository.projection;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * Projection of the amount an order is missing from the revenue ledger, used by the backfill.
+ */
+public interface RevenueBalanceView {
+    Integer getOrderId();
+    Timestamp getCreatedAt();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,23 @@
+package com.pap_shop.scheduler;
+
+import com.pap_shop.service.DashboardStatsService;
+import com.pap_shop.service.RecentOrdersService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class DashboardStatsScheduler {
+
+    private final DashboardStatsService dashboardStatsService;
+    private final RecentOrdersService recentOrdersService;
+
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void reconcileDashboardStats() {
+        dashboardStatsService.reconcile();
+        recentOrdersService.reload();
+    }
+}
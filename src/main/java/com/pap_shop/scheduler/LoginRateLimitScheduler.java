@@ -0,0 +1,20 @@
+package com.pap_shop.scheduler;
+
+import com.pap_shop.service.LoginRateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimitScheduler {
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleBuckets() {
+        loginRateLimiter.evictIdleBuckets();
+    }
+}
@@ -0,0 +1,28 @@
+package com.pap_shop.scheduler;
+
+import com.pap_shop.service.MailDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class MailQueueScheduler {
+
+    private final MailDispatcher mailDispatcher;
+
+    /**
+     * Sends retries that became due, emails held back by the rate limit and emails left by a restart.
+     */
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+    public void dispatchDueEmails() {
+        mailDispatcher.wake();
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeSentEmails() {
+        mailDispatcher.purgeSent();
+    }
+}
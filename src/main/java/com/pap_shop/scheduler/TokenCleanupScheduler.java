@@ -1,6 +1,7 @@
 package com.pap_shop.scheduler;
 
 import com.pap_shop.repository.InvalidatedTokenRepository;
+import com.pap_shop.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -13,9 +14,19 @@ import java.util.concurrent.TimeUnit;
 public class TokenCleanupScheduler {
 
     private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
 
     @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
     public void deleteExpiredTokens() {
         invalidatedTokenRepository.deleteByExpiryTimeBefore(Instant.now());
+        tokenRevocationService.prune();
+    }
+
+    /**
+     * Picks up logouts recorded by other application nodes.
+     */
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void syncRevokedTokens() {
+        tokenRevocationService.reload();
     }
 }
@@ -2,12 +2,17 @@ package com.pap_shop.service;
 
 import com.pap_shop.dto.AnnouncementRequest;
 import com.pap_shop.dto.AnnouncementResponse;
+import com.pap_shop.dto.CursorPageResponse;
 import com.pap_shop.entity.Announcement;
 import com.pap_shop.entity.Product;
 import com.pap_shop.exception.ResourceNotFoundException;
 import com.pap_shop.repository.AnnouncementRepository;
 import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.util.CursorCodec;
+import com.pap_shop.util.CursorPages;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -68,14 +73,31 @@ public class AnnouncementService {
     }
 
     /**
-     * Get all announcements (Admin)
+     * Get the first page of announcements, newest first (Admin)
+     * Kept for clients that expect a plain list
      * 
-     * @return List of all announcements
+     * @return List of the most recent announcements
      */
     public List<AnnouncementResponse> getAllAnnouncements() {
-        return announcementRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getAllAnnouncements(null, null).getItems();
+    }
+
+    /**
+     * Get a page of announcements, newest first (Admin)
+     * Uses keyset pagination on the primary key
+     * 
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Maximum number of announcements to return, or null for the default
+     * @return Page of announcements with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<AnnouncementResponse> getAllAnnouncements(String cursor, Integer size) {
+        Pageable limit = CursorPages.limit(size);
+        Slice<Announcement> announcements = CursorPages.isFirstPage(cursor)
+                ? announcementRepository.findAllByOrderByIdDesc(limit)
+                : announcementRepository.findByIdLessThanOrderByIdDesc(CursorPages.decodeId(cursor), limit);
+        return CursorPages.toResponse(announcements, this::mapToResponse,
+                announcement -> CursorCodec.encode(announcement.getId()));
     }
 
     /**
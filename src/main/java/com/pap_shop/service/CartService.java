@@ -154,7 +154,6 @@ public class CartService {
     public void clearCart(Integer userId) {
         Cart cart = getOrCreateCart(userId);
         cartItemRepository.deleteByCartId(cart.getId());
-        cartItemRepository.resetAutoIncrement();
     }
 
     /**
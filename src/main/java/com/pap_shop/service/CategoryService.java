@@ -20,6 +20,7 @@ import java.util.List;
 public class CategoryService {
 
     CategoryRepository categoryRepository;
+    EntityCacheService entityCacheService;
 
     /**
      * Adds a new category to the system.
@@ -28,7 +29,9 @@ public class CategoryService {
      * @return the saved category
      */
     public Category addCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        entityCacheService.evictCategory(null);
+        return savedCategory;
     }
 
     /**
@@ -65,7 +68,9 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         
         existingCategory.setName(category.getName());
-        return categoryRepository.save(existingCategory);
+        Category savedCategory = categoryRepository.save(existingCategory);
+        entityCacheService.evictCategory(id);
+        return savedCategory;
     }
 
     /**
@@ -79,5 +84,6 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        entityCacheService.evictCategory(id);
     }
 }
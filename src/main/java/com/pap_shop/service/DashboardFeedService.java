@@ -0,0 +1,170 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.DashboardUpdateResponse;
+import com.pap_shop.dto.RecentOrderResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.event.ProductCreatedEvent;
+import com.pap_shop.event.ProductDeletedEvent;
+import com.pap_shop.event.UserCreatedEvent;
+import com.pap_shop.event.UserDeletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live feed of the admin dashboard on {@value #TOPIC}.
+ * A subscriber first receives a snapshot of the totals and recent orders, sent to its session only;
+ * the domain events of {@link OrderService} and {@link UserService} are then coalesced and broadcast
+ * as one delta at most {@code dashboard.live.max-updates-per-second} times per second.
+ * Snapshots and deltas are built from {@link DashboardStatsService} and {@link RecentOrdersService},
+ * so open dashboards never touch the database.
+ */
+@Service
+@Slf4j
+public class DashboardFeedService {
+
+    public static final String TOPIC = "/topic/dashboard";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpMessagingTemplate subscriberTemplate;
+    private final DashboardStatsService dashboardStatsService;
+    private final RecentOrdersService recentOrdersService;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private List<RecentOrderResponse> newOrders = new ArrayList<>();
+    private Map<Integer, OrderStatus> statusChanges = new LinkedHashMap<>();
+    private BigDecimal revenueDelta = BigDecimal.ZERO;
+    private int newUsers;
+    private boolean pending;
+
+    public DashboardFeedService(SimpMessagingTemplate messagingTemplate,
+                                @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                DashboardStatsService dashboardStatsService,
+                                RecentOrdersService recentOrdersService,
+                                @Value("${dashboard.live.max-updates-per-second:2}") int maxUpdatesPerSecond) {
+        this.messagingTemplate = messagingTemplate;
+        // Snapshots go straight to the subscribing session, bypassing the broker
+        this.subscriberTemplate = new SimpMessagingTemplate(clientOutboundChannel);
+        this.subscriberTemplate.setMessageConverter(messagingTemplate.getMessageConverter());
+        this.dashboardStatsService = dashboardStatsService;
+        this.recentOrdersService = recentOrdersService;
+
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "dashboard-feed"));
+        long period = TimeUnit.SECONDS.toMillis(1) / maxUpdatesPerSecond;
+        this.executor.scheduleAtFixedRate(this::flush, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Sends the snapshot to a client that has just subscribed to {@value #TOPIC}.
+     *
+     * @param event the subscription
+     */
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor subscription = StompHeaderAccessor.wrap(event.getMessage());
+        if (!TOPIC.equals(subscription.getDestination())) {
+            return;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscription.getSessionId());
+        headers.setSubscriptionId(subscription.getSubscriptionId());
+        headers.setLeaveMutable(true);
+        DashboardUpdateResponse snapshot = new DashboardUpdateResponse(DashboardUpdateResponse.SNAPSHOT,
+                dashboardStatsService.getStats(), recentOrdersService.getRecentOrders(),
+                Collections.emptyMap(), BigDecimal.ZERO, 0);
+        subscriberTemplate.convertAndSend(TOPIC, snapshot, headers.getMessageHeaders());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderCreated(OrderCreatedEvent event) {
+        newOrders.add(RecentOrdersService.summaryOf(event));
+        pending = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        statusChanges.put(event.getOrderId(), event.getStatus());
+        boolean wasDelivered = event.getPreviousStatus() == OrderStatus.DELIVERED;
+        boolean isDelivered = event.getStatus() == OrderStatus.DELIVERED;
+        if (!wasDelivered && isDelivered) {
+            revenueDelta = revenueDelta.add(event.getTotalPrice());
+        } else if (wasDelivered && !isDelivered) {
+            revenueDelta = revenueDelta.subtract(event.getTotalPrice());
+        }
+        pending = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserCreated(UserCreatedEvent event) {
+        newUsers++;
+        pending = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        pending = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductCreated(ProductCreatedEvent event) {
+        pending = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductDeleted(ProductDeletedEvent event) {
+        pending = true;
+    }
+
+    /**
+     * Broadcasts the changes collected since the previous delta, if any.
+     */
+    void flush() {
+        DashboardUpdateResponse delta;
+        synchronized (this) {
+            if (!pending) {
+                return;
+            }
+            delta = new DashboardUpdateResponse(DashboardUpdateResponse.DELTA, null, newOrders,
+                    statusChanges, revenueDelta, newUsers);
+            newOrders = new ArrayList<>();
+            statusChanges = new LinkedHashMap<>();
+            revenueDelta = BigDecimal.ZERO;
+            newUsers = 0;
+            pending = false;
+        }
+        // Totals are absolute and read at send time, so clients replace them rather than add to them
+        delta.setStats(dashboardStatsService.getStats());
+        try {
+            messagingTemplate.convertAndSend(TOPIC, delta);
+        } catch (RuntimeException e) {
+            // Keeps the periodic flush scheduled
+            log.warn("Could not broadcast dashboard update", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.DashboardStatsResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.event.ProductCreatedEvent;
+import com.pap_shop.event.ProductDeletedEvent;
+import com.pap_shop.event.UserCreatedEvent;
+import com.pap_shop.event.UserDeletedEvent;
+import com.pap_shop.repository.OrderRepository;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory totals of the admin dashboard: products, users, orders and revenue of delivered orders.
+ * The totals are loaded in the background at startup and then follow the domain events of
+ * {@link ProductService}, {@link ProductImportService}, {@link UserService} and {@link OrderService}
+ * as their transactions commit, so reading them never touches the database.
+ * {@link #reconcile()} periodically recounts from the database, which corrects changes made
+ * outside these services and events that raced with the previous recount.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+
+    private final AtomicLong totalProducts = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong totalOrders = new AtomicLong();
+    private final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+
+    /**
+     * Loads the totals without blocking application startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(this::reconcile)
+                .exceptionally(e -> {
+                    log.error("Failed to load dashboard statistics", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Recounts every total from the database and replaces the in-memory value.
+     */
+    public void reconcile() {
+        long products = productRepository.count();
+        long users = userRepository.count();
+        long orders = orderRepository.count();
+        BigDecimal deliveredRevenue = orderRepository.getTotalRevenue();
+        if (deliveredRevenue == null) {
+            deliveredRevenue = BigDecimal.ZERO;
+        }
+
+        long productDrift = products - totalProducts.getAndSet(products);
+        long userDrift = users - totalUsers.getAndSet(users);
+        long orderDrift = orders - totalOrders.getAndSet(orders);
+        BigDecimal revenueDrift = deliveredRevenue.subtract(revenue.getAndSet(deliveredRevenue));
+        if (productDrift != 0 || userDrift != 0 || orderDrift != 0 || revenueDrift.signum() != 0) {
+            log.debug("Dashboard statistics corrected by {} products, {} users, {} orders, {} revenue",
+                    productDrift, userDrift, orderDrift, revenueDrift);
+        }
+    }
+
+    /**
+     * Returns the current totals from memory.
+     *
+     * @return dashboard statistics
+     */
+    public DashboardStatsResponse getStats() {
+        return new DashboardStatsResponse(totalProducts.get(), totalUsers.get(), totalOrders.get(),
+                revenue.get().doubleValue());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        totalProducts.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        totalProducts.decrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        totalUsers.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        totalUsers.decrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        totalOrders.incrementAndGet();
+    }
+
+    /**
+     * Adds the order to the revenue when it is delivered, and takes it out again if it leaves DELIVERED.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean wasDelivered = event.getPreviousStatus() == OrderStatus.DELIVERED;
+        boolean isDelivered = event.getStatus() == OrderStatus.DELIVERED;
+        if (!wasDelivered && isDelivered) {
+            revenue.accumulateAndGet(event.getTotalPrice(), BigDecimal::add);
+        } else if (wasDelivered && !isDelivered) {
+            revenue.accumulateAndGet(event.getTotalPrice(), BigDecimal::subtract);
+        }
+    }
+}
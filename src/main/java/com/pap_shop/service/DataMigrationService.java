@@ -0,0 +1,56 @@
+package com.pap_shop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+/**
+ * Service that runs one-off data migrations, such as backfills, exactly once across all nodes.
+ *
+ * A migration first inserts its marker row into data_migrations and then does its work in the
+ * same transaction. A node starting at the same time blocks on the marker's key until the first
+ * one finishes, then sees the duplicate and skips; if the migration fails, the marker is rolled
+ * back with its changes and the next startup tries again.
+ */
+@Service
+@Slf4j
+public class DataMigrationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataMigrationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs a migration unless it has already been applied.
+     *
+     * @param name the unique name of the migration
+     * @param migration the work, run inside the migration's transaction
+     * @return true if the migration ran, false if it had already been applied
+     */
+    public boolean runOnce(String name, Runnable migration) {
+        Boolean applied = transactionTemplate.execute(status -> {
+            try {
+                jdbcTemplate.update("INSERT INTO data_migrations (name, applied_at) VALUES (?, ?)",
+                        name, new Timestamp(System.currentTimeMillis()));
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+            migration.run();
+            return true;
+        });
+        if (Boolean.TRUE.equals(applied)) {
+            log.info("Applied data migration {}", name);
+            return true;
+        }
+        return false;
+    }
+}
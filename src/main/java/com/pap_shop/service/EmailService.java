@@ -1,31 +1,60 @@
 package com.pap_shop.service;
 
+import com.pap_shop.entity.OutboundEmail;
+import com.pap_shop.enums.OutboundEmailStatus;
+import com.pap_shop.repository.OutboundEmailRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+
+/**
+ * Service that composes outgoing emails and queues them for {@link MailDispatcher}.
+ * Queuing is one insert, so callers never wait for the mail server.
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService {
     
-    private final JavaMailSender mailSender;
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final MailDispatcher mailDispatcher;
     
     /**
-     * Sends a password reset email to the user.
+     * Queues a password reset email to the user.
      *
      * @param to the recipient email address
      * @param resetCode the reset token for password reset
      */
     public void sendResetPasswordEmail(String to, String resetCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Reset Your Password - PAP Shop");
-        message.setText("Your password reset code is:\n\n" +
+        enqueue(to, "Reset Your Password - PAP Shop",
+                "Your password reset code is:\n\n" +
                        resetCode + "\n\n" +
                        "Enter this code on the reset password page to continue.\n" +
                        "This code will expire in 15 minutes.\n\n" +
                        "If you didn't request this, please ignore this email.");
-        mailSender.send(message);
     }
-}
\ No newline at end of file
+
+    private void enqueue(String to, String subject, String text) {
+        outboundEmailRepository.save(OutboundEmail.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(text)
+                .status(OutboundEmailStatus.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build());
+
+        // Workers only see the email once it is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailDispatcher.wake();
+                }
+            });
+        } else {
+            mailDispatcher.wake();
+        }
+    }
+}
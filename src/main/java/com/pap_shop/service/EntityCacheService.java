@@ -0,0 +1,153 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.CacheRegionStatsResponse;
+import com.pap_shop.entity.Category;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.Roles;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Explicit eviction and statistics for the Hibernate second-level cache.
+ * Writes through JPA keep the cache consistent by themselves; writes that bypass Hibernate,
+ * such as the JDBC stock updates, must evict the affected entries here. Evictions inside a
+ * transaction are repeated after it completes, so a concurrent read cannot put the old row
+ * back before the new one is committed.
+ */
+@Service
+public class EntityCacheService {
+
+    public static final String PRODUCT_REGION = "product";
+    public static final String CATEGORY_REGION = "category";
+    public static final String ROLES_REGION = "roles";
+    private static final List<String> ENTITY_REGIONS = Arrays.asList(PRODUCT_REGION, CATEGORY_REGION, ROLES_REGION);
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts cached products.
+     *
+     * @param productIds the IDs of the changed products
+     */
+    public void evictProducts(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(productIds);
+        evict(() -> ids.forEach(id -> cache().evictEntityData(Product.class, id)));
+    }
+
+    /**
+     * Evicts a cached product.
+     *
+     * @param productId the ID of the changed product
+     */
+    public void evictProduct(Integer productId) {
+        evict(() -> cache().evictEntityData(Product.class, productId));
+    }
+
+    /**
+     * Evicts every cached product, after a set-based update of the products table.
+     */
+    public void evictAllProducts() {
+        evict(() -> cache().evictEntityData(Product.class));
+    }
+
+    /**
+     * Evicts a cached category and the cached category queries.
+     *
+     * @param categoryId the ID of the changed category, or null for a new category
+     */
+    public void evictCategory(Integer categoryId) {
+        evict(() -> {
+            if (categoryId != null) {
+                cache().evictEntityData(Category.class, categoryId);
+            }
+            cache().evictDefaultQueryRegion();
+        });
+    }
+
+    /**
+     * Evicts a cached role and the cached role queries.
+     *
+     * @param roleId the ID of the changed role, or null for a new role
+     */
+    public void evictRole(Integer roleId) {
+        evict(() -> {
+            if (roleId != null) {
+                cache().evictEntityData(Roles.class, roleId);
+            }
+            cache().evictDefaultQueryRegion();
+        });
+    }
+
+    /**
+     * @return hit, miss and put counts of the entity regions and the query cache
+     */
+    public List<CacheRegionStatsResponse> getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStatsResponse> regions = new ArrayList<>();
+        for (String region : ENTITY_REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.add(toResponse(region, regionStatistics));
+            }
+        }
+        regions.add(new CacheRegionStatsResponse(
+                "query",
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                -1,
+                hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount())
+        ));
+        return regions;
+    }
+
+    private Cache cache() {
+        return sessionFactory.getCache();
+    }
+
+    private static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static CacheRegionStatsResponse toResponse(String region, CacheRegionStatistics statistics) {
+        return new CacheRegionStatsResponse(
+                region,
+                statistics.getHitCount(),
+                statistics.getMissCount(),
+                statistics.getPutCount(),
+                statistics.getElementCountInMemory(),
+                hitRatio(statistics.getHitCount(), statistics.getMissCount())
+        );
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
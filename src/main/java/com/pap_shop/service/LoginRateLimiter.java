@@ -0,0 +1,80 @@
+package com.pap_shop.service;
+
+import com.pap_shop.exception.TooManyRequestsException;
+import com.pap_shop.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits login attempts per client address and per account with token buckets, so a login storm
+ * or a password-guessing run is turned away before it reaches the password hashing pool.
+ * Buckets live in memory on each node; full buckets are dropped by {@link #evictIdleBuckets()}.
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final int addressCapacity;
+    private final int addressRefillPerMinute;
+    private final int accountCapacity;
+    private final int accountRefillPerMinute;
+
+    private final Map<String, TokenBucket> addressBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+
+    private final Counter addressRejections;
+    private final Counter accountRejections;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${login.rate-limit.address.capacity:20}") int addressCapacity,
+                            @Value("${login.rate-limit.address.refill-per-minute:20}") int addressRefillPerMinute,
+                            @Value("${login.rate-limit.account.capacity:5}") int accountCapacity,
+                            @Value("${login.rate-limit.account.refill-per-minute:5}") int accountRefillPerMinute) {
+        this.addressCapacity = addressCapacity;
+        this.addressRefillPerMinute = addressRefillPerMinute;
+        this.accountCapacity = accountCapacity;
+        this.accountRefillPerMinute = accountRefillPerMinute;
+        this.addressRejections = Counter.builder("login.rate_limited")
+                .tag("limit", "address")
+                .description("Login attempts rejected by the per-address limit")
+                .register(meterRegistry);
+        this.accountRejections = Counter.builder("login.rate_limited")
+                .tag("limit", "account")
+                .description("Login attempts rejected by the per-account limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one login attempt from the client address and from the account.
+     *
+     * @param account the email, phone number or username the client signs in with
+     * @param clientAddress the client IP address
+     * @throws TooManyRequestsException if either limit is exhausted
+     */
+    public void acquire(String account, String clientAddress) {
+        if (!addressBuckets.computeIfAbsent(clientAddress,
+                key -> new TokenBucket(addressCapacity, addressRefillPerMinute)).tryConsume()) {
+            addressRejections.increment();
+            throw new TooManyRequestsException("Too many login attempts, please try again later");
+        }
+        String accountKey = account == null ? "" : account.trim().toLowerCase(Locale.ROOT);
+        if (!accountBuckets.computeIfAbsent(accountKey,
+                key -> new TokenBucket(accountCapacity, accountRefillPerMinute)).tryConsume()) {
+            accountRejections.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account, please try again later");
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely, so the maps only hold recently active clients.
+     */
+    public void evictIdleBuckets() {
+        addressBuckets.values().removeIf(TokenBucket::isFull);
+        accountBuckets.values().removeIf(TokenBucket::isFull);
+    }
+}
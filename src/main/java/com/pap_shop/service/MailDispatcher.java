@@ -0,0 +1,232 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.OutboundEmail;
+import com.pap_shop.enums.OutboundEmailStatus;
+import com.pap_shop.repository.OutboundEmailRepository;
+import com.pap_shop.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that delivers the emails queued in {@code outbound_emails}.
+ * Due emails are claimed in batches and each batch is sent over a single SMTP connection by a
+ * small worker pool, at most {@code mail.queue.rate-per-minute} messages per minute. A failed email
+ * is retried with exponential backoff until {@code mail.queue.max-attempts} is reached; an email
+ * claimed by a worker that died is picked up again once its claim lapses.
+ */
+@Service
+@Slf4j
+public class MailDispatcher {
+
+    private static final List<OutboundEmailStatus> UNSENT =
+            Arrays.asList(OutboundEmailStatus.PENDING, OutboundEmailStatus.SENDING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration claimTimeout;
+    private final Duration sentRetention;
+    private final TokenBucket rateLimit;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer batchTimer;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public MailDispatcher(OutboundEmailRepository outboundEmailRepository,
+                          JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${mail.queue.workers:2}") int workers,
+                          @Value("${mail.queue.batch-size:20}") int batchSize,
+                          @Value("${mail.queue.rate-per-minute:60}") int ratePerMinute,
+                          @Value("${mail.queue.max-attempts:5}") int maxAttempts,
+                          @Value("${mail.queue.retry-backoff:30s}") Duration retryBackoff,
+                          @Value("${mail.queue.max-retry-backoff:1h}") Duration maxRetryBackoff,
+                          @Value("${mail.queue.claim-timeout:5m}") Duration claimTimeout,
+                          @Value("${mail.queue.sent-retention:7d}") Duration sentRetention) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.claimTimeout = claimTimeout;
+        this.sentRetention = sentRetention;
+        this.rateLimit = new TokenBucket(batchSize, ratePerMinute);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One queued drain per worker is enough: a drain reads every email committed before it starts
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> new Thread(runnable, "mail-dispatcher-" + threadNumber.incrementAndGet()));
+
+        this.batchTimer = Timer.builder("mail.batch.duration")
+                .description("Time spent sending one batch of emails over one SMTP connection")
+                .register(meterRegistry);
+        this.sent = deliveryCounter(meterRegistry, "sent");
+        this.retried = deliveryCounter(meterRegistry, "retried");
+        this.failed = deliveryCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Sends the due emails in the background. Called when an email is queued and periodically
+     * for retries; the call is dropped when every worker already has a drain queued.
+     */
+    public void wake() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // A queued drain will send the email
+        }
+    }
+
+    /**
+     * Deletes sent emails older than {@code mail.queue.sent-retention}.
+     */
+    public void purgeSent() {
+        outboundEmailRepository.deleteSentBefore(Instant.now().minus(sentRetention));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    void drain() {
+        try {
+            List<OutboundEmail> batch = claimBatch();
+            while (!batch.isEmpty()) {
+                send(batch);
+                batch = claimBatch();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not dispatch queued emails", e);
+        }
+    }
+
+    /**
+     * Claims the oldest due emails, as many as the batch size and the rate limit allow.
+     */
+    private List<OutboundEmail> claimBatch() {
+        Instant now = Instant.now();
+        Instant claimedUntil = now.plus(claimTimeout);
+        List<OutboundEmail> batch = new ArrayList<>();
+        for (OutboundEmail email : outboundEmailRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                UNSENT, now, PageRequest.of(0, batchSize))) {
+            if (!rateLimit.tryConsume()) {
+                break;
+            }
+            if (outboundEmailRepository.claim(email.getId(), now, claimedUntil) == 1) {
+                email.setAttempts(email.getAttempts() + 1);
+                batch.add(email);
+            }
+        }
+        return batch;
+    }
+
+    private void send(List<OutboundEmail> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(MailDispatcher::toMessage)
+                .toArray(SimpleMailMessage[]::new);
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        Exception batchFailure = null;
+        long start = System.nanoTime();
+        try {
+            // Sent over one connection, which stays open for the whole batch
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        Instant now = Instant.now();
+        List<Long> sentIds = new ArrayList<>();
+        for (int i = 0; i < messages.length; i++) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (failure == null) {
+                sentIds.add(batch.get(i).getId());
+            } else {
+                recordFailure(batch.get(i), failure, now);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            outboundEmailRepository.markSent(sentIds, now);
+            sent.increment(sentIds.size());
+        }
+    }
+
+    private void recordFailure(OutboundEmail email, Exception failure, Instant now) {
+        String error = truncate(String.valueOf(failure.getMessage()));
+        if (email.getAttempts() >= maxAttempts) {
+            outboundEmailRepository.recordFailure(email.getId(), OutboundEmailStatus.FAILED, now, error);
+            failed.increment();
+            log.warn("Giving up on email {} to {} after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error);
+        } else {
+            outboundEmailRepository.recordFailure(email.getId(), OutboundEmailStatus.PENDING,
+                    now.plus(backoff(email.getAttempts())), error);
+            retried.increment();
+        }
+    }
+
+    /**
+     * Delay before the next attempt: the retry backoff, doubled after each failed attempt, up to the maximum.
+     */
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private static SimpleMailMessage toMessage(OutboundEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static Counter deliveryCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("mail.delivery")
+                .tag("outcome", outcome)
+                .description("Queued emails by delivery outcome")
+                .register(meterRegistry);
+    }
+}
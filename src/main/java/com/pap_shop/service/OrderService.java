@@ -1,11 +1,19 @@
 package com.pap_shop.service;
 
 import com.pap_shop.dto.CreateOrderRequest;
+import com.pap_shop.dto.CursorPageResponse;
 import com.pap_shop.entity.*;
 import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
 import com.pap_shop.exception.InsufficientStockException;
 import com.pap_shop.repository.*;
+import com.pap_shop.util.CursorCodec;
+import com.pap_shop.util.CursorPages;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,7 +21,8 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Service class for managing orders
@@ -28,24 +37,26 @@ public class OrderService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
+    private final EntityCacheService entityCacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new order from user's cart items
-     * Validates stock availability and updates product stock
+     * Reserves stock for all lines with one batch of conditional updates
      * Clears cart after successful order creation
      * 
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @param request Order details including shipping address and notes
      * @return Created order
      * @throws RuntimeException if user not found, cart not found, or cart is empty
      * @throws InsufficientStockException if any product has insufficient stock
      */
     @Transactional
-    public Order createOrder(String username, CreateOrderRequest request) {
-        User user = userRepository.findByUsername(username)
+    public Order createOrder(Integer userId, CreateOrderRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         if (cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
@@ -59,19 +70,29 @@ public class OrderService {
         order.setShippingAddress(request.getShippingAddress());
         order.setNotes(request.getNotes());
 
+        // Sorted by product ID so concurrent checkouts lock rows in the same order
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, Product> products = new TreeMap<>();
+        for (CartItem cartItem : cart.getCartItems()) {
+            Product product = cartItem.getProduct();
+            quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+            products.put(product.getId(), product);
+        }
+
+        int[] updated = productRepository.reserveStock(quantities);
+        entityCacheService.evictProducts(quantities.keySet());
+        int index = 0;
+        for (Integer productId : quantities.keySet()) {
+            if (updated[index++] == 0) {
+                throw new InsufficientStockException("Sản phẩm " + products.get(productId).getName() + " không đủ hàng");
+            }
+        }
+
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalPrice = BigDecimal.ZERO;
 
         for (CartItem cartItem : cart.getCartItems()) {
             Product product = cartItem.getProduct();
-            
-            if (product.getStock() < cartItem.getQuantity()) {
-                throw new InsufficientStockException("Sản phẩm " + product.getName() + " không đủ hàng");
-            }
-            
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
-            
+
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
@@ -79,32 +100,65 @@ public class OrderService {
             orderItem.setPrice(product.getPrice());
 
             orderItems.add(orderItem);
-            totalPrice = totalPrice.add(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
         }
 
-        order.setTotalPrice(totalPrice);
+        order.setTotalPrice(calculateTotal(orderItems));
         order.setOrderItems(orderItems);
 
         Order savedOrder = orderRepository.save(order);
 
         cartItemRepository.deleteByCartId(cart.getId());
 
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder.getId(), user.getName(), order.getTotalPrice(),
+                order.getStatus(), order.getCreatedAt(), orderItems.size()));
         return savedOrder;
     }
 
     /**
-     * Get all orders for a specific user
+     * Sums price times quantity over the items of an order
      * 
-     * @param username User's username
-     * @return List of user's orders
-     * @throws RuntimeException if user not found
+     * @param orderItems Items of the order
+     * @return Total price of the order
      */
-    public List<Order> getUserOrders(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+    static BigDecimal calculateTotal(List<OrderItem> orderItems) {
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (OrderItem orderItem : orderItems) {
+            totalPrice = totalPrice.add(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+        }
+        return totalPrice;
+    }
+
+    /**
+     * Get the first page of orders for a specific user, newest first
+     * Kept for clients that expect a plain list
+     * 
+     * @param userId ID of the authenticated user
+     * @return List of user's most recent orders
+     */
+    public List<Order> getUserOrders(Integer userId) {
+        return getUserOrders(userId, null, null).getItems();
+    }
+
+    /**
+     * Get a page of orders for a specific user, newest first
+     * Uses keyset pagination on (customer_id, created_at, id) so every page is an index range scan
+     * 
+     * @param userId ID of the authenticated user
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Maximum number of orders to return, or null for the default
+     * @return Page of user's orders with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<Order> getUserOrders(Integer userId, String cursor, Integer size) {
+        Pageable limit = CursorPages.limit(size);
+        Slice<Order> orders;
+        if (CursorPages.isFirstPage(cursor)) {
+            orders = orderRepository.findLatestByUserId(userId, limit);
+        } else {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            orders = orderRepository.findByUserIdBefore(userId, cursorCreatedAt(parts), cursorId(parts), limit);
+        }
+        return CursorPages.toResponse(orders, OrderService::cursorOf);
     }
 
     /**
@@ -112,18 +166,15 @@ public class OrderService {
      * Validates that the order belongs to the requesting user
      * 
      * @param orderId Order ID
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @return Order details
-     * @throws RuntimeException if order not found, user not found, or unauthorized access
+     * @throws RuntimeException if order not found or unauthorized access
      */
-    public Order getOrderById(Integer orderId, String username) {
+    public Order getOrderById(Integer orderId, Integer userId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to order");
         }
 
@@ -136,19 +187,17 @@ public class OrderService {
      * Restores product stock when canceled
      * 
      * @param orderId Order ID
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @return Updated order
      * @throws RuntimeException if order not found, unauthorized, or cannot be canceled
      */
     @Transactional
-    public Order cancelOrder(Integer orderId, String username) {
-        Order order = orderRepository.findById(orderId)
+    public Order cancelOrder(Integer orderId, Integer userId) {
+        // Locked so the status read here is still current when the change is published
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to order");
         }
 
@@ -157,14 +206,13 @@ public class OrderService {
         }
 
         // Restore stock
-        for (OrderItem orderItem : order.getOrderItems()) {
-            Product product = orderItem.getProduct();
-            product.setStock(product.getStock() + orderItem.getQuantity());
-            productRepository.save(product);
-        }
+        releaseStock(order);
         
         order.setStatus(OrderStatus.CANCELED);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, OrderStatus.PENDING, OrderStatus.CANCELED,
+                order.getTotalPrice()));
+        return savedOrder;
     }
 
     /**
@@ -178,27 +226,88 @@ public class OrderService {
      */
     @Transactional
     public Order updateOrderStatus(Integer orderId, OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        // Locked so the status read here is still current when the change is published
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
         if (status == OrderStatus.CANCELED && order.getStatus() != OrderStatus.CANCELED) {
-            for (OrderItem orderItem : order.getOrderItems()) {
-                Product product = orderItem.getProduct();
-                product.setStock(product.getStock() + orderItem.getQuantity());
-                productRepository.save(product);
-            }
+            releaseStock(order);
         }
         
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, previousStatus, status, order.getTotalPrice()));
+        return savedOrder;
     }
 
     /**
-     * Get all orders in the system (Admin only)
+     * Get the first page of all orders in the system, newest first (Admin only)
+     * Kept for clients that expect a plain list
      * 
-     * @return List of all orders
+     * @return List of the most recent orders
      */
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return getAllOrders(null, null, null).getItems();
+    }
+
+    /**
+     * Get a page of all orders in the system, newest first (Admin only)
+     * Uses keyset pagination on (created_at, id), or (status, created_at, id) when filtered by status
+     * 
+     * @param status Status to filter by, or null for all orders
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Maximum number of orders to return, or null for the default
+     * @return Page of orders with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<Order> getAllOrders(OrderStatus status, String cursor, Integer size) {
+        Pageable limit = CursorPages.limit(size);
+        Slice<Order> orders;
+        if (CursorPages.isFirstPage(cursor)) {
+            orders = status != null
+                    ? orderRepository.findLatestByStatus(status, limit)
+                    : orderRepository.findLatest(limit);
+        } else {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            orders = status != null
+                    ? orderRepository.findByStatusBefore(status, cursorCreatedAt(parts), cursorId(parts), limit)
+                    : orderRepository.findBefore(cursorCreatedAt(parts), cursorId(parts), limit);
+        }
+        return CursorPages.toResponse(orders, OrderService::cursorOf);
+    }
+
+    private static String cursorOf(Order order) {
+        return CursorCodec.encode(order.getCreatedAt().getTime(), order.getId());
+    }
+
+    private static Timestamp cursorCreatedAt(String[] parts) {
+        try {
+            return new Timestamp(Long.parseLong(parts[0]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Integer cursorId(String[] parts) {
+        try {
+            return Integer.valueOf(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Give the stock of every order line back to its product
+     *
+     * @param order Order whose items are returned to stock
+     */
+    private void releaseStock(Order order) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            quantities.merge(orderItem.getProduct().getId(), orderItem.getQuantity(), Integer::sum);
+        }
+        productRepository.addStock(quantities);
+        entityCacheService.evictProducts(quantities.keySet());
     }
 }
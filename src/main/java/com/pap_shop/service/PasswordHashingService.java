@@ -0,0 +1,195 @@
+package com.pap_shop.service;
+
+import com.pap_shop.exception.TooManyRequestsException;
+import com.pap_shop.util.BCryptDelegatingPasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Service that hashes and checks passwords on a small dedicated pool instead of the request threads.
+ * BCrypt is deliberately slow, so a burst of logins would otherwise occupy every Tomcat thread and
+ * starve the rest of the API. At most {@code password.hashing.threads} hashes run at once and at most
+ * {@code password.hashing.queue-capacity} wait; further requests fail fast with 429.
+ * Hash latency is recorded per operation and per BCrypt cost, so the effect of a cost change is visible
+ * while stored hashes are being upgraded.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueWait;
+    private final Counter rejections;
+    private final Counter rehashed;
+    private final Counter rehashSkipped;
+    private final Counter rehashFailed;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password.hashing.threads:2}") int threads,
+                                  @Value("${password.hashing.queue-capacity:50}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet()));
+
+        this.queueWait = Timer.builder("password.hash.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hash.rejected")
+                .description("Password hashes rejected because the hashing queue was full")
+                .register(meterRegistry);
+        this.rehashed = rehashCounter("updated");
+        this.rehashSkipped = rehashCounter("skipped");
+        this.rehashFailed = rehashCounter("failed");
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        if (passwordEncoder instanceof BCryptDelegatingPasswordEncoder) {
+            Gauge.builder("password.hash.strength", (BCryptDelegatingPasswordEncoder) passwordEncoder,
+                            BCryptDelegatingPasswordEncoder::getStrength)
+                    .description("BCrypt cost of new password hashes")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Hashes a password.
+     *
+     * @param rawPassword the password to hash
+     * @return the encoded hash
+     * @throws TooManyRequestsException if the hashing queue is full
+     */
+    public String encode(CharSequence rawPassword) {
+        return run(() -> timed("encode", null, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a password against a stored hash.
+     *
+     * @param rawPassword the password entered by the user
+     * @param encodedPassword the stored hash
+     * @return true if the password matches
+     * @throws TooManyRequestsException if the hashing queue is full
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> timed("matches", encodedPassword, () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Checks whether a stored hash should be replaced, e.g. because it was made with another cost.
+     *
+     * @param encodedPassword the stored hash
+     * @return true if the password should be rehashed at the next successful login
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hashes a password again in the background and hands the new hash to {@code store}.
+     * Only runs when no other hash is waiting, so upgrades never delay logins; a skipped upgrade
+     * is retried at the next login.
+     *
+     * @param rawPassword the password that has just been verified
+     * @param store saves the new hash
+     */
+    public void rehashInBackground(CharSequence rawPassword, Consumer<String> store) {
+        if (!executor.getQueue().isEmpty()) {
+            rehashSkipped.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(timed("encode", null, () -> passwordEncoder.encode(rawPassword)));
+                    rehashed.increment();
+                } catch (RuntimeException e) {
+                    rehashFailed.increment();
+                    log.warn("Could not rehash password", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rehashSkipped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hash.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new TooManyRequestsException("Too many sign-in requests, please try again later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs a hash and records its duration, tagged with the BCrypt cost of the stored hash
+     * for matches and of the new hash for encode.
+     */
+    private <T> T timed(String operation, String encodedPassword, Supplier<T> hash) {
+        long start = System.nanoTime();
+        T result = hash.get();
+        String hashed = encodedPassword != null ? encodedPassword : (String) result;
+        Timer.builder("password.hash.duration")
+                .tag("operation", operation)
+                .tag("cost", String.valueOf(BCryptDelegatingPasswordEncoder.costOf(hashed)))
+                .description("Time spent hashing a password or checking it against its hash")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Counter rehashCounter(String outcome) {
+        return Counter.builder("password.rehash")
+                .tag("outcome", outcome)
+                .description("Passwords rehashed after login because their cost changed")
+                .register(meterRegistry);
+    }
+}
@@ -1,38 +1,513 @@
 package com.pap_shop.service;
 
+import com.pap_shop.dto.ImportJobResponse;
+import com.pap_shop.entity.Category;
+import com.pap_shop.entity.ImportJob;
+import com.pap_shop.entity.ImportJobError;
 import com.pap_shop.entity.Product;
+import com.pap_shop.entity.StockEntry;
+import com.pap_shop.enums.ImportJobStatus;
+import com.pap_shop.event.ProductCreatedEvent;
+import com.pap_shop.exception.ResourceNotFoundException;
+import com.pap_shop.exception.TooManyRequestsException;
 import com.pap_shop.repository.CategoryRepository;
+import com.pap_shop.repository.ImportJobErrorRepository;
+import com.pap_shop.repository.ImportJobRepository;
 import com.pap_shop.repository.ProductRepository;
 import com.pap_shop.repository.StockEntryRepository;
+import com.pap_shop.repository.projection.ProductSkuView;
 import com.pap_shop.util.ProductExcelImporter;
-import lombok.RequiredArgsConstructor;
+import com.pap_shop.util.ProductExcelImporter.ImportRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Service class for importing products from Excel files.
- * Provides functionality to process and import product data from spreadsheets.
+ * Uploads are stored on disk and processed as background jobs on a bounded pool. Rows are
+ * streamed from the file and written chunk by chunk: each chunk needs one query for its
+ * categories, one for its existing SKUs and batched statements for the writes, and commits
+ * together with the job's counters and checkpoint. Progress is published on
+ * {@code /topic/imports/{jobId}}.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ProductImportService {
-    
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String TOPIC_PREFIX = "/topic/imports/";
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final StockEntryRepository stockEntryRepository;
-    
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobErrorRepository importJobErrorRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final EntityCacheService entityCacheService;
+    private final SkuAllocator skuAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path storageDir;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Cancellation flags of the jobs that are queued or running on this instance.
+     */
+    private final Map<String, AtomicBoolean> activeJobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(ProductRepository productRepository,
+                                CategoryRepository categoryRepository,
+                                StockEntryRepository stockEntryRepository,
+                                ImportJobRepository importJobRepository,
+                                ImportJobErrorRepository importJobErrorRepository,
+                                ProductSearchIndex productSearchIndex,
+                                EntityCacheService entityCacheService,
+                                SkuAllocator skuAllocator,
+                                TransactionTemplate transactionTemplate,
+                                SimpMessagingTemplate messagingTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${import.storage-dir:${java.io.tmpdir}/pap-shop-imports}") String storageDir,
+                                @Value("${import.executor.pool-size:2}") int poolSize,
+                                @Value("${import.executor.queue-capacity:20}") int queueCapacity) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.stockEntryRepository = stockEntryRepository;
+        this.importJobRepository = importJobRepository;
+        this.importJobErrorRepository = importJobErrorRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.entityCacheService = entityCacheService;
+        this.skuAllocator = skuAllocator;
+        this.transactionTemplate = transactionTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.storageDir = Paths.get(storageDir);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "product-import-" + threadNumber.incrementAndGet()));
+    }
+
     /**
-     * Import products from Excel file.
+     * Stores the uploaded file and queues an import job for it.
      *
      * @param file the Excel file containing product data
-     * @return list of imported products
-     * @throws IOException if file processing fails
+     * @return the queued job
+     * @throws IOException if the file cannot be stored
+     * @throws TooManyRequestsException if the import queue is full
+     */
+    public ImportJobResponse startImport(MultipartFile file) throws IOException {
+        String jobId = UUID.randomUUID().toString();
+        Files.createDirectories(storageDir);
+        Path path = storageDir.resolve(jobId + ".xlsx");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        ImportJob job = ImportJob.builder()
+                .id(jobId)
+                .fileName(file.getOriginalFilename() != null ? file.getOriginalFilename() : "import.xlsx")
+                .filePath(path.toString())
+                .status(ImportJobStatus.QUEUED)
+                .build();
+        job = importJobRepository.save(job);
+        submit(job);
+        return mapToResponse(job);
+    }
+
+    /**
+     * Get an import job.
+     *
+     * @param jobId the job ID
+     * @return the job's state and progress
+     */
+    public ImportJobResponse getJob(String jobId) {
+        return mapToResponse(findJob(jobId));
+    }
+
+    /**
+     * Get the rows of an import job that could not be imported.
+     *
+     * @param jobId the job ID
+     * @return the failed rows in file order
+     */
+    public List<ImportJobError> getErrors(String jobId) {
+        findJob(jobId);
+        return importJobErrorRepository.findByJobIdOrderByRowNumberAsc(jobId);
+    }
+
+    /**
+     * Cancel an import job. A running job stops after the chunk it is writing, so everything
+     * up to its checkpoint stays imported and the job can be resumed later.
+     *
+     * @param jobId the job ID
+     * @return the job's state
+     */
+    public ImportJobResponse cancel(String jobId) {
+        ImportJob job = findJob(jobId);
+        AtomicBoolean canceled = activeJobs.get(jobId);
+        if (canceled != null) {
+            canceled.set(true);
+            return mapToResponse(job);
+        }
+        if (job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED) {
+            throw new IllegalArgumentException("Import job has already finished");
+        }
+        if (job.getStatus() != ImportJobStatus.CANCELED) {
+            job.setStatus(ImportJobStatus.CANCELED);
+            job.setUpdatedAt(LocalDateTime.now());
+            job = importJobRepository.save(job);
+            publish(job);
+        }
+        return mapToResponse(job);
+    }
+
+    /**
+     * Resume a canceled import job from its checkpoint.
+     *
+     * @param jobId the job ID
+     * @return the queued job
+     */
+    public ImportJobResponse resume(String jobId) {
+        ImportJob job = findJob(jobId);
+        if (job.getStatus() != ImportJobStatus.CANCELED || activeJobs.containsKey(jobId)) {
+            throw new IllegalArgumentException("Only canceled import jobs can be resumed");
+        }
+        if (!Files.exists(Paths.get(job.getFilePath()))) {
+            throw new IllegalArgumentException("The file of this import job is no longer available");
+        }
+        job.setStatus(ImportJobStatus.QUEUED);
+        job.setErrorMessage(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+        submit(job);
+        return mapToResponse(job);
+    }
+
+    /**
+     * Jobs left queued or running by a previous instance are marked as canceled, so they
+     * can be resumed from their checkpoint.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        List<ImportJob> interrupted = importJobRepository.findByStatusIn(Arrays.asList(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING));
+        for (ImportJob job : interrupted) {
+            job.setStatus(ImportJobStatus.CANCELED);
+            job.setErrorMessage("Interrupted by a restart");
+            job.setUpdatedAt(LocalDateTime.now());
+        }
+        importJobRepository.saveAll(interrupted);
+    }
+
+    /**
+     * Asks running jobs to stop at their next chunk boundary.
+     */
+    @PreDestroy
+    public void shutdown() {
+        activeJobs.values().forEach(canceled -> canceled.set(true));
+        executor.shutdown();
+    }
+
+    private void submit(ImportJob job) {
+        AtomicBoolean canceled = new AtomicBoolean();
+        activeJobs.put(job.getId(), canceled);
+        try {
+            executor.execute(() -> run(job, canceled));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.getId());
+            job.setStatus(ImportJobStatus.CANCELED);
+            job.setErrorMessage("Import queue is full");
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+            throw new TooManyRequestsException("Too many imports in progress, resume job " + job.getId() + " later");
+        }
+        publish(job);
+    }
+
+    private void run(ImportJob queued, AtomicBoolean canceled) {
+        ImportJob job = queued;
+        try {
+            if (canceled.get()) {
+                throw new CancellationException();
+            }
+            job.setStatus(ImportJobStatus.RUNNING);
+            job.setUpdatedAt(LocalDateTime.now());
+            job = importJobRepository.save(job);
+            publish(job);
+
+            ImportJob[] current = {job};
+            try (InputStream in = Files.newInputStream(Paths.get(job.getFilePath()))) {
+                ProductExcelImporter.importFromExcel(in, CHUNK_SIZE, rows -> {
+                    if (canceled.get()) {
+                        throw new CancellationException();
+                    }
+                    int checkpoint = current[0].getCheckpointRow();
+                    List<ImportRow> pending = rows.stream()
+                            .filter(row -> row.getRowNumber() > checkpoint)
+                            .collect(Collectors.toList());
+                    if (!pending.isEmpty()) {
+                        current[0] = processChunk(current[0], pending);
+                        publish(current[0]);
+                    }
+                });
+            }
+            job = current[0];
+            job.setStatus(ImportJobStatus.COMPLETED);
+            Files.deleteIfExists(Paths.get(job.getFilePath()));
+        } catch (Exception e) {
+            job = importJobRepository.findById(queued.getId()).orElse(job);
+            if (canceled.get() || e instanceof CancellationException) {
+                job.setStatus(ImportJobStatus.CANCELED);
+            } else {
+                log.error("Import job {} failed", job.getId(), e);
+                job.setStatus(ImportJobStatus.FAILED);
+                job.setErrorMessage(e.getMessage());
+            }
+        } finally {
+            activeJobs.remove(queued.getId());
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+        publish(job);
+    }
+
+    /**
+     * Writes one chunk in its own transaction. If the chunk cannot be written, it is split in
+     * halves and retried until the rows that fail are isolated; only those are reported as
+     * failed, the others are imported.
+     *
+     * @return the job with updated counters and checkpoint
+     */
+    private ImportJob processChunk(ImportJob job, List<ImportRow> rows) {
+        List<Product> inserted = new ArrayList<>();
+        try {
+            ImportJob updated = transactionTemplate.execute(status -> importChunk(job, rows, inserted));
+            for (Product product : inserted) {
+                productSearchIndex.index(product);
+                eventPublisher.publishEvent(new ProductCreatedEvent(product.getId()));
+            }
+            return updated;
+        } catch (RuntimeException e) {
+            if (rows.size() > 1) {
+                log.warn("Import job {} failed to write rows {}-{}, retrying them in smaller chunks: {}", job.getId(),
+                        rows.get(0).getRowNumber(), rows.get(rows.size() - 1).getRowNumber(), e.getMessage());
+                // The failed attempt's counters were rolled back
+                ImportJob current = importJobRepository.findById(job.getId()).orElse(job);
+                int middle = rows.size() / 2;
+                current = processChunk(current, rows.subList(0, middle));
+                return processChunk(current, rows.subList(middle, rows.size()));
+            }
+            ImportRow row = rows.get(0);
+            log.warn("Import job {} failed to write row {}", job.getId(), row.getRowNumber(), e);
+            return transactionTemplate.execute(status -> {
+                ImportJob current = importJobRepository.findById(job.getId()).orElse(job);
+                importJobErrorRepository.save(new ImportJobError(null, current.getId(), row.getRowNumber(), "Could not save row: " + e.getMessage()));
+                current.setFailed(current.getFailed() + 1);
+                return advance(current, rows);
+            });
+        }
+    }
+
+    /**
+     * Writes one chunk of rows. A row whose SKU already exists with the same name adds to
+     * that product's stock; any other valid row creates a new product; invalid rows are
+     * recorded in the job's error report.
+     *
+     * @param inserted receives the products created by this chunk
+     * @return the job with updated counters and checkpoint
      */
-    public List<Product> importProductsFromExcel(MultipartFile file) throws IOException {
-        List<Product> products = ProductExcelImporter.importFromExcel(file, categoryRepository, productRepository, stockEntryRepository);
-        return products;
+    private ImportJob importChunk(ImportJob job, List<ImportRow> rows, List<Product> inserted) {
+        Map<Integer, Category> categories = loadCategories(rows);
+
+        // Generate SKU if empty
+        for (ImportRow row : rows) {
+            Category category = row.getCategoryId() != null ? categories.get(row.getCategoryId()) : null;
+            if (row.getSku().isEmpty() && !row.getName().isEmpty() && category != null) {
+                row.setSku(skuAllocator.allocate(category.getName()));
+            }
+        }
+
+        Set<String> skus = new HashSet<>();
+        rows.forEach(row -> skus.add(row.getSku()));
+        Map<String, ProductSkuView> existing = new HashMap<>();
+        for (ProductSkuView view : productRepository.findBySkuIn(skus)) {
+            existing.put(view.getSku(), view);
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Map<String, Product> created = new HashMap<>();
+        Map<Integer, Integer> stockIncrements = new TreeMap<>();
+        List<ImportRow> stockEntryRows = new ArrayList<>();
+        List<ImportJobError> errors = new ArrayList<>();
+        int updated = 0;
+
+        for (ImportRow row : rows) {
+            ProductSkuView current = existing.get(row.getSku());
+            Product newProduct = created.get(row.getSku());
+            String error = validate(row, categories, current, newProduct);
+            if (error != null) {
+                errors.add(new ImportJobError(null, job.getId(), row.getRowNumber(), error));
+                continue;
+            }
+
+            if (current != null) {
+                if (row.getStock() != null) {
+                    stockIncrements.merge(current.getId(), row.getStock(), Integer::sum);
+                    updated++;
+                }
+            } else if (newProduct != null) {
+                if (row.getStock() != null) {
+                    newProduct.setStock(newProduct.getStock() + row.getStock());
+                }
+            } else {
+                Product product = new Product();
+                product.setSku(row.getSku());
+                product.setName(row.getName());
+                product.setCategory(row.getCategoryId() != null ? categories.get(row.getCategoryId()) : null);
+                product.setDescription(row.getDescription());
+                product.setPrice(row.getPrice());
+                product.setStock(row.getStock() != null ? row.getStock() : 0);
+                product.setCreatedAt(LocalDateTime.now());
+                created.put(row.getSku(), product);
+                inserted.add(product);
+            }
+
+            if (row.getSupplier() != null && row.getStock() != null && row.getPurchasePrice() != null) {
+                stockEntryRows.add(row);
+            }
+        }
+
+        productRepository.saveAll(inserted);
+        productRepository.addStock(stockIncrements);
+        entityCacheService.evictProducts(stockIncrements.keySet());
+
+        List<StockEntry> stockEntries = new ArrayList<>(stockEntryRows.size());
+        for (ImportRow row : stockEntryRows) {
+            ProductSkuView current = existing.get(row.getSku());
+            Product product = current != null ? productRepository.getReferenceById(current.getId()) : created.get(row.getSku());
+
+            StockEntry stockEntry = new StockEntry();
+            stockEntry.setProduct(product);
+            stockEntry.setStock(row.getStock());
+            stockEntry.setPurchasePrice(row.getPurchasePrice());
+            stockEntry.setSupplier(row.getSupplier());
+            stockEntry.setCreatedAt(now);
+            stockEntries.add(stockEntry);
+        }
+        stockEntryRepository.saveAll(stockEntries);
+        importJobErrorRepository.saveAll(errors);
+
+        job.setInserted(job.getInserted() + inserted.size());
+        job.setUpdated(job.getUpdated() + updated);
+        job.setFailed(job.getFailed() + errors.size());
+        return advance(job, rows);
+    }
+
+    /**
+     * @return a description of what is wrong with the row, or null if it can be imported
+     */
+    private static String validate(ImportRow row, Map<Integer, Category> categories, ProductSkuView existing, Product created) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+        if (row.getCategoryId() != null && !categories.containsKey(row.getCategoryId())) {
+            return "Category not found: " + row.getCategoryId();
+        }
+        if (row.getName().isEmpty()) {
+            return "Name is required";
+        }
+        if (row.getSku().isEmpty()) {
+            return "SKU is required when no category is given";
+        }
+        String name = existing != null ? existing.getName() : created != null ? created.getName() : null;
+        if (name != null && !name.equals(row.getName())) {
+            return "SKU " + row.getSku() + " belongs to another product: " + name;
+        }
+        if (name == null && row.getPrice() == null) {
+            return "Price is required for a new product";
+        }
+        return null;
+    }
+
+    private ImportJob advance(ImportJob job, List<ImportRow> rows) {
+        job.setRowsRead(job.getRowsRead() + rows.size());
+        job.setCheckpointRow(rows.get(rows.size() - 1).getRowNumber());
+        job.setUpdatedAt(LocalDateTime.now());
+        return importJobRepository.save(job);
+    }
+
+    private Map<Integer, Category> loadCategories(List<ImportRow> rows) {
+        Set<Integer> categoryIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.getCategoryId() != null) {
+                categoryIds.add(row.getCategoryId());
+            }
+        }
+
+        Map<Integer, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAllById(categoryIds)) {
+            categories.put(category.getID(), category);
+        }
+        return categories;
+    }
+
+    private ImportJob findJob(String jobId) {
+        return importJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found"));
+    }
+
+    private void publish(ImportJob job) {
+        messagingTemplate.convertAndSend(TOPIC_PREFIX + job.getId(), mapToResponse(job));
+    }
+
+    private ImportJobResponse mapToResponse(ImportJob job) {
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFileName(),
+                job.getStatus(),
+                job.getRowsRead(),
+                job.getInserted(),
+                job.getUpdated(),
+                job.getFailed(),
+                job.getCheckpointRow(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getUpdatedAt()
+        );
     }
-}
\ No newline at end of file
+}
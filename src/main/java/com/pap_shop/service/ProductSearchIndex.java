@@ -0,0 +1,538 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.Product;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.projection.ProductSearchView;
+import com.pap_shop.util.DiacriticsUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over product name, SKU and description.
+ * Text is folded with {@link DiacriticsUtil#removeDiacritics(String)} and lowercased, so
+ * "dien thoai" matches "Điện thoại". The index is built in the background at startup and
+ * kept up to date by {@link ProductService}; until it is ready, callers fall back to SQL.
+ * <p>
+ * Normalized text only contains {@code a-z}, {@code 0-9} and spaces, so every trigram is encoded
+ * as an int below {@code 37^3} and its posting list is a sorted {@code int[]} of product IDs.
+ * Only the first {@value #MAX_DESCRIPTION_LENGTH} characters of a description are indexed.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final int ALPHABET_SIZE = 37;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+    /**
+     * Deepest result served; ranking keeps only this many matches, so deeper pages are empty.
+     */
+    static final int MAX_RESULT_WINDOW = 1000;
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt((Match m) -> -m.score)
+            .thenComparingInt(m -> m.nameLength)
+            .thenComparingInt(m -> m.id);
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final PostingList[] postings = new PostingList[ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE];
+    /**
+     * IDs indexed or removed while a rebuild is running; the rebuild's copies of them may be stale,
+     * so it skips them. Null when no rebuild is running. Guarded by the index lock.
+     */
+    private Set<Integer> touchedDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Builds the index from the database without blocking application startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(this::rebuild)
+                .exceptionally(e -> {
+                    log.error("Failed to build product search index", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Loads every product in ID order, batch by batch, and marks the index ready.
+     * IDs arrive in ascending order, so postings are appended rather than inserted.
+     * Products indexed or removed after their batch was read keep their live state.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int lastId = 0;
+        List<ProductSearchView> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            List<Document> loaded = new ArrayList<>(batch.size());
+            for (ProductSearchView view : batch) {
+                loaded.add(document(view.getId(), view.getName(), view.getSku(), view.getDescription()));
+                lastId = view.getId();
+            }
+            lock.writeLock().lock();
+            try {
+                for (Document document : loaded) {
+                    if (!touchedDuringRebuild.contains(document.id)) {
+                        put(document);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        int size;
+        lock.writeLock().lock();
+        try {
+            for (PostingList list : postings) {
+                if (list != null) {
+                    list.trim();
+                }
+            }
+            size = documents.size();
+            touchedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Product search index built with {} products in {} ms", size, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return true once the initial build has finished
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds or re-indexes a product.
+     *
+     * @param product the saved product
+     */
+    public void index(Product product) {
+        Document document = document(product.getId(), product.getName(), product.getSku(), product.getDescription());
+        lock.writeLock().lock();
+        try {
+            touch(document.id);
+            put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId the ID of the deleted product
+     */
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            touch(productId);
+            Document removed = documents.remove(productId);
+            if (removed != null) {
+                for (int gram : removed.grams()) {
+                    removePosting(gram, productId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query the search text
+     * @param page  zero-based page number
+     * @param size  page size
+     * @return IDs of the matching products for the requested page, best match first,
+     *         or empty if the index is not ready or the query is too short to use it;
+     *         pages beyond {@value #MAX_RESULT_WINDOW} results are always empty
+     */
+    public Optional<List<Integer>> search(String query, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return Optional.of(Collections.emptyList());
+        }
+        String[] tokens = normalized.split(" ");
+        int[] grams = queryGrams(tokens);
+        if (grams.length == 0) {
+            return Optional.empty();
+        }
+
+        long from = (long) page * size;
+        if (page < 0 || size <= 0 || from >= MAX_RESULT_WINDOW) {
+            return Optional.of(Collections.emptyList());
+        }
+        int to = (int) Math.min(from + size, MAX_RESULT_WINDOW);
+
+        // Worst kept match at the head, so the heap never holds more than the requested window
+        PriorityQueue<Match> top = new PriorityQueue<>(to, RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings[grams[i]];
+                if (lists[i] == null) {
+                    return Optional.of(Collections.emptyList());
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            PostingList smallest = lists[0];
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int id = smallest.ids[i];
+                for (int l = 1; l < lists.length; l++) {
+                    int position = lists[l].seek(id, cursors[l]);
+                    if (position == lists[l].size) {
+                        break candidates;
+                    }
+                    cursors[l] = position;
+                    if (lists[l].ids[position] != id) {
+                        continue candidates;
+                    }
+                }
+                Document document = documents.get(id);
+                if (document != null) {
+                    int score = score(document, normalized, tokens);
+                    if (score > 0) {
+                        Match match = new Match(id, score, document.name.length());
+                        if (top.size() < to) {
+                            top.add(match);
+                        } else if (RANKING.compare(match, top.peek()) < 0) {
+                            top.poll();
+                            top.add(match);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int found = top.size();
+        if (found <= from) {
+            return Optional.of(Collections.emptyList());
+        }
+        Integer[] ranked = new Integer[found];
+        for (int i = found - 1; i >= 0; i--) {
+            ranked[i] = top.poll().id;
+        }
+        return Optional.of(new ArrayList<>(Arrays.asList(ranked).subList((int) from, found)));
+    }
+
+    private static Document document(Integer id, String name, String sku, String description) {
+        String normalizedDescription = normalize(description);
+        if (normalizedDescription.length() > MAX_DESCRIPTION_LENGTH) {
+            normalizedDescription = normalizedDescription.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+        return new Document(id, normalize(name), normalize(sku), normalizedDescription);
+    }
+
+    /**
+     * Stores a document and updates its postings; the caller holds the write lock.
+     */
+    private void put(Document document) {
+        int[] grams = document.grams();
+        Document previous = documents.put(document.id, document);
+        if (previous != null) {
+            for (int gram : previous.grams()) {
+                if (Arrays.binarySearch(grams, gram) < 0) {
+                    removePosting(gram, document.id);
+                }
+            }
+        }
+        for (int gram : grams) {
+            PostingList list = postings[gram];
+            if (list == null) {
+                list = new PostingList();
+                postings[gram] = list;
+            }
+            list.add(document.id);
+        }
+    }
+
+    /**
+     * Keeps a running rebuild from overwriting a live change; the caller holds the write lock.
+     */
+    private void touch(int id) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(id);
+        }
+    }
+
+    private void removePosting(int gram, int id) {
+        PostingList list = postings[gram];
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings[gram] = null;
+        }
+    }
+
+    /**
+     * Scores a candidate; 0 means at least one query token does not occur in the product.
+     */
+    private static int score(Document document, String query, String[] tokens) {
+        int score = 0;
+        if (document.sku.equals(query)) {
+            score += 20;
+        }
+        if (document.name.startsWith(query)) {
+            score += 10;
+        }
+        for (String token : tokens) {
+            int tokenScore = 0;
+            if (document.name.startsWith(token) || document.name.contains(" " + token)) {
+                tokenScore = 4;
+            } else if (document.name.contains(token)) {
+                tokenScore = 3;
+            } else if (document.sku.contains(token)) {
+                tokenScore = 2;
+            } else if (document.description.contains(token)) {
+                tokenScore = 1;
+            }
+            if (tokenScore == 0) {
+                return 0;
+            }
+            score += tokenScore;
+        }
+        return score;
+    }
+
+    /**
+     * Trigrams a query must hit. Tokens of three or more letters contribute their inner
+     * trigrams (substring match); two-letter tokens contribute a word-start trigram.
+     */
+    private static int[] queryGrams(String[] tokens) {
+        GramSet grams = new GramSet();
+        for (String token : tokens) {
+            if (token.length() >= GRAM_SIZE) {
+                grams.addAll(token, 0);
+            } else if (token.length() == GRAM_SIZE - 1) {
+                grams.add(encode(' ', token.charAt(0), token.charAt(1)));
+            }
+        }
+        return grams.toSortedArray();
+    }
+
+    /**
+     * Folds diacritics, lowercases and reduces everything but letters and digits to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = DiacriticsUtil.removeDiacritics(text).toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(folded.length());
+        boolean space = true;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                builder.append(c);
+                space = false;
+            } else if (!space) {
+                builder.append(' ');
+                space = true;
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+
+    private static int encode(char first, char second, char third) {
+        return (code(first) * ALPHABET_SIZE + code(second)) * ALPHABET_SIZE + code(third);
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    /**
+     * Normalized fields of one product. Its trigrams are recomputed when needed rather than kept.
+     */
+    private static final class Document {
+        private final int id;
+        private final String name;
+        private final String sku;
+        private final String description;
+
+        private Document(int id, String name, String sku, String description) {
+            this.id = id;
+            this.name = name;
+            this.sku = sku;
+            this.description = description;
+        }
+
+        /**
+         * @return the distinct trigrams of the padded fields, sorted
+         */
+        private int[] grams() {
+            GramSet grams = new GramSet();
+            addPadded(grams, name);
+            addPadded(grams, sku);
+            addPadded(grams, description);
+            return grams.toSortedArray();
+        }
+
+        private static void addPadded(GramSet grams, String text) {
+            if (!text.isEmpty()) {
+                grams.addAll(" " + text + " ", 0);
+            }
+        }
+    }
+
+    /**
+     * Growable collection of encoded trigrams, deduplicated when converted to an array.
+     */
+    private static final class GramSet {
+        private int[] grams = new int[64];
+        private int size;
+
+        private void add(int gram) {
+            if (size == grams.length) {
+                grams = Arrays.copyOf(grams, size * 2);
+            }
+            grams[size++] = gram;
+        }
+
+        private void addAll(String text, int from) {
+            for (int i = from; i + GRAM_SIZE <= text.length(); i++) {
+                add(encode(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)));
+            }
+        }
+
+        private int[] toSortedArray() {
+            Arrays.sort(grams, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                    grams[distinct++] = grams[i];
+                }
+            }
+            return Arrays.copyOf(grams, distinct);
+        }
+    }
+
+    /**
+     * Sorted product IDs posted under one trigram. Guarded by the index lock.
+     */
+    private static final class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            // Appending is the common case: the rebuild and new products arrive in ascending ID order
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int position, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * @return the first position at or after {@code from} whose ID is not below {@code id},
+         *         or {@code size} if there is none; gallops so skipping far ahead stays cheap
+         */
+        private int seek(int id, int from) {
+            int bound = 1;
+            int low = from;
+            while (from + bound < size && ids[from + bound] < id) {
+                low = from + bound;
+                bound <<= 1;
+            }
+            int high = Math.min(from + bound + 1, size);
+            int position = Arrays.binarySearch(ids, low, high, id);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        private void trim() {
+            if (ids.length > size) {
+                ids = Arrays.copyOf(ids, Math.max(size, 1));
+            }
+        }
+    }
+
+    private static final class Match {
+        private final int id;
+        private final int score;
+        private final int nameLength;
+
+        private Match(int id, int score, int nameLength) {
+            this.id = id;
+            this.score = score;
+            this.nameLength = nameLength;
+        }
+    }
+}
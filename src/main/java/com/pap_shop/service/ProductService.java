@@ -6,18 +6,49 @@ import com.pap_shop.entity.ProductImage;
 import com.pap_shop.dto.AddProductRequest;
 import com.pap_shop.dto.UpdateProductRequest;
 import com.pap_shop.dto.AddImageRequest;
+import com.pap_shop.dto.CategoryResponse;
+import com.pap_shop.dto.CursorPageResponse;
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.dto.ProductImageResponse;
+import com.pap_shop.dto.ProductResponse;
+import com.pap_shop.dto.RatingSummaryResponse;
+import com.pap_shop.enums.ProductSortKey;
+import com.pap_shop.event.ProductCreatedEvent;
+import com.pap_shop.event.ProductDeletedEvent;
 import com.pap_shop.exception.ResourceNotFoundException;
 import com.pap_shop.repository.CategoryRepository;
 import com.pap_shop.repository.ProductRepository;
 import com.pap_shop.repository.ProductImageRepository;
 import com.pap_shop.repository.StockEntryRepository;
+import com.pap_shop.repository.projection.ProductExportView;
+import com.pap_shop.repository.projection.ProductImageView;
+import com.pap_shop.repository.projection.ProductSummaryView;
+import com.pap_shop.util.CursorCodec;
+import com.pap_shop.util.CursorPages;
+import com.pap_shop.util.ProductExcelExporter;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing Product entities.
@@ -27,11 +58,18 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ProductService {
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     ProductRepository productRepository;
     CategoryRepository categoryRepository;
     ProductImageRepository productImageRepository;
     StockEntryRepository stockEntryRepository;
     CloudinaryService cloudinaryService;
+    ProductSearchIndex productSearchIndex;
+    EntityCacheService entityCacheService;
+    SkuAllocator skuAllocator;
+    ApplicationEventPublisher eventPublisher;
 
     /**
      * Adds a new product using product data from a DTO.
@@ -54,60 +92,99 @@ public class ProductService {
 
         String sku = addProductRequest.getSku();
         if (sku == null || sku.trim().isEmpty()) {
-            sku = generateSku(addProductRequest.getName(), category.getName());
+            sku = skuAllocator.allocate(category.getName());
         }
         product.setSku(sku);
         
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
+        eventPublisher.publishEvent(new ProductCreatedEvent(savedProduct.getId()));
+        return savedProduct;
     }
     
     /**
-     * Generate SKU for product based on category.
+     * Adds a new product using the provided product entity.
      *
-     * @param productName the product name
-     * @param categoryName the category name
-     * @return generated SKU
+     * @param product the product entity to be added
+     * @return the saved product entity
      */
-    private String generateSku(String productName, String categoryName) {
-        String prefix = removeDiacritics(categoryName).replaceAll("[^a-zA-Z]", "").substring(0, 1).toUpperCase();
-        long number = System.currentTimeMillis() % 100000;
-        return prefix + String.format("%05d", number);
+    public Product addProduct(Product product) {
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
+        eventPublisher.publishEvent(new ProductCreatedEvent(savedProduct.getId()));
+        return savedProduct;
     }
-    
-    private String removeDiacritics(String input) {
-        return input.replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
-                   .replaceAll("[èéẹẻẽêềếệểễ]", "e")
-                   .replaceAll("[ìíịỉĩ]", "i")
-                   .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
-                   .replaceAll("[ùúụủũưừứựửữ]", "u")
-                   .replaceAll("[ỳýỵỷỹ]", "y")
-                   .replaceAll("[đ]", "d")
-                   .replaceAll("[ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ]", "A")
-                   .replaceAll("[ÈÉẸẺẼÊỀẾỆỂỄ]", "E")
-                   .replaceAll("[ÌÍỊỈĨ]", "I")
-                   .replaceAll("[ÒÓỌỎÕÔỒỐỘỔỖƠỜỚỢỞỠ]", "O")
-                   .replaceAll("[ÙÚỤỦŨƯỪỨỰỬỮ]", "U")
-                   .replaceAll("[ỲÝỴỶỸ]", "Y")
-                   .replaceAll("[Đ]", "D");
+
+    /**
+     * Retrieves the first page of products in ID order.
+     * Kept for clients that expect a plain list.
+     *
+     * @return the first page of products
+     */
+    public List<ProductResponse> getAllProducts() {
+        return getProducts(new ProductFilter(), ProductSortKey.ID, Sort.Direction.ASC, null, null).getItems();
     }
 
     /**
-     * Adds a new product using the provided product entity.
+     * Retrieves one page of the product catalog.
+     * Uses keyset pagination on (sort key, id), so every page is an index range scan,
+     * and two queries, one for products with their category and one for their images.
      *
-     * @param product the product entity to be added
-     * @return the saved product entity
+     * @param filter the filters to apply
+     * @param sortKey the sorted column
+     * @param direction the sort direction
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param size page size, or null for the default
+     * @return the page of products with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
      */
-    public Product addProduct(Product product) {
-        return productRepository.save(product);
+    public CursorPageResponse<ProductResponse> getProducts(ProductFilter filter, ProductSortKey sortKey,
+                                                           Sort.Direction direction, String cursor, Integer size) {
+        Object afterKey = null;
+        Integer afterId = null;
+        if (!CursorPages.isFirstPage(cursor)) {
+            String[] parts = CursorCodec.decode(cursor, 4);
+            if (!parts[0].equals(sortKey.name()) || !parts[1].equals(direction.name())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            try {
+                afterKey = parseSortValue(sortKey, parts[2]);
+                afterId = Integer.valueOf(parts[3]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        Slice<ProductSummaryView> slice = productRepository.findCatalogSlice(filter, sortKey, direction,
+                afterKey, afterId, CursorPages.limit(size));
+        List<ProductSummaryView> summaries = slice.getContent();
+        List<ProductResponse> items = new ArrayList<>();
+        if (!summaries.isEmpty()) {
+            List<Integer> productIds = summaries.stream().map(ProductSummaryView::getId).collect(Collectors.toList());
+            items = toResponses(summaries, productImageRepository.findViewsByProductIdIn(productIds));
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            ProductSummaryView last = summaries.get(summaries.size() - 1);
+            nextCursor = CursorCodec.encode(sortKey.name(), direction.name(), sortValue(sortKey, last), last.getId());
+        }
+        return new CursorPageResponse<>(items, nextCursor, slice.hasNext());
     }
 
     /**
-     * Retrieves all products from the system.
+     * Writes all products as an Excel file to the given output stream.
+     * Rows are streamed from the database and flushed to the workbook in a small window,
+     * so memory use stays flat regardless of catalog size.
      *
-     * @return a list of all products
+     * @param out the stream to write the workbook to
+     * @throws IOException if writing fails
      */
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out) throws IOException {
+        try (Stream<ProductExportView> products = productRepository.streamAllForExport()) {
+            ProductExcelExporter.export(products, out);
+        }
     }
 
     /**
@@ -116,18 +193,21 @@ public class ProductService {
      * @param ID the ID of the product to retrieve
      * @return an Optional containing the product if found, or an empty Optional if not found
      */
-    public Optional<Product> getProductsByID(Integer ID) {
-        return productRepository.findById(ID);
+    public Optional<ProductResponse> getProductsByID(Integer ID) {
+        return productRepository.findWithDetailsById(ID).map(this::toResponse);
     }
 
     /**
-     * Retrieves all products that belong to a specific category.
+     * Retrieves the first page of products that belong to a specific category, in ID order.
+     * Kept for clients that expect a plain list.
      *
      * @param ID the ID of the category to search for
-     * @return a list of products belonging to the specified category
+     * @return the first page of products belonging to the specified category
      */
-    public List<Product> getProductsByCategoryID(Integer ID) {
-        return productRepository.findAllByCategoryID(ID);
+    public List<ProductResponse> getProductsByCategoryID(Integer ID) {
+        ProductFilter filter = new ProductFilter();
+        filter.setCategoryId(ID);
+        return getProducts(filter, ProductSortKey.ID, Sort.Direction.ASC, null, null).getItems();
     }
 
     /**
@@ -155,6 +235,9 @@ public class ProductService {
         stockEntryRepository.deleteByProductId(productId);
         
         productRepository.deleteById(productId);
+        entityCacheService.evictProduct(productId);
+        productSearchIndex.remove(productId);
+        eventPublisher.publishEvent(new ProductDeletedEvent(productId));
     }
 
     /**
@@ -187,17 +270,61 @@ public class ProductService {
             product.setStock(updateRequest.getStock());
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        entityCacheService.evictProduct(savedProduct.getId());
+        productSearchIndex.index(savedProduct);
+        return savedProduct;
     }
 
     /**
      * Searches for products by name (case-insensitive partial match).
+     * Returns the first page of results.
      *
      * @param name the name or partial name to search for
      * @return a list of products whose names contain the search term
      */
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    public List<ProductResponse> searchProductsByName(String name) {
+        return searchProductsByName(name, 0, DEFAULT_SEARCH_PAGE_SIZE);
+    }
+
+    /**
+     * Searches products by name, SKU and description, ignoring case and Vietnamese diacritics.
+     * Results come ranked from the in-memory search index; while the index is still
+     * being built, or for queries too short to use it, the search falls back to SQL on the name.
+     *
+     * @param query the search text
+     * @param page zero-based page number
+     * @param size page size
+     * @return the products of the requested page, best match first
+     */
+    public List<ProductResponse> searchProductsByName(String query, int page, int size) {
+        int pageNumber = Math.max(page, 0);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+
+        Optional<List<Integer>> ids = productSearchIndex.search(query, pageNumber, pageSize);
+        List<ProductSummaryView> summaries;
+        if (ids.isEmpty()) {
+            summaries = productRepository.findSummariesByNameContaining(query, PageRequest.of(pageNumber, pageSize));
+        } else if (ids.get().isEmpty()) {
+            return new ArrayList<>();
+        } else {
+            // Restore the ranking of the index
+            Map<Integer, ProductSummaryView> summariesById = productRepository.findSummariesByIdIn(ids.get()).stream()
+                    .collect(Collectors.toMap(ProductSummaryView::getId, Function.identity()));
+            summaries = new ArrayList<>(ids.get().size());
+            for (Integer id : ids.get()) {
+                ProductSummaryView summary = summariesById.get(id);
+                if (summary != null) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> productIds = summaries.stream().map(ProductSummaryView::getId).collect(Collectors.toList());
+        return toResponses(summaries, productImageRepository.findViewsByProductIdIn(productIds));
     }
 
     /**
@@ -276,4 +403,91 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         return product.getImages();
     }
+
+    /**
+     * Joins product rows with their images, keeping the order of the product rows.
+     */
+    private List<ProductResponse> toResponses(List<ProductSummaryView> summaries, List<ProductImageView> images) {
+        Map<Integer, List<ProductImageResponse>> imagesByProduct = new HashMap<>();
+        for (ProductImageView image : images) {
+            imagesByProduct.computeIfAbsent(image.getProductId(), id -> new ArrayList<>())
+                    .add(new ProductImageResponse(image.getId(), image.getImageUrl()));
+        }
+
+        List<ProductResponse> responses = new ArrayList<>(summaries.size());
+        for (ProductSummaryView summary : summaries) {
+            responses.add(new ProductResponse(
+                    summary.getId(),
+                    summary.getName(),
+                    summary.getCategoryId() != null ? new CategoryResponse(summary.getCategoryId(), summary.getCategoryName()) : null,
+                    summary.getDescription(),
+                    summary.getPrice(),
+                    summary.getStock(),
+                    summary.getCreatedAt(),
+                    summary.getSku(),
+                    imagesByProduct.getOrDefault(summary.getId(), new ArrayList<>()),
+                    new RatingSummaryResponse(summary.getRatingCount(), summary.getRatingAverage(),
+                            Arrays.asList(summary.getRating1(), summary.getRating2(), summary.getRating3(),
+                                    summary.getRating4(), summary.getRating5()))
+            ));
+        }
+        return responses;
+    }
+
+    /**
+     * Reads the sort key value of a row, as stored in the cursor.
+     */
+    private static Object sortValue(ProductSortKey sortKey, ProductSummaryView summary) {
+        switch (sortKey) {
+            case PRICE:
+                return summary.getPrice().toPlainString();
+            case RATING:
+                return summary.getRatingAverage().toPlainString();
+            case CREATED_AT:
+                return summary.getCreatedAt();
+            case STOCK:
+                return summary.getStock();
+            default:
+                return summary.getId();
+        }
+    }
+
+    /**
+     * Parses a sort key value read from a cursor.
+     */
+    private static Object parseSortValue(ProductSortKey sortKey, String value) {
+        switch (sortKey) {
+            case PRICE:
+            case RATING:
+                return new BigDecimal(value);
+            case CREATED_AT:
+                return LocalDateTime.parse(value);
+            default:
+                return Integer.valueOf(value);
+        }
+    }
+
+    private ProductResponse toResponse(Product product) {
+        Category category = product.getCategory();
+        List<ProductImageResponse> images = new ArrayList<>();
+        if (product.getImages() != null) {
+            for (ProductImage image : product.getImages()) {
+                images.add(new ProductImageResponse(image.getId(), image.getImageUrl()));
+            }
+        }
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                category != null ? new CategoryResponse(category.getID(), category.getName()) : null,
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getCreatedAt(),
+                product.getSku(),
+                images,
+                new RatingSummaryResponse(product.getRatingCount(), product.getRatingAverage(),
+                        Arrays.asList(product.getRating1(), product.getRating2(), product.getRating3(),
+                                product.getRating4(), product.getRating5()))
+        );
+    }
 }
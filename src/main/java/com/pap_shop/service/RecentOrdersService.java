@@ -0,0 +1,183 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.RecentOrderResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ring buffer of the newest orders shown on the admin dashboard.
+ * The buffer is loaded in the background at startup and then fed by the orders
+ * {@link OrderService} places as their transactions commit, so reading it never touches the database.
+ * Until it is loaded the list comes from one limited query; {@link #reload()} is also run periodically
+ * to pick up changes made outside {@link OrderService}.
+ */
+@Service
+@Slf4j
+public class RecentOrdersService {
+
+    private static final Comparator<RecentOrderResponse> NEWEST_FIRST =
+            Comparator.comparing(RecentOrderResponse::getCreatedAt)
+                    .thenComparing(RecentOrderResponse::getId)
+                    .reversed();
+
+    private final OrderRepository orderRepository;
+    private final RecentOrderResponse[] buffer;
+    private int next;
+    private final Object reloadLock = new Object();
+
+    /**
+     * Orders placed and status changes made while a reload is running, which its query may have missed.
+     * Null when no reload is running. Guarded by this.
+     */
+    private List<RecentOrderResponse> createdDuringReload;
+    private Map<Integer, OrderStatus> statusChangedDuringReload;
+    private volatile boolean loaded;
+
+    public RecentOrdersService(OrderRepository orderRepository,
+                               @Value("${dashboard.recent-orders.size:10}") int size) {
+        this.orderRepository = orderRepository;
+        this.buffer = new RecentOrderResponse[size];
+    }
+
+    /**
+     * Loads the buffer without blocking application startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(this::reload)
+                .exceptionally(e -> {
+                    log.error("Failed to load recent orders", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Replaces the buffer with the newest orders from the database, keeping the orders
+     * placed or changed while the query was running.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                createdDuringReload = new ArrayList<>();
+                statusChangedDuringReload = new HashMap<>();
+            }
+            try {
+                List<RecentOrderResponse> newest = orderRepository.findRecentSummaries(PageRequest.of(0, buffer.length));
+                synchronized (this) {
+                    Map<Integer, RecentOrderResponse> merged = new HashMap<>();
+                    newest.forEach(order -> merged.put(order.getId(), order));
+                    createdDuringReload.forEach(order -> merged.put(order.getId(), order));
+                    statusChangedDuringReload.forEach((id, status) -> {
+                        RecentOrderResponse order = merged.get(id);
+                        if (order != null) {
+                            order.setStatus(status);
+                        }
+                    });
+                    List<RecentOrderResponse> orders = new ArrayList<>(merged.values());
+                    orders.sort(NEWEST_FIRST);
+
+                    clear();
+                    // Oldest first, so the newest ends up just before the write position
+                    for (int i = Math.min(orders.size(), buffer.length) - 1; i >= 0; i--) {
+                        add(orders.get(i));
+                    }
+                    loaded = true;
+                }
+            } finally {
+                synchronized (this) {
+                    createdDuringReload = null;
+                    statusChangedDuringReload = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the newest orders, newest first.
+     *
+     * @return copies of the buffered order summaries
+     */
+    public List<RecentOrderResponse> getRecentOrders() {
+        if (!loaded) {
+            return orderRepository.findRecentSummaries(PageRequest.of(0, buffer.length));
+        }
+        List<RecentOrderResponse> orders = new ArrayList<>(buffer.length);
+        synchronized (this) {
+            for (RecentOrderResponse order : buffer) {
+                if (order != null) {
+                    orders.add(copy(order));
+                }
+            }
+        }
+        // Transactions can commit out of creation order
+        orders.sort(NEWEST_FIRST);
+        return orders;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderCreated(OrderCreatedEvent event) {
+        RecentOrderResponse order = summaryOf(event);
+        add(order);
+        if (createdDuringReload != null) {
+            createdDuringReload.add(order);
+        }
+    }
+
+    /**
+     * Keeps the status of a buffered order current when it is canceled or moved along.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        for (RecentOrderResponse order : buffer) {
+            if (order != null && order.getId().equals(event.getOrderId())) {
+                order.setStatus(event.getStatus());
+            }
+        }
+        if (statusChangedDuringReload != null) {
+            statusChangedDuringReload.put(event.getOrderId(), event.getStatus());
+        }
+    }
+
+    private void add(RecentOrderResponse order) {
+        buffer[next] = order;
+        next = (next + 1) % buffer.length;
+    }
+
+    private void clear() {
+        Arrays.fill(buffer, null);
+        next = 0;
+    }
+
+    /**
+     * Builds the summary of a newly placed order from its event.
+     *
+     * @param event the order event
+     * @return the order summary
+     */
+    static RecentOrderResponse summaryOf(OrderCreatedEvent event) {
+        return new RecentOrderResponse(event.getOrderId(), event.getCustomerName(), event.getTotalPrice(),
+                event.getStatus(), event.getCreatedAt(), (long) event.getItemCount());
+    }
+
+    private static RecentOrderResponse copy(RecentOrderResponse order) {
+        return new RecentOrderResponse(order.getId(), order.getCustomerName(), order.getTotalPrice(),
+                order.getStatus(), order.getCreatedAt(), order.getItemCount());
+    }
+}
@@ -0,0 +1,176 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.RevenuePointResponse;
+import com.pap_shop.entity.Revenue;
+import com.pap_shop.entity.RevenueRollup;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.enums.RevenuePeriod;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.repository.OrderRepository;
+import com.pap_shop.repository.RevenueRepository;
+import com.pap_shop.repository.RevenueRollupRepository;
+import com.pap_shop.repository.projection.RevenueBalanceView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service that keeps the revenue ledger and its hourly, daily and monthly rollups.
+ * An order is booked when it reaches DELIVERED and reversed if it leaves DELIVERED later;
+ * every entry increments the three rollup rows of its time in the same transaction,
+ * so revenue charts read one pre-aggregated row per bucket.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RevenueLedgerService {
+
+    /**
+     * Largest number of buckets one chart may request.
+     */
+    static final int MAX_POINTS = 1000;
+
+    static final String BACKFILL_MIGRATION = "revenue-ledger-backfill";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final RevenueRepository revenueRepository;
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final OrderRepository orderRepository;
+    private final DataMigrationService dataMigrationService;
+
+    /**
+     * Books or reverses the revenue of an order whose status crossed DELIVERED.
+     * Runs synchronously in the transaction of the status change, so the order, the ledger
+     * and the rollups always commit together.
+     *
+     * @param event the status change
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean wasDelivered = event.getPreviousStatus() == OrderStatus.DELIVERED;
+        boolean isDelivered = event.getStatus() == OrderStatus.DELIVERED;
+        if (wasDelivered == isDelivered) {
+            return;
+        }
+
+        BigDecimal amount = isDelivered ? event.getTotalPrice() : event.getTotalPrice().negate();
+        LocalDateTime now = LocalDateTime.now();
+        revenueRepository.save(new Revenue(null, orderRepository.getReferenceById(event.getOrderId()),
+                amount, Timestamp.valueOf(now)));
+
+        List<RevenueRollup> increments = new ArrayList<>(RevenuePeriod.values().length);
+        for (RevenuePeriod period : RevenuePeriod.values()) {
+            increments.add(new RevenueRollup(period, period.truncate(now), amount, isDelivered ? 1 : -1));
+        }
+        revenueRollupRepository.add(increments);
+    }
+
+    /**
+     * Returns the revenue of every bucket in [from, to), including empty buckets.
+     *
+     * @param period the bucket size
+     * @param from the start of the range; the first bucket is the one containing it
+     * @param to the end of the range, exclusive
+     * @return one point per bucket, in time order
+     * @throws IllegalArgumentException if the range is empty or has more than {@value #MAX_POINTS} buckets
+     */
+    public List<RevenuePointResponse> getRevenue(RevenuePeriod period, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        LocalDateTime start = period.truncate(from);
+        List<LocalDateTime> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = period.next(bucket)) {
+            if (buckets.size() == MAX_POINTS) {
+                throw new IllegalArgumentException("Range has more than " + MAX_POINTS + " buckets, use a larger period");
+            }
+            buckets.add(bucket);
+        }
+
+        Iterator<RevenueRollup> rows = revenueRollupRepository
+                .findByPeriodAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(period, start, to)
+                .iterator();
+        RevenueRollup row = rows.hasNext() ? rows.next() : null;
+        List<RevenuePointResponse> points = new ArrayList<>(buckets.size());
+        for (LocalDateTime bucket : buckets) {
+            if (row != null && row.getBucketStart().equals(bucket)) {
+                points.add(new RevenuePointResponse(bucket, row.getAmount(), row.getOrderCount()));
+                row = rows.hasNext() ? rows.next() : null;
+            } else {
+                points.add(new RevenuePointResponse(bucket, BigDecimal.ZERO, 0));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Books the orders delivered before the ledger existed, once across all nodes, without blocking startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        CompletableFuture.runAsync(() -> dataMigrationService.runOnce(BACKFILL_MIGRATION, this::bookMissingEntries))
+                .exceptionally(e -> {
+                    log.error("Failed to backfill revenue ledger", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Books, for every order, the amount it is missing from the ledger, at the order's creation time
+     * since its delivery time is unknown, and adds those entries to the rollups.
+     * Orders booked live since the ledger was introduced already balance and are left alone, as are
+     * their rollups, so the backfill is correct whenever it runs.
+     */
+    void bookMissingEntries() {
+        Map<RevenueRollup.Key, RevenueRollup> rollups = new LinkedHashMap<>();
+        int booked = 0;
+        int lastId = 0;
+        List<RevenueBalanceView> batch;
+        do {
+            batch = revenueRepository.findLedgerBalances(lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            List<Revenue> entries = new ArrayList<>();
+            for (RevenueBalanceView balance : batch) {
+                lastId = balance.getOrderId();
+                if (balance.getAmount().signum() == 0) {
+                    continue;
+                }
+                entries.add(new Revenue(null, orderRepository.getReferenceById(balance.getOrderId()),
+                        balance.getAmount(), balance.getCreatedAt()));
+                addToRollups(rollups, balance.getCreatedAt().toLocalDateTime(), balance.getAmount());
+            }
+            revenueRepository.saveAll(entries);
+            booked += entries.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        if (!rollups.isEmpty()) {
+            revenueRollupRepository.add(new ArrayList<>(rollups.values()));
+        }
+        log.info("Revenue ledger backfilled with {} entries", booked);
+    }
+
+    private static void addToRollups(Map<RevenueRollup.Key, RevenueRollup> rollups, LocalDateTime time, BigDecimal amount) {
+        int orders = amount.signum() < 0 ? -1 : 1;
+        for (RevenuePeriod period : RevenuePeriod.values()) {
+            LocalDateTime bucket = period.truncate(time);
+            rollups.merge(new RevenueRollup.Key(period, bucket), new RevenueRollup(period, bucket, amount, orders),
+                    (sum, increment) -> {
+                        sum.setAmount(sum.getAmount().add(increment.getAmount()));
+                        sum.setOrderCount(sum.getOrderCount() + increment.getOrderCount());
+                        return sum;
+                    });
+        }
+    }
+}
@@ -9,43 +9,74 @@ import com.pap_shop.repository.ProductRepository;
 import com.pap_shop.repository.ReviewRepository;
 import com.pap_shop.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing product reviews
  * Handles review creation, updates, deletion, and retrieval
+ * Every change also updates the rating aggregates of the product in the same transaction
  */
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class ReviewService {
 
+    static final String RATINGS_MIGRATION = "product-ratings-backfill";
+
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final EntityCacheService entityCacheService;
+    private final DataMigrationService dataMigrationService;
+
+    /**
+     * Brings the rating aggregates in line with the reviews written before they existed,
+     * once across all nodes and without blocking application startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatings() {
+        CompletableFuture.runAsync(() -> {
+            if (dataMigrationService.runOnce(RATINGS_MIGRATION, this::reconcileRatings)) {
+                entityCacheService.evictAllProducts();
+            }
+        }).exceptionally(e -> {
+            log.error("Failed to backfill product ratings", e);
+            return null;
+        });
+    }
+
+    void reconcileRatings() {
+        int corrected = productRepository.reconcileRatings();
+        log.info("Rating aggregates corrected for {} products", corrected);
+    }
 
     /**
      * Add a new review for a product
      * Validates that user hasn't already reviewed the product
      * 
      * @param productId Product ID to review
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @param request Review details including rating and comment
      * @return Created review response
      * @throws RuntimeException if user not found, product not found, or user already reviewed
      */
     @Transactional
-    public ReviewResponse addReview(Integer productId, String username, ReviewRequest request) {
-        User user = userRepository.findByUsername(username)
+    public ReviewResponse addReview(Integer productId, Integer userId, ReviewRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
-        if (reviewRepository.findByProductIdAndUserId(productId, user.getId()).isPresent()) {
+        if (reviewRepository.findByProductIdAndUserId(productId, userId).isPresent()) {
             throw new RuntimeException("You have already reviewed this product");
         }
         
@@ -56,6 +87,7 @@ public class ReviewService {
         review.setComment(request.getComment());
         
         Review saved = reviewRepository.save(review);
+        changeRatings(productId, null, request.getRating());
         return mapToResponse(saved);
     }
 
@@ -64,24 +96,28 @@ public class ReviewService {
      * Only the review owner can update their review
      * 
      * @param reviewId Review ID to update
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @param request Updated review details
      * @return Updated review response
      * @throws RuntimeException if review not found or unauthorized access
      */
     @Transactional
-    public ReviewResponse updateReview(Integer reviewId, String username, ReviewRequest request) {
+    public ReviewResponse updateReview(Integer reviewId, Integer userId, ReviewRequest request) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
         
-        if (!review.getUser().getUsername().equals(username)) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized to update this review");
         }
         
+        Integer previousRating = review.getRating();
         review.setRating(request.getRating());
         review.setComment(request.getComment());
         
         Review updated = reviewRepository.save(review);
+        if (!previousRating.equals(request.getRating())) {
+            changeRatings(review.getProduct().getId(), previousRating, request.getRating());
+        }
         return mapToResponse(updated);
     }
 
@@ -90,19 +126,20 @@ public class ReviewService {
      * Only the review owner can delete their review
      * 
      * @param reviewId Review ID to delete
-     * @param username User's username
+     * @param userId ID of the authenticated user
      * @throws RuntimeException if review not found or unauthorized access
      */
     @Transactional
-    public void deleteReview(Integer reviewId, String username) {
+    public void deleteReview(Integer reviewId, Integer userId) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
         
-        if (!review.getUser().getUsername().equals(username)) {
+        if (!review.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized to delete this review");
         }
         
         reviewRepository.delete(review);
+        changeRatings(review.getProduct().getId(), review.getRating(), null);
     }
 
     /**
@@ -117,6 +154,25 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Moves one review of a product between ratings in its rating aggregates
+     * 
+     * @param productId Product ID
+     * @param removedRating Rating taken out of the aggregates (1 to 5), or null for a new review
+     * @param addedRating Rating added to the aggregates (1 to 5), or null for a deleted review
+     */
+    private void changeRatings(Integer productId, Integer removedRating, Integer addedRating) {
+        int[] histogramDelta = new int[5];
+        if (removedRating != null) {
+            histogramDelta[removedRating - 1]--;
+        }
+        if (addedRating != null) {
+            histogramDelta[addedRating - 1]++;
+        }
+        productRepository.addRatings(productId, histogramDelta);
+        entityCacheService.evictProduct(productId);
+    }
+
     /**
      * Map Review entity to ReviewResponse DTO
      * 
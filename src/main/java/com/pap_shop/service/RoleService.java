@@ -18,6 +18,7 @@ import java.util.List;
 public class RoleService {
 
     RoleRepository roleRepository;
+    EntityCacheService entityCacheService;
     UserRepository userRepository;
 
     /**
@@ -27,7 +28,9 @@ public class RoleService {
      * @return The saved role entity, including any database-generated values (e.g., ID).
      */
     public Roles addRole(Roles role){
-        return roleRepository.save(role);
+        Roles savedRole = roleRepository.save(role);
+        entityCacheService.evictRole(savedRole.getRoleId());
+        return savedRole;
     }
 
     /**
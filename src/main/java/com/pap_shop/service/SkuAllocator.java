@@ -0,0 +1,132 @@
+package com.pap_shop.service;
+
+import com.pap_shop.repository.SkuCounterRepository;
+import com.pap_shop.util.DiacriticsUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service handing out unique SKUs of the form prefix + number, e.g. {@code P000042}.
+ * The prefix is the first letter of the category name without diacritics.
+ *
+ * Each prefix has a counter row in the sku_counters table. A node reserves a block of
+ * numbers from the counter in its own short transaction, then hands them out from memory
+ * with an atomic increment, so SKUs never collide across threads or nodes and generating
+ * one costs a query only once per block.
+ */
+@Service
+public class SkuAllocator {
+
+    private static final String DEFAULT_PREFIX = "X";
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final SkuCounterRepository skuCounterRepository;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+
+    /**
+     * Current block of each prefix.
+     */
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes refills of the same prefix; other prefixes are not blocked.
+     */
+    private final Map<String, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public SkuAllocator(SkuCounterRepository skuCounterRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${sku.allocator.block-size:500}") int blockSize) {
+        this.skuCounterRepository = skuCounterRepository;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        // A reserved block stays reserved even if the caller's transaction rolls back
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates the next SKU for a product of the given category.
+     *
+     * @param categoryName the name of the product's category
+     * @return a SKU no other call has returned
+     */
+    public String allocate(String categoryName) {
+        String prefix = prefixOf(categoryName);
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return prefix + String.format("%06d", value);
+                }
+            }
+            synchronized (refillLocks.computeIfAbsent(prefix, key -> new Object())) {
+                // Another thread may have refilled while this one waited
+                if (blocks.get(prefix) == block) {
+                    blocks.put(prefix, reserve(prefix));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the uppercase first letter of the category name without diacritics
+     */
+    static String prefixOf(String categoryName) {
+        if (categoryName == null) {
+            return DEFAULT_PREFIX;
+        }
+        String folded = DiacriticsUtil.removeDiacritics(categoryName);
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                return String.valueOf(Character.toUpperCase(c));
+            }
+        }
+        return DEFAULT_PREFIX;
+    }
+
+    /**
+     * Reserves the next block of numbers of a prefix, creating its counter on first use.
+     */
+    private Block reserve(String prefix) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long end = reserveTransaction.execute(status -> {
+                    if (skuCounterRepository.advance(prefix, blockSize) == 0) {
+                        skuCounterRepository.create(prefix, 1L + blockSize);
+                        return 1L + blockSize;
+                    }
+                    return skuCounterRepository.findNextValue(prefix).orElseThrow();
+                });
+                return new Block(end - blockSize, end);
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the counter first, the next attempt advances it
+                if (attempt == MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Numbers [next, end) of a prefix reserved by this node.
+     */
+    private static class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.InvalidatedToken;
+import com.pap_shop.repository.InvalidatedTokenRepository;
+import com.pap_shop.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that answers "has this token been logged out?" without touching the database
+ * on the common path.
+ * Revoked JWT IDs are kept in memory until the token would have expired anyway, and a
+ * Bloom filter in front of the map rejects unknown IDs with no allocation and no I/O.
+ * Only a Bloom filter positive that the map cannot confirm falls back to the database.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final int MIN_FILTER_CAPACITY = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter = new BloomFilter(MIN_FILTER_CAPACITY, FALSE_POSITIVE_RATE);
+    private volatile int filterCapacity = MIN_FILTER_CAPACITY;
+
+    private final Counter filteredChecks;
+    private final Counter cacheHits;
+    private final Counter databaseFallbacks;
+
+    public TokenRevocationService(InvalidatedTokenRepository invalidatedTokenRepository, MeterRegistry meterRegistry) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.filteredChecks = Counter.builder("jwt.revocation.checks")
+                .tag("outcome", "filtered")
+                .description("Revocation checks answered by the Bloom filter")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("jwt.revocation.checks")
+                .tag("outcome", "cache")
+                .description("Revocation checks answered by the in-memory cache")
+                .register(meterRegistry);
+        this.databaseFallbacks = Counter.builder("jwt.revocation.checks")
+                .tag("outcome", "database")
+                .description("Revocation checks that fell back to the database")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.cache.size", revokedTokens, Map::size)
+                .description("Number of revoked tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads all revoked tokens that have not expired yet from the database.
+     * Runs at startup and periodically, so logouts handled by other nodes are picked up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<InvalidatedToken> tokens = invalidatedTokenRepository.findByExpiryTimeAfter(Instant.now());
+        for (InvalidatedToken token : tokens) {
+            remember(token.getJti(), token.getExpiryTime());
+        }
+        log.debug("Loaded {} revoked tokens into memory", tokens.size());
+    }
+
+    /**
+     * Checks whether a token has been logged out.
+     *
+     * @param jti the JWT ID of the token
+     * @return true if the token has been revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            filteredChecks.increment();
+            return false;
+        }
+
+        Instant expiryTime = revokedTokens.get(jti);
+        if (expiryTime != null) {
+            cacheHits.increment();
+            return true;
+        }
+
+        databaseFallbacks.increment();
+        return invalidatedTokenRepository.existsByJti(jti);
+    }
+
+    /**
+     * Revokes a token, persisting it so other nodes and restarts see the logout.
+     *
+     * @param jti        the JWT ID of the token
+     * @param expiryTime when the token expires; it can be forgotten after that
+     */
+    public void revoke(String jti, Instant expiryTime) {
+        if (!revokedTokens.containsKey(jti) && !invalidatedTokenRepository.existsByJti(jti)) {
+            invalidatedTokenRepository.save(new InvalidatedToken(jti, expiryTime));
+        }
+        remember(jti, expiryTime);
+    }
+
+    /**
+     * Drops tokens that have expired and rebuilds the Bloom filter from what is left,
+     * resizing it when the number of revoked tokens outgrows its capacity.
+     */
+    public synchronized void prune() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiryTime -> expiryTime.isBefore(now));
+
+        int capacity = Math.max(MIN_FILTER_CAPACITY, revokedTokens.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        filterCapacity = capacity;
+    }
+
+    private synchronized void remember(String jti, Instant expiryTime) {
+        bloomFilter.put(jti);
+        revokedTokens.put(jti, expiryTime != null ? expiryTime : Instant.MAX);
+        if (revokedTokens.size() > filterCapacity) {
+            prune();
+        }
+    }
+}
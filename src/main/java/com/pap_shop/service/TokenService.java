@@ -0,0 +1,171 @@
+package com.pap_shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pap_shop.entity.User;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that issues the HS256 access tokens returned at login and validates them on every request.
+ * The signing key is derived once at startup. Issuing uses pooled HMAC instances, so it only costs the
+ * JSON encoding and one MAC computation; validation goes through a {@link NimbusJwtDecoder} built once
+ * with the same key.
+ * Each token records its approximate allocation in the {@code jwt.token.allocated} summary.
+ */
+@Service
+public class TokenService {
+
+    public static final String SCOPE_CLAIM = "scope";
+    public static final String USER_ID_CLAIM = "uid";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final long TOKEN_LIFETIME_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Header of every issued token, already encoded.
+     */
+    private static final String ENCODED_HEADER =
+            ENCODER.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKey signingKey;
+    private final BlockingQueue<Mac> macPool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JwtDecoder decoder;
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final DistributionSummary issueAllocation;
+    private final DistributionSummary decodeAllocation;
+
+    public TokenService(@Value("${jwt.secretkey}") String secretKey, MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        // Fail at startup rather than on the first login if the key cannot be used
+        macPool.offer(newMac());
+        this.decoder = NimbusJwtDecoder.withSecretKey(signingKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        this.threadMXBean = threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()
+                ? (com.sun.management.ThreadMXBean) threads
+                : null;
+        this.issueAllocation = DistributionSummary.builder("jwt.token.allocated")
+                .tag("operation", "issue")
+                .baseUnit("bytes")
+                .description("Bytes allocated to issue one access token")
+                .register(meterRegistry);
+        this.decodeAllocation = DistributionSummary.builder("jwt.token.allocated")
+                .tag("operation", "decode")
+                .baseUnit("bytes")
+                .description("Bytes allocated to validate one access token")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Issues an access token for a user, valid for one day.
+     * The token carries the username as subject, a random JWT ID used for logout,
+     * the user's ID in the {@code uid} claim and the user's role in the {@code scope} claim.
+     *
+     * @param user the authenticated user
+     * @return the signed compact token
+     */
+    public String issue(User user) {
+        long allocatedBefore = allocatedBytes();
+
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(JwtClaimNames.SUB, user.getUsername());
+        claims.put(JwtClaimNames.JTI, UUID.randomUUID().toString());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(SCOPE_CLAIM, user.getRole().getRole());
+        claims.put(JwtClaimNames.IAT, now);
+        claims.put(JwtClaimNames.EXP, now + TOKEN_LIFETIME_SECONDS);
+
+        String signingInput;
+        try {
+            signingInput = ENCODED_HEADER + '.' + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize token claims", e);
+        }
+        String token = signingInput + '.' + ENCODER.encodeToString(sign(signingInput));
+
+        recordAllocation(issueAllocation, allocatedBefore);
+        return token;
+    }
+
+    /**
+     * Verifies the signature of a token and validates its timestamps.
+     * Used as the JWT decoder of the resource server and at logout.
+     *
+     * @param token the compact token
+     * @return the decoded token
+     * @throws BadJwtException if the token is malformed or not signed with our key
+     * @throws JwtValidationException if the token is expired or not yet valid
+     */
+    public Jwt decode(String token) throws JwtException {
+        long allocatedBefore = allocatedBytes();
+        Jwt jwt = decoder.decode(token);
+        recordAllocation(decodeAllocation, allocatedBefore);
+        return jwt;
+    }
+
+    private byte[] sign(String signingInput) {
+        Mac mac = macPool.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            macPool.offer(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private void recordAllocation(DistributionSummary summary, long allocatedBefore) {
+        if (allocatedBefore >= 0) {
+            summary.record(allocatedBytes() - allocatedBefore);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.pap_shop.service;
+
+import com.pap_shop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the user ID of access tokens issued before tokens carried it in the {@code uid} claim.
+ * User IDs never change, so cached entries stay valid; the cache is cleared if it grows past its
+ * bound and is no longer used once the last of those tokens has expired.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserIdentityCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final UserRepository userRepository;
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+
+    /**
+     * Finds the ID of a user by username, querying the database only on the first call.
+     *
+     * @param username the token subject
+     * @return the user ID, or empty if no user has this username
+     */
+    public Optional<Integer> findUserId(String username) {
+        Integer userId = userIds.get(username);
+        if (userId != null) {
+            return Optional.of(userId);
+        }
+        Optional<Integer> found = userRepository.findIdByUsername(username);
+        found.ifPresent(id -> {
+            if (userIds.size() >= MAX_ENTRIES) {
+                userIds.clear();
+            }
+            userIds.put(username, id);
+        });
+        return found;
+    }
+}
@@ -1,23 +1,28 @@
 package com.pap_shop.service;
 
-import com.pap_shop.entity.InvalidatedToken;
+import com.pap_shop.dto.CursorPageResponse;
 import com.pap_shop.entity.PasswordResetToken;
 import com.pap_shop.entity.Roles;
 import com.pap_shop.entity.User;
+import com.pap_shop.event.UserCreatedEvent;
+import com.pap_shop.event.UserDeletedEvent;
 import com.pap_shop.exception.AuthenticationException;
 import com.pap_shop.exception.DuplicateResourceException;
 import com.pap_shop.exception.ResourceNotFoundException;
 import com.pap_shop.repository.PasswordResetTokenRepository;
-import com.pap_shop.repository.InvalidatedTokenRepository;
 import com.pap_shop.repository.RoleRepository;
 import com.pap_shop.repository.UserRepository;
-import com.pap_shop.util.JwtUtil;
+import com.pap_shop.util.CursorCodec;
+import com.pap_shop.util.AuthenticatedUser;
+import com.pap_shop.util.CursorPages;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -36,17 +41,19 @@ public class UserService {
 
     UserRepository userRepository;
     RoleRepository roleRepository;
-    BCryptPasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashingService;
     EmailService emailService;
     PasswordResetTokenRepository passwordResetTokenRepository;
-    InvalidatedTokenRepository invalidatedTokenRepo;
-    JwtDecoder jwtDecoder;
+    TokenRevocationService tokenRevocationService;
+    TokenService tokenService;
+    ApplicationEventPublisher eventPublisher;
 
 
     /**
      *Register a new customer by encoding their password before saving to database.
      *
      * @param user the customer to be registered
+     * @throws DuplicateResourceException if email, phone or username already exists
      */
     public void register(User user) {
 
@@ -57,36 +64,29 @@ public class UserService {
         if (user.getEmail() == null || !user.getEmail().matches("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$")) {
             throw new IllegalArgumentException("Invalid email format");
         }
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new DuplicateResourceException("Email already in use");
-        }
 
         if (user.getPhone() == null || !user.getPhone().matches("^\\d{9,15}$")) {
             throw new IllegalArgumentException("Invalid phone number");
         }
-        if (userRepository.findByPhone(user.getPhone()).isPresent()) {
-            throw new DuplicateResourceException("Phone already in use");
-        }
 
         if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
             throw new IllegalArgumentException("Username is required");
         }
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new DuplicateResourceException("Username already in use");
-        }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        checkUnique(user);
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
 
         Roles role = roleRepository.findById(2)
                 .orElseThrow(() -> new RuntimeException("Role not found"));
 
         user.setRole(role);
-        userRepository.save(user);
+        insert(user);
     }
 
 
     /**
      * Logs in a user by checking their email or phone and matching the password.
-     * If successful, a JWT token is generated.
+     * If successful, a JWT token is generated. A password hashed with an outdated cost
+     * is rehashed in the background.
      *
      * @param emailOrPhoneOrUsername the email or phone number for login
      * @param rawPassword the raw password entered by the user
@@ -106,7 +106,7 @@ public class UserService {
 
         User user = optionalUser.orElseThrow(() -> new AuthenticationException("Username/Email/Phone number not found"));
 
-        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(rawPassword, user.getPassword())) {
             throw new AuthenticationException("Invalid credentials");
         }
 
@@ -114,7 +114,14 @@ public class UserService {
             throw new AuthenticationException("Account has been locked");
         }
 
-        return JwtUtil.generateToken(user);
+        String storedHash = user.getPassword();
+        if (passwordHashingService.upgradeEncoding(storedHash)) {
+            Integer userId = user.getId();
+            passwordHashingService.rehashInBackground(rawPassword,
+                    newHash -> userRepository.updatePassword(userId, storedHash, newHash));
+        }
+
+        return tokenService.issue(user);
     }
 
     /**
@@ -122,19 +129,14 @@ public class UserService {
      *
      * @param user the user to add
      * @return the created user
-     * @throws DuplicateResourceException if email or username already exists
+     * @throws DuplicateResourceException if email, phone or username already exists
      */
     public User addUser(User user){
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new DuplicateResourceException("Email already in use");
-        }
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new DuplicateResourceException("Username already in use");
-        }
-        
-        user.setPassword(passwordEncoder.encode("123456")); // Default password
+        checkUnique(user);
+
+        user.setPassword(passwordHashingService.encode("123456")); // Default password
         user.setStatus("active");
-        return userRepository.save(user);
+        return insert(user);
     }
 
     /**
@@ -146,12 +148,7 @@ public class UserService {
      */
     public User updateUser(User updatedUser) {
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-
-        User existingUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User existingUser = getCurrentUser();
 
         existingUser.setUpdateAt(LocalDateTime.now());
 
@@ -185,15 +182,12 @@ public class UserService {
         }
 
         String token = authHeader.substring(7);
-        Jwt jwt = jwtDecoder.decode(token);
+        Jwt jwt = tokenService.decode(token);
 
         String jti = jwt.getId();
         Instant exp = jwt.getExpiresAt();
 
-        if (!invalidatedTokenRepo.existsByJti(jti)) {
-            InvalidatedToken invalidatedToken = new InvalidatedToken(jti, exp);
-            invalidatedTokenRepo.save(invalidatedToken);
-        }
+        tokenRevocationService.revoke(jti, exp);
     }
     /**
      * Get user by ID.
@@ -206,12 +200,30 @@ public class UserService {
     }
 
     /**
-     * Get all users.
+     * Get the first page of users, newest first.
+     * Kept for clients that expect a plain list.
      *
-     * @return list of all users
+     * @return list of the most recently registered users
      */
     public List<User> getAllUsers(){
-        return userRepository.findAll();
+        return getAllUsers(null, null).getItems();
+    }
+
+    /**
+     * Get a page of users, newest first.
+     * Uses keyset pagination on the primary key.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of users to return, or null for the default
+     * @return the page of users with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageResponse<User> getAllUsers(String cursor, Integer size) {
+        Pageable limit = CursorPages.limit(size);
+        Slice<User> users = CursorPages.isFirstPage(cursor)
+                ? userRepository.findAllByOrderByIdDesc(limit)
+                : userRepository.findByIdLessThanOrderByIdDesc(CursorPages.decodeId(cursor), limit);
+        return CursorPages.toResponse(users, user -> CursorCodec.encode(user.getId()));
     }
 
     /**
@@ -226,10 +238,15 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
+    /**
+     * Get the authenticated user, by the user ID resolved from the access token.
+     *
+     * @return the authenticated user
+     * @throws ResourceNotFoundException if user is not found
+     */
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
+        return userRepository.findById(AuthenticatedUser.from(authentication).getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
@@ -244,13 +261,9 @@ public class UserService {
      * @throws IllegalArgumentException if passwords don't match or new password is too short
      */
     public void changePassword(String oldPassword, String newPassword, String confirmNewPassword) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
+        User user = getCurrentUser();
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPassword())) {
             throw new AuthenticationException("Old password is incorrect");
         }
 
@@ -262,7 +275,7 @@ public class UserService {
             throw new IllegalArgumentException("New password must be at least 6 characters");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setUpdateAt(LocalDateTime.now());
         userRepository.save(user);
     }
@@ -286,6 +299,7 @@ public class UserService {
 
     /**
      * Initiates password reset process by sending reset code via email.
+     * Returns once the email is queued; it is delivered in the background.
      *
      * @param email the email address to send reset code to
      * @throws RuntimeException if email is not found
@@ -348,7 +362,7 @@ public class UserService {
         User user = userRepository.findByEmail(resetToken.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setUpdateAt(LocalDateTime.now());
         userRepository.save(user);
 
@@ -362,19 +376,14 @@ public class UserService {
      *
      * @param user the user to create
      * @return the created user
-     * @throws DuplicateResourceException if email or username already exists
+     * @throws DuplicateResourceException if email, phone or username already exists
      */
     public User createUser(User user) {
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new DuplicateResourceException("Email already in use");
-        }
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new DuplicateResourceException("Username already in use");
-        }
-        
-        user.setPassword(passwordEncoder.encode("123456")); // Default password
+        checkUnique(user);
+
+        user.setPassword(passwordHashingService.encode("123456")); // Default password
         user.setStatus("active");
-        return userRepository.save(user);
+        return insert(user);
     }
 
     /**
@@ -443,5 +452,48 @@ public class UserService {
         }
         
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
+    }
+
+    /**
+     * Rejects a new user whose email, phone or username is already taken, with a single query.
+     *
+     * @param user the new user
+     * @throws DuplicateResourceException naming every taken field
+     */
+    private void checkUnique(User user) {
+        List<String> conflicts = userRepository.findConflictingFields(user.getEmail(), user.getPhone(), user.getUsername());
+        if (!conflicts.isEmpty()) {
+            throw new DuplicateResourceException(alreadyInUse(conflicts));
+        }
+    }
+
+    /**
+     * Inserts a new user. A concurrent registration with the same keys passes
+     * {@link #checkUnique(User)} too, so the unique indexes decide and the losing insert
+     * is reported as a duplicate like the check would have.
+     *
+     * @param user the new user
+     * @return the saved user
+     * @throws DuplicateResourceException naming every taken field
+     */
+    private User insert(User user) {
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            List<String> conflicts = userRepository.findConflictingFields(user.getEmail(), user.getPhone(), user.getUsername());
+            if (conflicts.isEmpty()) {
+                throw e;
+            }
+            throw new DuplicateResourceException(alreadyInUse(conflicts), e);
+        }
+        eventPublisher.publishEvent(new UserCreatedEvent(savedUser.getId()));
+        return savedUser;
+    }
+
+    private static String alreadyInUse(List<String> fields) {
+        String names = String.join(", ", fields);
+        return Character.toUpperCase(names.charAt(0)) + names.substring(1) + " already in use";
     }
 }
@@ -0,0 +1,40 @@
+package com.pap_shop.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * The user behind an authenticated request, resolved once from the access token by
+ * {@link CustomJwtAuthenticationConverter}.
+ * Controllers pass its ID to the services, which then need no lookup by username.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal, Serializable {
+
+    private final Integer id;
+    private final String username;
+    private final String role;
+
+    /**
+     * Returns the username, so {@link Authentication#getName()} keeps returning the token subject.
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * Returns the user of an authentication created by {@link CustomJwtAuthenticationConverter}.
+     *
+     * @param authentication the current authentication
+     * @return the authenticated user
+     */
+    public static AuthenticatedUser from(Authentication authentication) {
+        return (AuthenticatedUser) authentication.getPrincipal();
+    }
+}
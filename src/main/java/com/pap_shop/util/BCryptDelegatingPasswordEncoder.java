@@ -0,0 +1,105 @@
+package com.pap_shop.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delegating password encoder that stores BCrypt hashes with the {@code {bcrypt}} prefix at a
+ * configurable cost, and still matches the unprefixed hashes stored before it.
+ * {@link #upgradeEncoding(String)} reports hashes made with a lower cost than the current one,
+ * so raising the cost strengthens hashes as users log in, and nodes that briefly disagree on the
+ * cost during a rollout never rehash each other's hashes back and forth.
+ */
+public class BCryptDelegatingPasswordEncoder extends DelegatingPasswordEncoder {
+
+    public static final String BCRYPT_ID = "bcrypt";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^(?:\\{bcrypt})?\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int strength;
+
+    public BCryptDelegatingPasswordEncoder(int strength) {
+        this(strength, new BCryptPasswordEncoder(strength));
+    }
+
+    private BCryptDelegatingPasswordEncoder(int strength, BCryptPasswordEncoder bcrypt) {
+        super(BCRYPT_ID, Collections.singletonMap(BCRYPT_ID, bcrypt));
+        // Hashes stored before the {bcrypt} prefix was introduced
+        setDefaultPasswordEncoderForMatches(bcrypt);
+        this.strength = strength;
+    }
+
+    /**
+     * Returns the BCrypt cost of new hashes.
+     *
+     * @return the cost (log2 of the number of rounds)
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Checks whether a stored hash should be replaced: it has no prefix, is not BCrypt,
+     * or was made with a lower cost. Stronger hashes are kept.
+     *
+     * @param prefixEncodedPassword the stored hash
+     * @return true if the password should be rehashed
+     */
+    @Override
+    public boolean upgradeEncoding(String prefixEncodedPassword) {
+        return prefixEncodedPassword == null
+                || !prefixEncodedPassword.startsWith("{" + BCRYPT_ID + "}")
+                || costOf(prefixEncodedPassword) < strength;
+    }
+
+    /**
+     * Reads the BCrypt cost of a stored hash, with or without the {@code {bcrypt}} prefix.
+     *
+     * @param encodedPassword the stored hash
+     * @return the cost, or -1 if the hash is not BCrypt
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Finds the highest BCrypt cost whose hash time on this machine fits the latency budget,
+     * within the given bounds. Each step doubles the work, so measuring starts at the minimum
+     * and stops as soon as the next cost would exceed the budget.
+     * The result depends on the machine and its load, so it is a recommendation for the
+     * configured cost rather than a cost to hash with.
+     *
+     * @param latencyBudget the time one hash may take
+     * @param minStrength the lowest cost to use, even if it exceeds the budget
+     * @param maxStrength the highest cost to use
+     * @return the calibrated cost
+     */
+    public static int calibrate(Duration latencyBudget, int minStrength, int maxStrength) {
+        long budget = latencyBudget.toNanos();
+        int strength = minStrength;
+        // The first hash includes class loading and interpretation, so take the faster of two
+        long elapsed = Math.min(time(strength), time(strength));
+        while (strength < maxStrength && elapsed * 2 <= budget) {
+            strength++;
+            elapsed = time(strength);
+        }
+        return strength;
+    }
+
+    private static long time(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
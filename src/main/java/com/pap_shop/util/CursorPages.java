@@ -0,0 +1,93 @@
+package com.pap_shop.util;
+
+import com.pap_shop.dto.CursorPageResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the keyset-paginated list endpoints.
+ * Repository methods take {@link #limit(Integer)} and return a {@link Slice}, which reads
+ * one extra row to know whether another page exists; the last row of the slice becomes
+ * the cursor of the next page.
+ */
+public class CursorPages {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * @param size the requested page size, or null for the default
+     * @return the page size clamped to [1, MAX_SIZE]
+     */
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * @param size the requested page size, or null for the default
+     * @return a first-page request of the clamped size; keyset queries never skip rows
+     */
+    public static Pageable limit(Integer size) {
+        return PageRequest.of(0, clampSize(size));
+    }
+
+    /**
+     * @param cursor the cursor passed by the client
+     * @return true if the first page is requested
+     */
+    public static boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isEmpty();
+    }
+
+    /**
+     * Converts a slice to a page response.
+     *
+     * @param slice    the rows read by the repository
+     * @param cursorOf builds the cursor from the last row
+     * @return the page with the cursor of the next page, if any
+     */
+    public static <T> CursorPageResponse<T> toResponse(Slice<T> slice, Function<T, String> cursorOf) {
+        return toResponse(slice, Function.identity(), cursorOf);
+    }
+
+    /**
+     * Converts a slice to a page response, mapping every row.
+     *
+     * @param slice    the rows read by the repository
+     * @param mapper   converts a row to the response item
+     * @param cursorOf builds the cursor from the last row
+     * @return the page with the cursor of the next page, if any
+     */
+    public static <T, R> CursorPageResponse<R> toResponse(Slice<T> slice, Function<T, R> mapper, Function<T, String> cursorOf) {
+        List<T> rows = slice.getContent();
+        List<R> items = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            items.add(mapper.apply(row));
+        }
+        String nextCursor = slice.hasNext() && !rows.isEmpty() ? cursorOf.apply(rows.get(rows.size() - 1)) : null;
+        return new CursorPageResponse<>(items, nextCursor, slice.hasNext());
+    }
+
+    /**
+     * Parses the single ID held by an ID-ordered cursor.
+     *
+     * @param cursor the cursor passed by the client
+     * @return the ID of the last row of the previous page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Integer decodeId(String cursor) {
+        try {
+            return Integer.valueOf(CursorCodec.decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.pap_shop.util;
-import com.pap_shop.repository.InvalidatedTokenRepository;
+import com.pap_shop.service.TokenRevocationService;
+import com.pap_shop.service.TokenService;
+import com.pap_shop.service.UserIdentityCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -7,7 +9,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
@@ -16,22 +17,38 @@ import java.util.Collection;
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
     @Autowired
-    private InvalidatedTokenRepository invalidatedTokenRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
 
     @Override
     public AbstractAuthenticationToken convert(Jwt jwt) {
 
-        if (invalidatedTokenRepository.existsByJti(jwt.getId())) {
+        if (tokenRevocationService.isRevoked(jwt.getId())) {
             throw new JwtException("Token has been logged out");
         }
 
 
         Collection<GrantedAuthority> authorities = AuthorityUtils.NO_AUTHORITIES;
-        if (jwt.containsClaim("scope")) {
-            String scope = jwt.getClaimAsString("scope");
+        String scope = jwt.getClaimAsString(TokenService.SCOPE_CLAIM);
+        if (scope != null) {
             authorities = AuthorityUtils.commaSeparatedStringToAuthorityList("SCOPE_" + scope);
         }
 
-        return new JwtAuthenticationToken(jwt, authorities);
+        AuthenticatedUser user = new AuthenticatedUser(userId(jwt), jwt.getSubject(), scope);
+        return new UserAuthenticationToken(jwt, user, authorities);
+    }
+
+    /**
+     * Reads the user ID claim, or looks the user up by username for tokens issued without it.
+     */
+    private Integer userId(Jwt jwt) {
+        Object userId = jwt.getClaims().get(TokenService.USER_ID_CLAIM);
+        if (userId instanceof Number) {
+            return ((Number) userId).intValue();
+        }
+        return userIdentityCache.findUserId(jwt.getSubject())
+                .orElseThrow(() -> new JwtException("User not found"));
     }
-}
\ No newline at end of file
+}
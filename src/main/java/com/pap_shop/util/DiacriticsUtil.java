@@ -0,0 +1,96 @@
+package com.pap_shop.util;
+
+import java.text.Normalizer;
+
+/**
+ * Utility for folding Vietnamese characters with diacritics to their plain Latin letters.
+ * Used for SKU prefixes and for matching search input typed without diacritics.
+ *
+ * Folding is a single pass over the input through a lookup table built once from the
+ * Unicode decompositions of the Latin blocks, so both precomposed letters (e.g. "ệ")
+ * and base letters followed by combining marks (e.g. "e" + U+0323 + U+0302) fold to the base letter.
+ */
+public class DiacriticsUtil {
+
+    /**
+     * First character covered by the lookup table (Latin-1 Supplement letters).
+     */
+    private static final char FIRST = '\u00C0';
+
+    /**
+     * Last character covered by the lookup table (end of Latin Extended Additional).
+     */
+    private static final char LAST = '\u1EFF';
+
+    /**
+     * Combining Diacritical Marks block, removed from the output.
+     */
+    private static final char FIRST_COMBINING = '\u0300';
+    private static final char LAST_COMBINING = '\u036F';
+
+    /**
+     * Folded letter of each character in [FIRST, LAST], or 0 if the character is kept as is.
+     */
+    private static final char[] FOLDED = new char[LAST - FIRST + 1];
+
+    static {
+        for (char c = FIRST; c <= LAST; c++) {
+            if (c >= FIRST_COMBINING && c <= LAST_COMBINING) {
+                continue;
+            }
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char base = decomposed.charAt(0);
+            if (decomposed.length() > 1 && base < 0x80 && Character.isLetter(base)) {
+                FOLDED[c - FIRST] = base;
+            }
+        }
+        // Đ and đ are separate letters in Unicode and have no decomposition
+        FOLDED['\u0110' - FIRST] = 'D';
+        FOLDED['\u0111' - FIRST] = 'd';
+    }
+
+    /**
+     * Replaces Vietnamese characters with diacritics by their base letter, keeping the case,
+     * and drops combining diacritical marks.
+     *
+     * @param input the text to fold
+     * @return the folded text, or the input itself if it has nothing to fold
+     */
+    public static String removeDiacritics(String input) {
+        int length = input.length();
+        int first = 0;
+        while (first < length && !needsFolding(input.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return input;
+        }
+
+        char[] output = new char[length];
+        input.getChars(0, first, output, 0);
+        int size = first;
+        for (int i = first; i < length; i++) {
+            char c = input.charAt(i);
+            if (c < FIRST) {
+                output[size++] = c;
+            } else if (c <= LAST_COMBINING && c >= FIRST_COMBINING) {
+                // Dropped
+            } else if (c <= LAST && FOLDED[c - FIRST] != 0) {
+                output[size++] = FOLDED[c - FIRST];
+            } else {
+                output[size++] = c;
+            }
+        }
+        return new String(output, 0, size);
+    }
+
+    private static boolean needsFolding(char c) {
+        if (c < FIRST) {
+            return false;
+        }
+        if (c >= FIRST_COMBINING && c <= LAST_COMBINING) {
+            return true;
+        }
+        return c <= LAST && FOLDED[c - FIRST] != 0;
+    }
+}
@@ -1,28 +1,83 @@
 package com.pap_shop.util;
 
 import com.pap_shop.entity.Product;
+import com.pap_shop.repository.projection.ProductExportView;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ProductExcelExporter {
 
+    private static final String[] COLUMNS = {"ID", "Name", "Category", "Description", "Price", "Stock", "Created At"};
+
+    /**
+     * Column widths in characters, used instead of auto-sizing, which would have to keep
+     * every row in memory.
+     */
+    private static final int[] COLUMN_WIDTHS = {10, 40, 25, 60, 15, 10, 20};
+
+    /**
+     * Number of rows SXSSF keeps in memory before flushing them to a temporary file.
+     */
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
     public static ByteArrayInputStream export(List<Product> products) throws IOException {
-        String[] columns = {"ID", "Name", "Category", "Description", "Price", "Stock", "Created At"};
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            write(products.iterator(), product -> new Object[]{
+                    product.getId(),
+                    product.getName(),
+                    product.getCategory() != null ? product.getCategory().getName() : null,
+                    product.getDescription(),
+                    product.getPrice(),
+                    product.getStock(),
+                    product.getCreatedAt()
+            }, out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
+
+    /**
+     * Streams products into an Excel file written directly to the given output stream.
+     * Only a small window of rows is held in memory, so heap usage does not depend on
+     * the number of products.
+     *
+     * @param products the product rows to export
+     * @param out the stream the workbook is written to
+     * @throws IOException if writing fails
+     */
+    public static void export(Stream<ProductExportView> products, OutputStream out) throws IOException {
+        write(products.iterator(), product -> new Object[]{
+                product.getId(),
+                product.getName(),
+                product.getCategoryName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStock(),
+                product.getCreatedAt()
+        }, out);
+    }
+
+    private static <T> void write(Iterator<T> products, RowMapper<T> mapper, OutputStream out) throws IOException {
         String sheetName = "Products";
         String mainTitle = "PRODUCT LIST";
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
-
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet(sheetName);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
 
             // --- Start of Style Creation ---
 
@@ -56,6 +111,10 @@ public class ProductExcelExporter {
 
             // --- End of Style Creation ---
 
+            // Fixed column widths (unit is 1/256 of a character)
+            for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
 
             // --- Start of Row Creation ---
 
@@ -65,67 +124,55 @@ public class ProductExcelExporter {
             titleCell.setCellValue(mainTitle);
             titleCell.setCellStyle(titleStyle);
             // Merge cells for the main title
-            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, columns.length - 1));
+            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, COLUMNS.length - 1));
             titleRow.setHeightInPoints(20); // Increase the title row height
 
             // Row 1: Column Headers
-            // Shifted down to row index 1 (instead of 0)
             Row headerRow = sheet.createRow(1);
-            for (int i = 0; i < columns.length; i++) {
+            for (int i = 0; i < COLUMNS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i].toUpperCase()); // UPPERCASE
+                cell.setCellValue(COLUMNS[i].toUpperCase()); // UPPERCASE
                 cell.setCellStyle(headerStyle);
             }
 
             // Row 2 onwards: Data
-            // Start from rowIdx = 2
             int rowIdx = 2;
-            for (Product product : products) {
+            while (products.hasNext()) {
+                Object[] values = mapper.map(products.next());
                 Row row = sheet.createRow(rowIdx++);
-
-                // Create cells and apply the data style
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(product.getId());
-                cell0.setCellStyle(dataStyle);
-
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(product.getName());
-                cell1.setCellStyle(dataStyle);
-
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(product.getCategory().getName());
-                cell2.setCellStyle(dataStyle);
-
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(product.getDescription());
-                cell3.setCellStyle(dataStyle);
-
-                Cell cell4 = row.createCell(4);
-                cell4.setCellValue(product.getPrice().doubleValue());
-                cell4.setCellStyle(dataStyle);
-
-                Cell cell5 = row.createCell(5);
-                cell5.setCellValue(product.getStock());
-                cell5.setCellStyle(dataStyle);
-
-                Cell cell6 = row.createCell(6);
-                LocalDateTime createdAt = product.getCreatedAt();
-                if (createdAt != null) {
-                    String formattedDate = createdAt.format(formatter);
-                    cell6.setCellValue(formattedDate);
-                } else {
-                    cell6.setCellValue("");
+                for (int i = 0; i < values.length; i++) {
+                    Cell cell = row.createCell(i);
+                    setCellValue(cell, values[i]);
+                    cell.setCellStyle(dataStyle);
                 }
-                cell6.setCellStyle(dataStyle);
-            }
-
-            // Auto-size columns to fit the content
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
             }
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+        } finally {
+            // Delete the temporary files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
         }
     }
-}
\ No newline at end of file
+
+    private static void setCellValue(Cell cell, Object value) {
+        if (value == null) {
+            cell.setCellValue("");
+        } else if (value instanceof BigDecimal) {
+            cell.setCellValue(((BigDecimal) value).doubleValue());
+        } else if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof LocalDateTime) {
+            cell.setCellValue(((LocalDateTime) value).format(FORMATTER));
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    /**
+     * Maps one source row to the cell values of the exported columns, in column order.
+     */
+    private interface RowMapper<T> {
+        Object[] map(T source);
+    }
+}
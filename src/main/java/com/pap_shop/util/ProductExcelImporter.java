@@ -1,163 +1,219 @@
 package com.pap_shop.util;
 
-import com.pap_shop.entity.Category;
-import com.pap_shop.entity.Product;
-import com.pap_shop.entity.StockEntry;
-import com.pap_shop.repository.CategoryRepository;
-import com.pap_shop.repository.ProductRepository;
-import com.pap_shop.repository.StockEntryRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.web.multipart.MultipartFile;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
 
+/**
+ * Streaming reader for product import files.
+ * Parses the first sheet with POI's SAX event API instead of loading the workbook DOM,
+ * and hands rows to the caller in chunks, so memory use depends on the chunk size only.
+ *
+ * Columns: SKU, Name, Category ID, Description, Price, Stock, Purchase Price, Supplier.
+ * The first row is a header and is skipped. Numeric cells are read as their raw value, whatever
+ * their display format, so "$1,234.00" or "10%" cells import as 1234 and 0.1.
+ */
 public class ProductExcelImporter {
-    
-    public static List<Product> importFromExcel(MultipartFile file, CategoryRepository categoryRepository, 
-                                               ProductRepository productRepository, StockEntryRepository stockEntryRepository) throws IOException {
-        List<Product> products = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Skip header row
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                // SKU (Column A)
-                String sku = "";
-                Cell skuCell = row.getCell(0);
-                if (skuCell != null) {
-                    sku = getCellValueAsString(skuCell).trim();
-                }
-                
-                // Name (Column B)
-                String name = "";
-                Cell nameCell = row.getCell(1);
-                if (nameCell != null) {
-                    name = getCellValueAsString(nameCell).trim();
-                }
-                
-                // Category ID (Column C)
-                Category category = null;
-                Cell categoryCell = row.getCell(2);
-                if (categoryCell != null) {
-                    int categoryId = (int) categoryCell.getNumericCellValue();
-                    category = categoryRepository.findById(categoryId)
-                            .orElseThrow(() -> new RuntimeException("Category not found: " + categoryId));
-                }
-                
-                // Generate SKU if empty
-                if (sku.isEmpty() && !name.isEmpty() && category != null) {
-                    sku = generateSku(name, category.getName());
-                }
-                
-                // Check if product with same SKU and name exists
-                Optional<Product> existingProduct = productRepository.findBySku(sku);
-                Product product;
-                
-                if (existingProduct.isPresent() && existingProduct.get().getName().equals(name)) {
-                    // Update existing product stock
-                    product = existingProduct.get();
-                    Cell stockCell = row.getCell(5);
-                    if (stockCell != null) {
-                        int additionalStock = (int) stockCell.getNumericCellValue();
-                        product.setStock(product.getStock() + additionalStock);
-                    }
-                } else {
-                    // Create new product
-                    product = new Product();
-                    product.setSku(sku);
-                    product.setName(name);
-                    product.setCategory(category);
-                    
-                    // Description (Column D)
-                    Cell descCell = row.getCell(3);
-                    if (descCell != null) {
-                        product.setDescription(getCellValueAsString(descCell));
-                    }
-                    
-                    // Price (Column E)
-                    Cell priceCell = row.getCell(4);
-                    if (priceCell != null) {
-                        product.setPrice(BigDecimal.valueOf(priceCell.getNumericCellValue()));
-                    }
-                    
-                    // Stock (Column F)
-                    Cell stockCell = row.getCell(5);
-                    if (stockCell != null) {
-                        product.setStock((int) stockCell.getNumericCellValue());
-                    }
-                }
-                
-                // Save product
-                Product savedProduct = productRepository.save(product);
-                
-                // Purchase Price (Column G) & Supplier (Column H) - Create StockEntry
-                Cell purchasePriceCell = row.getCell(6);
-                Cell supplierCell = row.getCell(7);
-                Cell stockCell = row.getCell(5);
-                
-                if (supplierCell != null && stockCell != null && purchasePriceCell != null) {
-                    StockEntry stockEntry = new StockEntry();
-                    stockEntry.setProduct(savedProduct);
-                    stockEntry.setStock((int) stockCell.getNumericCellValue());
-                    stockEntry.setPurchasePrice(BigDecimal.valueOf(purchasePriceCell.getNumericCellValue()));
-                    stockEntry.setSupplier(getCellValueAsString(supplierCell));
-                    stockEntry.setCreatedAt(new Timestamp(System.currentTimeMillis()));
-                    
-                    stockEntryRepository.save(stockEntry);
-                }
-                
-                products.add(savedProduct);
+
+    private static final int COLUMN_COUNT = 8;
+
+    /**
+     * Reads the import file and passes its rows to the handler in chunks.
+     *
+     * @param in the .xlsx file content
+     * @param chunkSize the maximum number of rows per chunk
+     * @param chunkHandler called for every full chunk and for the last partial chunk
+     * @throws IOException if the file cannot be read or is not a valid workbook
+     */
+    public static void importFromExcel(InputStream in, int chunkSize, Consumer<List<ImportRow>> chunkHandler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(in)) {
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
             }
+
+            RowCollector collector = new RowCollector(chunkSize, chunkHandler);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, sharedStrings, collector, new RawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+            collector.flush();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Invalid Excel file: " + e.getMessage(), e);
         }
-        
-        return products;
     }
-    
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
-        }
+
+    /**
+     * One data row of the import file. Numeric columns are null when the cell is empty
+     * or cannot be read, in which case {@link #getError()} says why.
+     */
+    @Getter
+    @Setter
+    public static class ImportRow {
+        private int rowNumber;
+        private String sku = "";
+        private String name = "";
+        private Integer categoryId;
+        private String description;
+        private BigDecimal price;
+        private Integer stock;
+        private BigDecimal purchasePrice;
+        private String supplier;
+        private String error;
     }
-    
-    private static String generateSku(String productName, String categoryName) {
-        String prefix = removeDiacritics(categoryName).replaceAll("[^a-zA-Z]", "").substring(0, 1).toUpperCase();
-        long number = System.currentTimeMillis() % 100000;
-        return prefix + String.format("%05d", number);
+
+    /**
+     * Formats numeric cells as their raw value instead of applying the cell's number format.
+     */
+    private static class RawNumberFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return NumberToTextConverter.toText(value);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            return NumberToTextConverter.toText(value);
+        }
     }
-    
-    private static String removeDiacritics(String input) {
-        return input.replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
-                   .replaceAll("[èéẹẻẽêềếệểễ]", "e")
-                   .replaceAll("[ìíịỉĩ]", "i")
-                   .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
-                   .replaceAll("[ùúụủũưừứựửữ]", "u")
-                   .replaceAll("[ỳýỵỷỹ]", "y")
-                   .replaceAll("[đ]", "d")
-                   .replaceAll("[ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ]", "A")
-                   .replaceAll("[ÈÉẸẺẼÊỀẾỆỂỄ]", "E")
-                   .replaceAll("[ÌÍỊỈĨ]", "I")
-                   .replaceAll("[ÒÓỌỎÕÔỒỐỘỔỖƠỜỚỢỞỠ]", "O")
-                   .replaceAll("[ÙÚỤỦŨƯỪỨỰỬỮ]", "U")
-                   .replaceAll("[ỲÝỴỶỸ]", "Y")
-                   .replaceAll("[Đ]", "D");
+
+    /**
+     * SAX callback that turns cell events into {@link ImportRow}s and emits them in chunks.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int chunkSize;
+        private final Consumer<List<ImportRow>> chunkHandler;
+        private List<ImportRow> chunk;
+        private String[] values;
+        private int nextColumn;
+
+        private RowCollector(int chunkSize, Consumer<List<ImportRow>> chunkHandler) {
+            this.chunkSize = chunkSize;
+            this.chunkHandler = chunkHandler;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            values = new String[COLUMN_COUNT];
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < COLUMN_COUNT) {
+                values[column] = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // Skip header row
+            if (rowNum == 0 || isBlank()) {
+                return;
+            }
+
+            ImportRow row = new ImportRow();
+            row.setRowNumber(rowNum + 1);
+            row.setSku(text(values[0]));
+            row.setName(text(values[1]));
+            row.setCategoryId(integer(row, "Category ID", values[2]));
+            row.setDescription(values[3]);
+            row.setPrice(decimal(row, "Price", values[4]));
+            row.setStock(integer(row, "Stock", values[5]));
+            row.setPurchasePrice(decimal(row, "Purchase price", values[6]));
+            row.setSupplier(values[7]);
+            chunk.add(row);
+
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                chunkHandler.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        private boolean isBlank() {
+            for (String value : values) {
+                if (value != null && !value.trim().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String text(String value) {
+            return value == null ? "" : value.trim();
+        }
+
+        /**
+         * Parses a numeric column. Numeric cells arrive as raw values; text cells must hold a plain
+         * number with a '.' decimal separator. Anything else is recorded as the row's error.
+         */
+        private static BigDecimal decimal(ImportRow row, String column, String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value.trim());
+            } catch (NumberFormatException e) {
+                reject(row, column + " is not a number: " + value.trim());
+                return null;
+            }
+        }
+
+        private static Integer integer(ImportRow row, String column, String value) {
+            BigDecimal decimal = decimal(row, column, value);
+            if (decimal == null) {
+                return null;
+            }
+            try {
+                return decimal.intValueExact();
+            } catch (ArithmeticException e) {
+                reject(row, column + " must be a whole number: " + value.trim());
+                return null;
+            }
+        }
+
+        private static void reject(ImportRow row, String error) {
+            if (row.getError() == null) {
+                row.setError(error);
+            }
+        }
     }
-}
\ No newline at end of file
+}
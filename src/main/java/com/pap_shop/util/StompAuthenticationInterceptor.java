@@ -0,0 +1,78 @@
+package com.pap_shop.util;
+
+import com.pap_shop.service.DashboardFeedService;
+import com.pap_shop.service.TokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions with the access token sent in the {@code Authorization} header of the
+ * CONNECT frame, and only lets admins subscribe to the dashboard feed. Other destinations stay public.
+ * The simple broker treats subscription destinations as Ant patterns, so a subscription is checked
+ * against the feed the way the broker will match it: {@code /topic/**} is as private as the feed itself.
+ * Only the server publishes to broker destinations; clients send to {@code /app} instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String BROKER_DESTINATIONS = "/topic/**";
+
+    /**
+     * Same matching as the simple broker's subscription registry.
+     */
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final TokenService tokenService;
+    private final CustomJwtAuthenticationConverter jwtAuthenticationConverter;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Frames from clients arrive with mutable headers, so the user set on CONNECT sticks to the session
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authorization = accessor.getFirstNativeHeader("Authorization");
+            if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+                // An invalid or revoked token fails the CONNECT
+                accessor.setUser(jwtAuthenticationConverter.convert(
+                        tokenService.decode(authorization.substring(BEARER_PREFIX.length()))));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && receivesDashboard(accessor.getDestination())
+                && !isAdmin(accessor.getUser())) {
+            throw new AccessDeniedException("Admin access required");
+        } else if (StompCommand.SEND.equals(accessor.getCommand())
+                && accessor.getDestination() != null
+                && pathMatcher.match(BROKER_DESTINATIONS, accessor.getDestination())) {
+            // Otherwise anyone could broadcast fake updates to every subscriber, e.g. of the dashboard
+            throw new AccessDeniedException("Clients cannot publish to " + accessor.getDestination());
+        }
+        return message;
+    }
+
+    private boolean receivesDashboard(String destination) {
+        return destination != null && pathMatcher.match(destination, DashboardFeedService.TOPIC);
+    }
+
+    private static boolean isAdmin(Principal user) {
+        return user instanceof Authentication
+                && AuthorityUtils.authorityListToSet(((Authentication) user).getAuthorities()).contains("SCOPE_ADMIN");
+    }
+}
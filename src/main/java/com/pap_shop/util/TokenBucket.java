@@ -0,0 +1,52 @@
+package com.pap_shop.util;
+
+/**
+ * Token bucket rate limiter: holds up to {@code capacity} tokens and gains {@code refillPerMinute}
+ * tokens per minute. Refill is computed lazily when a token is requested.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, int refillPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / NANOS_PER_MINUTE;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token if one is available.
+     *
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Checks whether the bucket has refilled completely, i.e. it can be dropped without changing any limit.
+     *
+     * @return true if the bucket is full
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,26 @@
+package com.pap_shop.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Authentication of a request carrying a valid access token.
+ * The principal is the {@link AuthenticatedUser} resolved from the token; the token itself stays
+ * available through {@link #getToken()}.
+ */
+public class UserAuthenticationToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    public UserAuthenticationToken(Jwt jwt, AuthenticatedUser user, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, user, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pap_shop.configuration;
+
+import org.apache.catalina.Valve;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.apache.catalina.valves.ValveBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that, with the shipped configuration, the client address seen by the login rate limiter
+ * is taken from X-Forwarded-For only when the request comes through a trusted proxy.
+ */
+class ForwardedHeadersTest {
+
+    private RemoteIpValve valve;
+    private final AtomicReference<String> remoteAddr = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+        ServerProperties serverProperties = Binder.get(environment).bind("server", ServerProperties.class).get();
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new TomcatWebServerFactoryCustomizer(environment, serverProperties).customize(factory);
+
+        for (Valve engineValve : factory.getEngineValves()) {
+            if (engineValve instanceof RemoteIpValve) {
+                valve = (RemoteIpValve) engineValve;
+            }
+        }
+        assertNotNull(valve, "forwarded headers are not handled");
+        valve.setNext(new ValveBase() {
+            @Override
+            public void invoke(Request request, Response response) {
+                remoteAddr.set(request.getRemoteAddr());
+            }
+        });
+    }
+
+    @Test
+    void behindTrustedProxy_UsesForwardedClientAddress() throws Exception {
+        valve.invoke(request("10.0.0.5", "203.0.113.7"), null);
+
+        assertEquals("203.0.113.7", remoteAddr.get());
+    }
+
+    @Test
+    void behindTrustedProxy_IgnoresAddressesSpoofedByTheClient() throws Exception {
+        valve.invoke(request("10.0.0.5", "198.51.100.1, 203.0.113.7"), null);
+
+        assertEquals("203.0.113.7", remoteAddr.get());
+    }
+
+    @Test
+    void directClient_CannotChooseItsAddress() throws Exception {
+        valve.invoke(request("203.0.113.7", "198.51.100.1"), null);
+
+        assertEquals("203.0.113.7", remoteAddr.get());
+    }
+
+    private static Request request(String remoteAddr, String forwardedFor) {
+        Request request = new Request(new Connector());
+        request.setCoyoteRequest(new org.apache.coyote.Request());
+        request.setRemoteAddr(remoteAddr);
+        request.setRemoteHost(remoteAddr);
+        request.getCoyoteRequest().getMimeHeaders().addValue("X-Forwarded-For").setString(forwardedFor);
+        return request;
+    }
+}
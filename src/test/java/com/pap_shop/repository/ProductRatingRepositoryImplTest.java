@@ -0,0 +1,121 @@
+package com.pap_shop.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRatingRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductRatingRepositoryImpl ratingRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:rating;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ratingRepository = new ProductRatingRepositoryImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE products (id INT PRIMARY KEY, " +
+                "rating_count INT DEFAULT 0 NOT NULL, rating_sum INT DEFAULT 0 NOT NULL, " +
+                "rating_average DECIMAL(3, 2) DEFAULT 0 NOT NULL, " +
+                "rating_1 INT DEFAULT 0 NOT NULL, rating_2 INT DEFAULT 0 NOT NULL, rating_3 INT DEFAULT 0 NOT NULL, " +
+                "rating_4 INT DEFAULT 0 NOT NULL, rating_5 INT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products (id) VALUES (1)");
+        jdbcTemplate.execute("CREATE TABLE reviews (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "product_id INT NOT NULL, rating INT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE reviews");
+        jdbcTemplate.execute("DROP TABLE products");
+    }
+
+    @Test
+    void addRatings_shouldUpdateCountSumAverageAndHistogram() {
+        ratingRepository.addRatings(1, new int[]{0, 0, 0, 0, 1});
+        ratingRepository.addRatings(1, new int[]{0, 0, 0, 1, 0});
+        int updated = ratingRepository.addRatings(1, new int[]{0, 1, 0, 0, 0});
+
+        assertEquals(1, updated);
+        Map<String, Object> row = row(1);
+        assertEquals(3, ((Number) row.get("RATING_COUNT")).intValue());
+        assertEquals(11, ((Number) row.get("RATING_SUM")).intValue());
+        assertEquals(new BigDecimal("3.67"), row.get("RATING_AVERAGE"));
+        assertEquals(1, ((Number) row.get("RATING_2")).intValue());
+        assertEquals(1, ((Number) row.get("RATING_5")).intValue());
+    }
+
+    @Test
+    void addRatings_movingAndRemovingReviews_shouldKeepAggregatesConsistent() {
+        ratingRepository.addRatings(1, new int[]{1, 0, 0, 0, 0});
+        ratingRepository.addRatings(1, new int[]{0, 0, 1, 0, 0});
+        // The 1-star review becomes a 5-star review
+        ratingRepository.addRatings(1, new int[]{-1, 0, 0, 0, 1});
+        assertEquals(new BigDecimal("4.00"), row(1).get("RATING_AVERAGE"));
+
+        ratingRepository.addRatings(1, new int[]{0, 0, -1, 0, 0});
+        ratingRepository.addRatings(1, new int[]{0, 0, 0, 0, -1});
+
+        Map<String, Object> row = row(1);
+        assertEquals(0, ((Number) row.get("RATING_COUNT")).intValue());
+        assertEquals(0, ((Number) row.get("RATING_SUM")).intValue());
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) row.get("RATING_AVERAGE")));
+    }
+
+    @Test
+    void addRatings_forUnknownProduct_shouldAffectNoRow() {
+        assertEquals(0, ratingRepository.addRatings(2, new int[]{0, 0, 0, 0, 1}));
+    }
+
+    @Test
+    void reconcileRatings_shouldAddReviewsMissingFromAggregates() {
+        // Product 1 counts only its 5-star review; product 2500 lies in a later batch and counts none
+        jdbcTemplate.update("INSERT INTO products (id) VALUES (2500)");
+        review(1, 5);
+        review(1, 2);
+        review(2500, 4);
+        ratingRepository.addRatings(1, new int[]{0, 0, 0, 0, 1});
+
+        assertEquals(2, ratingRepository.reconcileRatings());
+
+        Map<String, Object> row = row(1);
+        assertEquals(2, ((Number) row.get("RATING_COUNT")).intValue());
+        assertEquals(7, ((Number) row.get("RATING_SUM")).intValue());
+        assertEquals(new BigDecimal("3.50"), row.get("RATING_AVERAGE"));
+        assertEquals(1, ((Number) row.get("RATING_2")).intValue());
+        assertEquals(1, ((Number) row.get("RATING_5")).intValue());
+        assertEquals(1, ((Number) row(2500).get("RATING_4")).intValue());
+    }
+
+    @Test
+    void reconcileRatings_shouldRemoveRatingsOfDeletedReviewsAndSkipConsistentProducts() {
+        jdbcTemplate.update("INSERT INTO products (id) VALUES (2)");
+        review(2, 3);
+        ratingRepository.addRatings(1, new int[]{1, 0, 0, 0, 0});
+        ratingRepository.addRatings(2, new int[]{0, 0, 1, 0, 0});
+
+        assertEquals(1, ratingRepository.reconcileRatings());
+
+        assertEquals(0, ((Number) row(1).get("RATING_COUNT")).intValue());
+        assertEquals(0, ((Number) row(1).get("RATING_1")).intValue());
+        assertEquals(1, ((Number) row(2).get("RATING_COUNT")).intValue());
+        assertEquals(0, ratingRepository.reconcileRatings());
+    }
+
+    private void review(int productId, int rating) {
+        jdbcTemplate.update("INSERT INTO reviews (product_id, rating) VALUES (?, ?)", productId, rating);
+    }
+
+    private Map<String, Object> row(int productId) {
+        return jdbcTemplate.queryForMap("SELECT * FROM products WHERE id = ?", productId);
+    }
+}
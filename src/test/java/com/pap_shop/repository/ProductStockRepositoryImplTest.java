@@ -0,0 +1,107 @@
+package com.pap_shop.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductStockRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProductStockRepositoryImpl stockRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:stock;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        stockRepository = new ProductStockRepositoryImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE products (id INT PRIMARY KEY, stock INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products (id, stock) VALUES (1, 100), (2, 5)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE products");
+    }
+
+    @Test
+    void reserveStock_whenEnoughStock_shouldDecrementAllLines() {
+        int[] updated = stockRepository.reserveStock(new TreeMap<>(Map.of(1, 10, 2, 5)));
+
+        assertArrayEquals(new int[]{1, 1}, updated);
+        assertEquals(90, stock(1));
+        assertEquals(0, stock(2));
+    }
+
+    @Test
+    void reserveStock_whenNotEnoughStock_shouldLeaveRowUntouched() {
+        int[] updated = stockRepository.reserveStock(Collections.singletonMap(2, 6));
+
+        assertArrayEquals(new int[]{0}, updated);
+        assertEquals(5, stock(2));
+    }
+
+    @Test
+    void addStock_shouldIncrementStock() {
+        stockRepository.addStock(Collections.singletonMap(2, 3));
+
+        assertEquals(8, stock(2));
+    }
+
+    @Test
+    void reserveStock_underConcurrentCheckouts_shouldNeverOversell() throws Exception {
+        int checkouts = 300;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < checkouts; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> {
+                    int[] updated = stockRepository.reserveStock(Collections.singletonMap(1, 1));
+                    if (updated[0] == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(100, succeeded);
+        assertEquals(0, stock(1));
+    }
+
+    private int stock(int productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
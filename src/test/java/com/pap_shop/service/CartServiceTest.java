@@ -131,6 +131,5 @@ class CartServiceTest {
         cartService.clearCart(1);
         
         verify(cartItemRepository).deleteByCartId(1);
-        verify(cartItemRepository).resetAutoIncrement();
     }
 }
\ No newline at end of file
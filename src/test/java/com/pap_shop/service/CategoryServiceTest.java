@@ -21,6 +21,9 @@ public class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private EntityCacheService entityCacheService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -40,6 +43,26 @@ public class CategoryServiceTest {
         verify(categoryRepository, times(1)).save(category);
     }
 
+    @Test
+    void testUpdateCategory_evictsCachedCategory() {
+        // Arrange
+        Category existing = new Category();
+        existing.setID(1);
+        existing.setName("Electronics");
+        Category update = new Category();
+        update.setName("Phones");
+
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(existing));
+        when(categoryRepository.save(existing)).thenReturn(existing);
+
+        // Act
+        Category result = categoryService.updateCategory(1, update);
+
+        // Assert
+        assertEquals("Phones", result.getName());
+        verify(entityCacheService).evictCategory(1);
+    }
+
     @Test
     void testGetAllCategory() {
         // Arrange
@@ -0,0 +1,117 @@
+package com.pap_shop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pap_shop.dto.DashboardStatsResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.event.UserCreatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DashboardFeedServiceTest {
+
+    private final MessageChannel brokerChannel = mock(MessageChannel.class);
+    private final MessageChannel clientOutboundChannel = mock(MessageChannel.class);
+    private final DashboardStatsService dashboardStatsService = mock(DashboardStatsService.class);
+    private final RecentOrdersService recentOrdersService = mock(RecentOrdersService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DashboardFeedService dashboardFeedService;
+
+    @BeforeEach
+    void setUp() {
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        messagingTemplate.setMessageConverter(new MappingJackson2MessageConverter());
+        when(brokerChannel.send(any())).thenReturn(true);
+        when(clientOutboundChannel.send(any())).thenReturn(true);
+        when(dashboardStatsService.getStats()).thenReturn(new DashboardStatsResponse(10, 5, 3, 20.0));
+        dashboardFeedService = new DashboardFeedService(messagingTemplate, clientOutboundChannel,
+                dashboardStatsService, recentOrdersService, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardFeedService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesEventsIntoOneDelta() throws Exception {
+        dashboardFeedService.onOrderCreated(created(1));
+        dashboardFeedService.onOrderCreated(created(2));
+        dashboardFeedService.onOrderStatusChanged(new OrderStatusChangedEvent(1, OrderStatus.SHIPPED,
+                OrderStatus.DELIVERED, new BigDecimal("20.00")));
+        dashboardFeedService.onUserCreated(new UserCreatedEvent(6));
+
+        dashboardFeedService.flush();
+        dashboardFeedService.flush();
+
+        ArgumentCaptor<Message<byte[]>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(brokerChannel, times(1)).send(sent.capture());
+        assertEquals(DashboardFeedService.TOPIC, SimpMessageHeaderAccessor.getDestination(sent.getValue().getHeaders()));
+        JsonNode delta = objectMapper.readTree(sent.getValue().getPayload());
+        assertEquals("delta", delta.get("type").asText());
+        assertEquals(2, delta.get("orders").size());
+        assertEquals("DELIVERED", delta.get("statusChanges").get("1").asText());
+        assertEquals(20.0, delta.get("revenueDelta").asDouble());
+        assertEquals(1, delta.get("newUsers").asInt());
+        assertEquals(3, delta.get("stats").get("totalOrders").asLong());
+        verifyNoInteractions(clientOutboundChannel);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onSubscribe_SendsSnapshotToTheSubscriberOnly() throws Exception {
+        when(recentOrdersService.getRecentOrders()).thenReturn(Collections.emptyList());
+
+        dashboardFeedService.onSubscribe(subscribe(DashboardFeedService.TOPIC));
+
+        ArgumentCaptor<Message<byte[]>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel).send(sent.capture());
+        assertEquals("session-1", SimpMessageHeaderAccessor.getSessionId(sent.getValue().getHeaders()));
+        assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(sent.getValue().getHeaders()));
+        JsonNode snapshot = objectMapper.readTree(sent.getValue().getPayload());
+        assertEquals("snapshot", snapshot.get("type").asText());
+        assertEquals(10, snapshot.get("stats").get("totalProducts").asLong());
+        verify(brokerChannel, never()).send(any());
+    }
+
+    @Test
+    void onSubscribe_OtherDestination_SendsNothing() {
+        dashboardFeedService.onSubscribe(subscribe("/topic/announcements"));
+
+        verifyNoInteractions(clientOutboundChannel, recentOrdersService);
+    }
+
+    private SessionSubscribeEvent subscribe(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-0");
+        return new SessionSubscribeEvent(this, MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private static OrderCreatedEvent created(int id) {
+        return new OrderCreatedEvent(id, "Customer " + id, new BigDecimal("20.00"), OrderStatus.PENDING,
+                new Timestamp(1000L * id), 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.DashboardStatsResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.event.ProductCreatedEvent;
+import com.pap_shop.event.ProductDeletedEvent;
+import com.pap_shop.event.UserCreatedEvent;
+import com.pap_shop.repository.OrderRepository;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStatsServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private DashboardStatsService dashboardStatsService;
+
+    @Test
+    void events_UpdateTotalsWithoutQueries() {
+        reconcileWith(10, 5, 3, new BigDecimal("100.00"));
+
+        dashboardStatsService.onProductCreated(new ProductCreatedEvent(11));
+        dashboardStatsService.onProductCreated(new ProductCreatedEvent(12));
+        dashboardStatsService.onProductDeleted(new ProductDeletedEvent(1));
+        dashboardStatsService.onUserCreated(new UserCreatedEvent(6));
+        dashboardStatsService.onOrderCreated(new OrderCreatedEvent(4, "Customer", new BigDecimal("20.00"),
+                OrderStatus.PENDING, new Timestamp(System.currentTimeMillis()), 1));
+        dashboardStatsService.onOrderStatusChanged(new OrderStatusChangedEvent(4, OrderStatus.SHIPPED,
+                OrderStatus.DELIVERED, new BigDecimal("20.00")));
+
+        DashboardStatsResponse stats = dashboardStatsService.getStats();
+
+        assertEquals(11, stats.getTotalProducts());
+        assertEquals(6, stats.getTotalUsers());
+        assertEquals(4, stats.getTotalOrders());
+        assertEquals(120.0, stats.getRevenue());
+        verify(productRepository, times(1)).count();
+    }
+
+    @Test
+    void onOrderStatusChanged_LeavingDelivered_SubtractsRevenue() {
+        reconcileWith(0, 0, 1, new BigDecimal("50.00"));
+
+        dashboardStatsService.onOrderStatusChanged(new OrderStatusChangedEvent(1, OrderStatus.DELIVERED,
+                OrderStatus.CANCELED, new BigDecimal("50.00")));
+        dashboardStatsService.onOrderStatusChanged(new OrderStatusChangedEvent(2, OrderStatus.PENDING,
+                OrderStatus.CANCELED, new BigDecimal("30.00")));
+
+        assertEquals(0.0, dashboardStatsService.getStats().getRevenue());
+    }
+
+    @Test
+    void reconcile_ReplacesDriftedTotals() {
+        reconcileWith(10, 5, 3, null);
+        dashboardStatsService.onProductCreated(new ProductCreatedEvent(11));
+
+        reconcileWith(7, 5, 3, new BigDecimal("15.50"));
+
+        DashboardStatsResponse stats = dashboardStatsService.getStats();
+        assertEquals(7, stats.getTotalProducts());
+        assertEquals(15.5, stats.getRevenue());
+    }
+
+    private void reconcileWith(long products, long users, long orders, BigDecimal revenue) {
+        when(productRepository.count()).thenReturn(products);
+        when(userRepository.count()).thenReturn(users);
+        when(orderRepository.count()).thenReturn(orders);
+        when(orderRepository.getTotalRevenue()).thenReturn(revenue);
+        dashboardStatsService.reconcile();
+    }
+}
@@ -0,0 +1,62 @@
+package com.pap_shop.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataMigrationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataMigrationService dataMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        dataMigrationService = new DataMigrationService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE data_migrations (name VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE ledger (amount INT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE data_migrations");
+        jdbcTemplate.execute("DROP TABLE ledger");
+    }
+
+    @Test
+    void runOnce_RunsEachMigrationOnlyOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        Runnable migration = () -> {
+            runs.incrementAndGet();
+            jdbcTemplate.update("INSERT INTO ledger (amount) VALUES (10)");
+        };
+
+        assertTrue(dataMigrationService.runOnce("backfill", migration));
+        assertFalse(dataMigrationService.runOnce("backfill", migration));
+
+        assertEquals(1, runs.get());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger", Integer.class));
+        assertTrue(dataMigrationService.runOnce("another", () -> { }));
+    }
+
+    @Test
+    void runOnce_FailedMigration_RollsBackMarkerAndChanges() {
+        assertThrows(IllegalStateException.class, () -> dataMigrationService.runOnce("backfill", () -> {
+            jdbcTemplate.update("INSERT INTO ledger (amount) VALUES (10)");
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger", Integer.class));
+        assertTrue(dataMigrationService.runOnce("backfill", () -> { }));
+    }
+}
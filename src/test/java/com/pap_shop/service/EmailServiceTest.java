@@ -1,13 +1,15 @@
 package com.pap_shop.service;
 
+import com.pap_shop.entity.OutboundEmail;
+import com.pap_shop.enums.OutboundEmailStatus;
+import com.pap_shop.repository.OutboundEmailRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,26 +18,33 @@ import static org.mockito.Mockito.*;
 class EmailServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Mock
+    private MailDispatcher mailDispatcher;
 
     @InjectMocks
     private EmailService emailService;
 
     @Test
-    void sendResetPasswordEmail_shouldSendEmailWithCorrectContent() {
+    void sendResetPasswordEmail_shouldQueueEmailWithCorrectContentAndWakeDispatcher() {
         String email = "test@example.com";
         String resetCode = "ABC123";
         
-        ArgumentCaptor<SimpleMailMessage> messageCaptor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        ArgumentCaptor<OutboundEmail> emailCaptor = ArgumentCaptor.forClass(OutboundEmail.class);
         
         emailService.sendResetPasswordEmail(email, resetCode);
         
-        verify(mailSender).send(messageCaptor.capture());
+        InOrder inOrder = inOrder(outboundEmailRepository, mailDispatcher);
+        inOrder.verify(outboundEmailRepository).save(emailCaptor.capture());
+        inOrder.verify(mailDispatcher).wake();
         
-        SimpleMailMessage sentMessage = messageCaptor.getValue();
-        assertEquals(email, sentMessage.getTo()[0]);
-        assertEquals("Reset Your Password - PAP Shop", sentMessage.getSubject());
-        assertTrue(sentMessage.getText().contains(resetCode));
-        assertTrue(sentMessage.getText().contains("Your password reset code is:"));
+        OutboundEmail queued = emailCaptor.getValue();
+        assertEquals(email, queued.getRecipient());
+        assertEquals("Reset Your Password - PAP Shop", queued.getSubject());
+        assertTrue(queued.getBody().contains(resetCode));
+        assertTrue(queued.getBody().contains("Your password reset code is:"));
+        assertEquals(OutboundEmailStatus.PENDING, queued.getStatus());
+        assertNotNull(queued.getNextAttemptAt());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.pap_shop.service;
+
+import com.pap_shop.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_AfterAccountCapacity_RejectsSameAccountOnly() {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 100, 1, 3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("Customer@Example.com", "10.0.0." + i);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("customer@example.com ", "10.0.0.9"));
+        assertDoesNotThrow(() -> limiter.acquire("other@example.com", "10.0.0.9"));
+        assertEquals(1, meterRegistry.get("login.rate_limited").tag("limit", "account").counter().count());
+    }
+
+    @Test
+    void acquire_AfterAddressCapacity_RejectsSameAddressOnly() {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 3, 1, 100, 1);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user9", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.acquire("user9", "10.0.0.2"));
+        assertEquals(1, meterRegistry.get("login.rate_limited").tag("limit", "address").counter().count());
+    }
+
+    @Test
+    void evictIdleBuckets_KeepsBucketsThatAreStillDrained() {
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 1, 1, 100, 1);
+        limiter.acquire("user", "10.0.0.1");
+
+        limiter.evictIdleBuckets();
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user", "10.0.0.1"));
+    }
+}
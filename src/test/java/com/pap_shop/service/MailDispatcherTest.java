@@ -0,0 +1,127 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.OutboundEmail;
+import com.pap_shop.enums.OutboundEmailStatus;
+import com.pap_shop.repository.OutboundEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MailDispatcherTest {
+
+    private final OutboundEmailRepository outboundEmailRepository = mock(OutboundEmailRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FakeSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.from", "shop@example.com");
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(properties);
+        when(outboundEmailRepository.claim(any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailDispatcher.shutdown();
+        smtpServer.close();
+    }
+
+    @Test
+    void drain_SendsBatchOverOneConnectionAndMarksItSent() {
+        mailDispatcher = dispatcher(20, 60);
+        dueEmails(Arrays.asList(email(1L, "a@example.com"), email(2L, "b@example.com"), email(3L, "c@example.com")));
+
+        mailDispatcher.drain();
+
+        assertEquals(3, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnections());
+        verify(outboundEmailRepository).markSent(eq(Arrays.asList(1L, 2L, 3L)), any(Instant.class));
+        assertEquals(3, meterRegistry.get("mail.delivery").tag("outcome", "sent").counter().count());
+    }
+
+    @Test
+    void drain_RejectedRecipient_IsRetriedWithBackoff() {
+        mailDispatcher = dispatcher(20, 60);
+        dueEmails(Arrays.asList(email(1L, "a@example.com"), email(2L, "reject@example.com")));
+
+        Instant before = Instant.now();
+        mailDispatcher.drain();
+
+        assertEquals(1, smtpServer.getMessages().size());
+        verify(outboundEmailRepository).markSent(eq(Collections.singletonList(1L)), any(Instant.class));
+        verify(outboundEmailRepository).recordFailure(eq(2L), eq(OutboundEmailStatus.PENDING),
+                argThat(next -> !next.isBefore(before.plusSeconds(30))), anyString());
+    }
+
+    @Test
+    void drain_LastAttemptFails_MarksEmailFailed() {
+        mailDispatcher = dispatcher(20, 60);
+        OutboundEmail email = email(1L, "reject@example.com");
+        email.setAttempts(1);
+        dueEmails(Collections.singletonList(email));
+
+        mailDispatcher.drain();
+
+        verify(outboundEmailRepository).recordFailure(eq(1L), eq(OutboundEmailStatus.FAILED), any(Instant.class), anyString());
+        verify(outboundEmailRepository, never()).markSent(any(), any());
+        assertEquals(1, meterRegistry.get("mail.delivery").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void drain_StopsAtRateLimit() {
+        mailDispatcher = dispatcher(2, 1);
+        List<OutboundEmail> due = Arrays.asList(email(1L, "a@example.com"), email(2L, "b@example.com"), email(3L, "c@example.com"));
+        when(outboundEmailRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any()))
+                .thenReturn(due, due.subList(2, 3));
+
+        mailDispatcher.drain();
+
+        assertEquals(2, smtpServer.getMessages().size());
+        verify(outboundEmailRepository, times(2)).claim(any(), any(), any());
+    }
+
+    private MailDispatcher dispatcher(int batchSize, int ratePerMinute) {
+        return new MailDispatcher(outboundEmailRepository, mailSender, meterRegistry, 1, batchSize, ratePerMinute, 2,
+                Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    private void dueEmails(List<OutboundEmail> emails) {
+        when(outboundEmailRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any()))
+                .thenReturn(emails, Collections.emptyList());
+    }
+
+    private static OutboundEmail email(Long id, String recipient) {
+        return OutboundEmail.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject " + id)
+                .body("Body " + id)
+                .status(OutboundEmailStatus.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.CreateOrderRequest;
+import com.pap_shop.entity.Cart;
+import com.pap_shop.entity.CartItem;
+import com.pap_shop.entity.Order;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.Roles;
+import com.pap_shop.entity.User;
+import com.pap_shop.exception.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs hundreds of parallel checkouts of multi-line carts through {@link OrderService#createOrder}
+ * against a real database: stock must never go negative, and a checkout that fails on a later
+ * line must give back what it reserved on the earlier ones.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:checkout;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderService.class, EntityCacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceCheckoutConcurrencyTest {
+
+    private static final int CHECKOUTS = 200;
+    private static final int PHONE_STOCK = 150;
+    private static final int CASE_STOCK = 60;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Product phone;
+    private Product phoneCase;
+    private final List<User> customers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Roles role = new Roles(null, "USER");
+            entityManager.persist(role);
+            phone = product("Phone", PHONE_STOCK);
+            phoneCase = product("Case", CASE_STOCK);
+            for (int i = 0; i < CHECKOUTS; i++) {
+                User user = User.builder()
+                        .name("Customer " + i)
+                        .email("customer" + i + "@example.com")
+                        .phone(String.valueOf(900000000 + i))
+                        .username("customer" + i)
+                        .password("hash")
+                        .role(role)
+                        .build();
+                entityManager.persist(user);
+                Cart cart = Cart.builder().user(user).build();
+                entityManager.persist(cart);
+                // The phone line comes first, so a checkout running out of cases has already reserved its phones
+                entityManager.persist(CartItem.builder().cart(cart).product(phone).quantity(phoneQuantity(i)).build());
+                entityManager.persist(CartItem.builder().cart(cart).product(phoneCase).quantity(1).build());
+                customers.add(user);
+            }
+        });
+    }
+
+    @Test
+    void createOrder_underConcurrentCheckouts_neverOversellsAndRollsBackFailedCheckouts() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+        for (User customer : customers) {
+            results.add(executor.submit(() -> {
+                start.await();
+                CreateOrderRequest request = new CreateOrderRequest();
+                request.setShippingAddress("1 Main Street");
+                return orderService.createOrder(customer.getId(), request);
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int phonesSold = 0;
+        for (int i = 0; i < CHECKOUTS; i++) {
+            User customer = customers.get(i);
+            try {
+                results.get(i).get();
+                succeeded++;
+                phonesSold += phoneQuantity(i);
+                assertEquals(0, cartItems(customer), "cart of a placed order is emptied");
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+                assertEquals(2, cartItems(customer), "cart of a failed checkout is kept");
+            }
+        }
+        executor.shutdown();
+
+        // Cases run out first: every checkout after that reserves its phones, then must release them
+        assertEquals(CASE_STOCK, succeeded);
+        assertEquals(0, stock(phoneCase));
+        assertEquals(PHONE_STOCK - phonesSold, stock(phone));
+        assertEquals(succeeded, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(2 * succeeded, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+    }
+
+    /**
+     * One or two phones per cart: at most 120 phones go with the 60 cases, so phones never run out
+     * and each failure is a case line failing after a phone line succeeded.
+     */
+    private static int phoneQuantity(int customer) {
+        return 1 + customer % 2;
+    }
+
+    private Product product(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku("SKU-" + name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        product.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(product);
+        return product;
+    }
+
+    private int stock(Product product) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+
+    private int cartItems(User customer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items i JOIN carts c ON c.id = i.cart_id WHERE c.user_id = ?",
+                Integer.class, customer.getId());
+    }
+}
@@ -0,0 +1,135 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.CreateOrderRequest;
+import com.pap_shop.entity.Cart;
+import com.pap_shop.entity.CartItem;
+import com.pap_shop.entity.Category;
+import com.pap_shop.entity.Order;
+import com.pap_shop.entity.OrderItem;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.Roles;
+import com.pap_shop.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the statements sent by {@link OrderService#createOrder} for small and large carts.
+ * With IDs taken from the pooled allocator, order lines are inserted in JDBC batches,
+ * so a large cart costs a few more round trips instead of one per line.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({OrderService.class, EntityCacheService.class})
+class OrderServiceInsertBatchingTest {
+
+    private static final int SMALL_CART = 5;
+    private static final int LARGE_CART = 200;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Roles role;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        role = entityManager.persist(new Roles(null, "USER"));
+        category = entityManager.persist(new Category(null, "Phones"));
+    }
+
+    @Test
+    void createOrder_statementCountBarelyGrowsWithCartSize() {
+        long small = statementsForOrder("small", SMALL_CART);
+        long large = statementsForOrder("large", LARGE_CART);
+
+        // Per 50 lines: one insert batch and one ID block (read and update), instead of one insert per line
+        assertTrue(large - small <= 3 * (LARGE_CART / 50), "small cart: " + small + ", large cart: " + large);
+        assertTrue(large < LARGE_CART / 5, "large cart: " + large);
+    }
+
+    @Test
+    void createOrder_assignsDistinctIdsToEveryLine() {
+        User user = persistUserWithCart("lines", 120);
+        entityManager.flush();
+        entityManager.clear();
+
+        Order order = orderService.createOrder(user.getId(), request());
+        entityManager.flush();
+
+        assertEquals(120, order.getOrderItems().stream().map(OrderItem::getId).distinct().count());
+        assertNotNull(order.getId());
+    }
+
+    private long statementsForOrder(String name, int lines) {
+        User user = persistUserWithCart(name, lines);
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        orderService.createOrder(user.getId(), request());
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistUserWithCart(String name, int lines) {
+        User user = new User();
+        user.setName(name);
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPhone(String.valueOf(Math.abs(name.hashCode())));
+        user.setPassword("secret");
+        user.setRole(role);
+        entityManager.persist(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        entityManager.persist(cart);
+
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setName(name + " product " + i);
+            product.setSku(name + "-" + i);
+            product.setCategory(category);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStock(100);
+            product.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(product);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            entityManager.persist(cartItem);
+        }
+        return user;
+    }
+
+    private static CreateOrderRequest request() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setShippingAddress("123 somewhere street");
+        return request;
+    }
+}
@@ -0,0 +1,199 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.CreateOrderRequest;
+import com.pap_shop.dto.CursorPageResponse;
+import com.pap_shop.entity.Cart;
+import com.pap_shop.entity.CartItem;
+import com.pap_shop.entity.Order;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.User;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.exception.InsufficientStockException;
+import com.pap_shop.repository.CartItemRepository;
+import com.pap_shop.repository.CartRepository;
+import com.pap_shop.repository.OrderRepository;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.UserRepository;
+import com.pap_shop.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private EntityCacheService entityCacheService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private User testUser;
+    private Product testProduct;
+    private Cart testCart;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1);
+        testUser.setUsername("testUser");
+
+        testProduct = new Product();
+        testProduct.setId(1);
+        testProduct.setName("iPhone 15");
+        testProduct.setPrice(new BigDecimal("10.00"));
+        testProduct.setStock(5);
+
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(testProduct);
+        cartItem.setQuantity(2);
+
+        testCart = new Cart();
+        testCart.setId(1);
+        testCart.setUser(testUser);
+        testCart.setCartItems(Collections.singletonList(cartItem));
+    }
+
+    @Test
+    void createOrder_whenStockReserved_shouldSaveOrderAndClearCart() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setShippingAddress("123 somewhere street");
+
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(cartRepository.findByUserId(1)).thenReturn(Optional.of(testCart));
+        when(productRepository.reserveStock(anyMap())).thenReturn(new int[]{1});
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.createOrder(1, request);
+
+        assertEquals(new BigDecimal("20.00"), result.getTotalPrice());
+        verify(productRepository).reserveStock(Collections.singletonMap(1, 2));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(cartItemRepository).deleteByCartId(1);
+        verify(eventPublisher).publishEvent(any(OrderCreatedEvent.class));
+    }
+
+    @Test
+    void createOrder_whenReservationAffectsNoRow_shouldThrowInsufficientStock() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setShippingAddress("123 somewhere street");
+
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(cartRepository.findByUserId(1)).thenReturn(Optional.of(testCart));
+        when(productRepository.reserveStock(anyMap())).thenReturn(new int[]{0});
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(1, request));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void getUserOrders_withMoreRowsThanPage_shouldReturnNextCursor() {
+        Order first = order(3, 3000L);
+        Order second = order(2, 2000L);
+        Order third = order(1, 1000L);
+
+        when(orderRepository.findLatestByUserId(eq(1), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(Arrays.asList(first, second), PageRequest.of(0, 2), true));
+
+        CursorPageResponse<Order> page = orderService.getUserOrders(1, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(CursorCodec.encode(2000L, 2), page.getNextCursor());
+    }
+
+    @Test
+    void getUserOrders_withCursor_shouldQueryAfterCursor() {
+        Order last = order(1, 1000L);
+
+        when(orderRepository.findByUserIdBefore(eq(1), eq(new Timestamp(2000L)), eq(2), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(last)));
+
+        CursorPageResponse<Order> page = orderService.getUserOrders(1, CursorCodec.encode(2000L, 2), 2);
+
+        assertEquals(List.of(last), page.getItems());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUserOrders_withMalformedCursor_shouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getUserOrders(1, "not-a-cursor", 2));
+    }
+
+    @Test
+    void getAllOrders_withStatus_shouldQueryStatusAfterCursor() {
+        Order last = order(1, 1000L);
+
+        when(orderRepository.findByStatusBefore(eq(OrderStatus.PENDING), eq(new Timestamp(2000L)), eq(2), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(last)));
+
+        CursorPageResponse<Order> page = orderService.getAllOrders(OrderStatus.PENDING, CursorCodec.encode(2000L, 2), 2);
+
+        assertEquals(List.of(last), page.getItems());
+        assertFalse(page.isHasMore());
+        verify(orderRepository, never()).findBefore(any(Timestamp.class), anyInt(), any(Pageable.class));
+    }
+
+    private Order order(int id, long createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(testUser);
+        order.setCreatedAt(new Timestamp(createdAt));
+        return order;
+    }
+
+    @Test
+    void updateOrderStatus_shouldPublishPreviousStatusReadUnderRowLock() {
+        Order order = new Order();
+        order.setId(7);
+        order.setStatus(OrderStatus.SHIPPED);
+        order.setTotalPrice(new BigDecimal("20.00"));
+        when(orderRepository.findByIdForUpdate(7)).thenReturn(Optional.of(order));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.updateOrderStatus(7, OrderStatus.DELIVERED);
+
+        verify(orderRepository, never()).findById(anyInt());
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.SHIPPED, event.getValue().getPreviousStatus());
+        assertEquals(OrderStatus.DELIVERED, event.getValue().getStatus());
+    }
+}
@@ -0,0 +1,82 @@
+package com.pap_shop.service;
+
+import com.pap_shop.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void matches_RunsOnHashingPoolAndRecordsLatency() {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1);
+        when(passwordEncoder.matches("secret", "hash")).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("password-hashing-"));
+            return true;
+        });
+
+        assertTrue(passwordHashingService.matches("secret", "hash"));
+        assertEquals(1, meterRegistry.get("password.hash.duration").tag("operation", "matches").timer().count());
+        assertEquals(1, meterRegistry.get("password.hash.queue.wait").timer().count());
+    }
+
+    @Test
+    void encode_WhenPoolAndQueueAreFull_ThrowsTooManyRequests() throws Exception {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+
+        // One hash running, one queued
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("second"));
+        while (meterRegistry.get("password.hash.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> passwordHashingService.encode("third"));
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rehashInBackground_StoresNewHashAndRecordsCost() throws Exception {
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}$2a$12$newHash");
+        CompletableFuture<String> stored = new CompletableFuture<>();
+
+        passwordHashingService.rehashInBackground("secret", stored::complete);
+
+        assertEquals("{bcrypt}$2a$12$newHash", stored.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("password.hash.duration")
+                .tag("operation", "encode").tag("cost", "12").timer().count());
+        while (meterRegistry.get("password.rehash").tag("outcome", "updated").counter().count() < 1) {
+            Thread.sleep(10);
+        }
+    }
+}
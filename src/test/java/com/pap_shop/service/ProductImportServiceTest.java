@@ -0,0 +1,244 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.ImportJobResponse;
+import com.pap_shop.entity.Category;
+import com.pap_shop.entity.ImportJob;
+import com.pap_shop.entity.ImportJobError;
+import com.pap_shop.entity.Product;
+import com.pap_shop.enums.ImportJobStatus;
+import com.pap_shop.exception.ResourceNotFoundException;
+import com.pap_shop.repository.CategoryRepository;
+import com.pap_shop.repository.ImportJobErrorRepository;
+import com.pap_shop.repository.ImportJobRepository;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.StockEntryRepository;
+import com.pap_shop.repository.projection.ProductSkuView;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    CategoryRepository categoryRepository;
+
+    @Mock
+    StockEntryRepository stockEntryRepository;
+
+    @Mock
+    ImportJobRepository importJobRepository;
+
+    @Mock
+    ImportJobErrorRepository importJobErrorRepository;
+
+    @Mock
+    ProductSearchIndex productSearchIndex;
+
+    @Mock
+    EntityCacheService entityCacheService;
+
+    @Mock
+    SkuAllocator skuAllocator;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path storageDir;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productRepository, categoryRepository, stockEntryRepository,
+                importJobRepository, importJobErrorRepository, productSearchIndex, entityCacheService, skuAllocator,
+                transactionTemplate, messagingTemplate, eventPublisher,
+                storageDir.toString(), 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productImportService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startImport_ProcessesRowsInBackgroundAndPublishesProgress() throws IOException {
+        Category category = new Category();
+        category.setID(3);
+        category.setName("Phones");
+        ProductSkuView existing = mock(ProductSkuView.class);
+        when(existing.getId()).thenReturn(7);
+        when(existing.getSku()).thenReturn("SKU1");
+        when(existing.getName()).thenReturn("Product 1");
+
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(categoryRepository.findAllById(any())).thenReturn(Collections.singletonList(category));
+        when(productRepository.findBySkuIn(any())).thenReturn(Collections.singletonList(existing));
+
+        ImportJobResponse queued = productImportService.startImport(file());
+
+        assertEquals(ImportJobStatus.QUEUED, queued.getStatus());
+        ArgumentCaptor<ImportJobResponse> progress = ArgumentCaptor.forClass(ImportJobResponse.class);
+        verify(messagingTemplate, timeout(5000).atLeast(4)).convertAndSend(eq("/topic/imports/" + queued.getId()), progress.capture());
+
+        ImportJobResponse finished = progress.getValue();
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(3, finished.getRowsRead());
+        assertEquals(1, finished.getInserted());
+        assertEquals(1, finished.getUpdated());
+        assertEquals(1, finished.getFailed());
+        assertEquals(4, finished.getCheckpointRow());
+
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).saveAll(inserted.capture());
+        assertEquals("SKU2", inserted.getValue().get(0).getSku());
+        verify(productRepository).addStock(Map.of(7, 5));
+
+        ArgumentCaptor<List<ImportJobError>> errors = ArgumentCaptor.forClass(List.class);
+        verify(importJobErrorRepository).saveAll(errors.capture());
+        assertEquals(4, errors.getValue().get(0).getRowNumber());
+        assertEquals("Category not found: 99", errors.getValue().get(0).getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startImport_ChunkWithUnsavableRow_ImportsTheOtherRows() throws IOException {
+        Category category = new Category();
+        category.setID(3);
+        category.setName("Phones");
+        AtomicReference<ImportJob> committed = new AtomicReference<>();
+
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> {
+            committed.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(importJobRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(committed.get()));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(categoryRepository.findAllById(any())).thenReturn(Collections.singletonList(category));
+        when(productRepository.findBySkuIn(any())).thenReturn(Collections.emptyList());
+        // The database rejects the row of SKUC, e.g. because a value is too long
+        when(productRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getSku().equals("SKUC"))) {
+                throw new DataIntegrityViolationException("Data too long for column 'name'");
+            }
+            return products;
+        });
+
+        ImportJobResponse queued = productImportService.startImport(file(new String[]{"SKUA", "SKUB", "SKUC", "SKUD"}));
+
+        verify(messagingTemplate, timeout(5000)).convertAndSend(eq("/topic/imports/" + queued.getId()),
+                argThat((ImportJobResponse response) -> response.getStatus() == ImportJobStatus.COMPLETED));
+
+        ImportJob finished = committed.get();
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(4, finished.getRowsRead());
+        assertEquals(3, finished.getInserted());
+        assertEquals(1, finished.getFailed());
+        assertEquals(5, finished.getCheckpointRow());
+
+        ArgumentCaptor<ImportJobError> error = ArgumentCaptor.forClass(ImportJobError.class);
+        verify(importJobErrorRepository).save(error.capture());
+        assertEquals(4, error.getValue().getRowNumber());
+        verify(productSearchIndex, times(3)).index(any(Product.class));
+    }
+
+    @Test
+    void cancel_QueuedJobWithoutWorker_MarksCanceled() {
+        ImportJob job = ImportJob.builder().id("job-1").fileName("a.xlsx").filePath("a.xlsx").status(ImportJobStatus.QUEUED).build();
+        when(importJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        when(importJobRepository.save(job)).thenReturn(job);
+
+        ImportJobResponse response = productImportService.cancel("job-1");
+
+        assertEquals(ImportJobStatus.CANCELED, response.getStatus());
+    }
+
+    @Test
+    void resume_CompletedJob_ThrowsException() {
+        ImportJob job = ImportJob.builder().id("job-1").fileName("a.xlsx").filePath("a.xlsx").status(ImportJobStatus.COMPLETED).build();
+        when(importJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+
+        assertThrows(IllegalArgumentException.class, () -> productImportService.resume("job-1"));
+    }
+
+    @Test
+    void getJob_NotFound_ThrowsException() {
+        when(importJobRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productImportService.getJob("missing"));
+    }
+
+    private static MockMultipartFile file() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Products");
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            addRow(sheet, 1, "SKU1", "Product 1", 3);
+            addRow(sheet, 2, "SKU2", "Product 2", 3);
+            addRow(sheet, 3, "SKU3", "Product 3", 99);
+            workbook.write(out);
+            return new MockMultipartFile("file", "products.xlsx", null, out.toByteArray());
+        }
+    }
+
+    private static MockMultipartFile file(String[] skus) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Products");
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            for (int i = 0; i < skus.length; i++) {
+                addRow(sheet, i + 1, skus[i], "Product " + skus[i], 3);
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "products.xlsx", null, out.toByteArray());
+        }
+    }
+
+    private static void addRow(Sheet sheet, int index, String sku, String name, int categoryId) {
+        Row row = sheet.createRow(index);
+        row.createCell(0).setCellValue(sku);
+        row.createCell(1).setCellValue(name);
+        row.createCell(2).setCellValue(categoryId);
+        row.createCell(4).setCellValue(100);
+        row.createCell(5).setCellValue(5);
+    }
+}
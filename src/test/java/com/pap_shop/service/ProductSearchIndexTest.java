@@ -0,0 +1,157 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.Product;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.projection.ProductSearchView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex(productRepository);
+    }
+
+    @Test
+    void search_beforeRebuild_shouldNotBeServed() {
+        assertFalse(productSearchIndex.search("iphone", 0, 10).isPresent());
+    }
+
+    @Test
+    void search_withoutDiacritics_shouldMatchVietnameseNames() {
+        ready();
+        productSearchIndex.index(product(1, "Điện thoại iPhone 15", "D00001", "Hàng chính hãng"));
+        productSearchIndex.index(product(2, "Tai nghe", "T00002", "Dùng cho điện thoại"));
+
+        Optional<List<Integer>> result = productSearchIndex.search("dien thoai", 0, 10);
+
+        assertEquals(Arrays.asList(1, 2), result.orElseThrow());
+    }
+
+    @Test
+    void search_bySku_shouldRankExactSkuFirst() {
+        ready();
+        productSearchIndex.index(product(1, "Ốp lưng D00002", "O00001", null));
+        productSearchIndex.index(product(2, "Sạc nhanh", "D00002", null));
+
+        assertEquals(Arrays.asList(2, 1), productSearchIndex.search("d00002", 0, 10).orElseThrow());
+    }
+
+    @Test
+    void index_afterUpdateAndRemove_shouldReflectChanges() {
+        ready();
+        productSearchIndex.index(product(1, "Bàn phím cơ", "B00001", null));
+        productSearchIndex.index(product(1, "Chuột không dây", "B00001", null));
+
+        assertTrue(productSearchIndex.search("ban phim", 0, 10).orElseThrow().isEmpty());
+        assertEquals(Collections.singletonList(1), productSearchIndex.search("chuot", 0, 10).orElseThrow());
+
+        productSearchIndex.remove(1);
+
+        assertTrue(productSearchIndex.search("chuot", 0, 10).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void search_shouldPaginateResults() {
+        ready();
+        for (int i = 1; i <= 5; i++) {
+            productSearchIndex.index(product(i, "Laptop " + i, "L0000" + i, null));
+        }
+
+        assertEquals(Arrays.asList(3, 4), productSearchIndex.search("laptop", 1, 2).orElseThrow());
+    }
+
+    @Test
+    void search_beyondResultWindow_shouldReturnEmptyPage() {
+        ready();
+        for (int i = 1; i <= 5; i++) {
+            productSearchIndex.index(product(i, "Laptop " + i, "L0000" + i, null));
+        }
+
+        assertTrue(productSearchIndex.search("laptop", Integer.MAX_VALUE, 50).orElseThrow().isEmpty());
+        assertTrue(productSearchIndex.search("laptop", ProductSearchIndex.MAX_RESULT_WINDOW, 1).orElseThrow().isEmpty());
+        assertTrue(productSearchIndex.search("laptop", 3, 2).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void search_shouldKeepBestMatchesAcrossPostings() {
+        ready();
+        for (int i = 1; i <= 200; i++) {
+            productSearchIndex.index(product(i, "Phụ kiện " + i, "P" + i, "Dùng cho laptop"));
+        }
+        productSearchIndex.index(product(500, "Laptop Dell", "L00500", null));
+        productSearchIndex.index(product(300, "Laptop", "L00300", null));
+
+        assertEquals(Arrays.asList(300, 500, 1), productSearchIndex.search("laptop", 0, 3).orElseThrow());
+        assertEquals(Arrays.asList(2, 3), productSearchIndex.search("laptop", 1, 3).orElseThrow().subList(0, 2));
+    }
+
+    @Test
+    void rebuild_shouldKeepChangesMadeAfterBatchWasRead() {
+        List<ProductSearchView> batch = Arrays.asList(
+                view(1, "Bàn phím cơ", "B00001"), view(2, "Chuột không dây", "C00002"));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class))).thenAnswer(invocation -> {
+            // Product 1 is deleted and product 2 renamed while the batch is on its way
+            productSearchIndex.remove(1);
+            productSearchIndex.index(product(2, "Tai nghe", "C00002", null));
+            return batch;
+        });
+
+        productSearchIndex.rebuild();
+
+        assertTrue(productSearchIndex.search("ban phim", 0, 10).orElseThrow().isEmpty());
+        assertTrue(productSearchIndex.search("chuot", 0, 10).orElseThrow().isEmpty());
+        assertEquals(Collections.singletonList(2), productSearchIndex.search("tai nghe", 0, 10).orElseThrow());
+
+        // Once the rebuild is done, changes are applied as usual
+        productSearchIndex.index(product(1, "Bàn phím cơ", "B00001", null));
+        assertEquals(Collections.singletonList(1), productSearchIndex.search("ban phim", 0, 10).orElseThrow());
+    }
+
+    @Test
+    void normalize_shouldFoldDiacriticsAndPunctuation() {
+        assertEquals("dien thoai 5g", ProductSearchIndex.normalize("  Điện-thoại (5G) "));
+    }
+
+    private void ready() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        productSearchIndex.rebuild();
+    }
+
+    private static ProductSearchView view(int id, String name, String sku) {
+        ProductSearchView view = mock(ProductSearchView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getName()).thenReturn(name);
+        when(view.getSku()).thenReturn(sku);
+        return view;
+    }
+
+    private Product product(int id, String name, String sku, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setSku(sku);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,177 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.CursorPageResponse;
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.dto.ProductResponse;
+import com.pap_shop.entity.Category;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.ProductImage;
+import com.pap_shop.enums.ProductSortKey;
+import com.pap_shop.util.CursorPages;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Guards the catalog endpoints against N+1 queries: the number of SQL statements
+ * must not depend on the number of products returned.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ProductService.class, EntityCacheService.class})
+class ProductServiceQueryCountTest {
+
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    CloudinaryService cloudinaryService;
+
+    @MockBean
+    ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    SkuAllocator skuAllocator;
+
+    private Statistics statistics;
+    private Category phones;
+    private Category laptops;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        phones = entityManager.persist(new Category(null, "Phones"));
+        laptops = entityManager.persist(new Category(null, "Laptops"));
+    }
+
+    @Test
+    void getAllProducts_usesSameNumberOfQueriesForAnyCatalogSize() {
+        persistProducts(3);
+        long small = countQueries(() -> assertEquals(3, productService.getAllProducts().size()));
+
+        persistProducts(30);
+        long large = countQueries(() -> {
+            List<ProductResponse> products = productService.getAllProducts();
+            assertEquals(CursorPages.DEFAULT_SIZE, products.size());
+            assertEquals(2, products.get(0).getImages().size());
+            assertNotNull(products.get(0).getCategory().getName());
+        });
+
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void getProductsByCategoryID_usesTwoQueries() {
+        persistProducts(20);
+
+        long queries = countQueries(() -> assertEquals(10, productService.getProductsByCategoryID(phones.getID()).size()));
+
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void getProducts_walksEveryFilteredRowOnceInSortOrder() {
+        persistProducts(25);
+        ProductFilter filter = new ProductFilter(phones.getID(), new BigDecimal("50"), new BigDecimal("150"), true, null);
+        List<Integer> ids = new ArrayList<>();
+
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            AtomicReference<CursorPageResponse<ProductResponse>> page = new AtomicReference<>();
+            long queries = countQueries(() ->
+                    page.set(productService.getProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, pageCursor, 5)));
+            assertEquals(2, queries);
+            page.get().getItems().forEach(product -> ids.add(product.getId()));
+            cursor = page.get().getNextCursor();
+        } while (cursor != null);
+
+        // Prices are equal, so the ID breaks the tie in the same direction
+        List<Integer> expected = new ArrayList<>(ids);
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(13, ids.size());
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void searchProductsByName_usesTwoQueries() {
+        persistProducts(20);
+        when(productSearchIndex.search(anyString(), anyInt(), anyInt())).thenReturn(Optional.empty());
+
+        long queries = countQueries(() -> assertEquals(20, productService.searchProductsByName("product", 0, 50).size()));
+
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void getProductsByID_loadsCategoryAndImagesInOneQuery() {
+        Integer id = persistProducts(1).get(0).getId();
+
+        long queries = countQueries(() -> {
+            ProductResponse product = productService.getProductsByID(id).orElseThrow();
+            assertEquals(2, product.getImages().size());
+            assertEquals("Phones", product.getCategory().getName());
+        });
+
+        assertEquals(1, queries);
+    }
+
+    private long countQueries(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Product> persistProducts(int count) {
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Product " + System.nanoTime());
+            product.setSku("SKU-" + System.nanoTime());
+            product.setCategory(i % 2 == 0 ? phones : laptops);
+            product.setPrice(new BigDecimal("100.00"));
+            product.setStock(5);
+            product.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(product);
+            for (int j = 0; j < 2; j++) {
+                ProductImage image = new ProductImage();
+                image.setImageUrl("https://img/" + System.nanoTime() + ".jpg");
+                image.setProduct(product);
+                entityManager.persist(image);
+            }
+            products[i] = product;
+        }
+        return Arrays.asList(products);
+    }
+}
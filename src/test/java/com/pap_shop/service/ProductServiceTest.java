@@ -1,24 +1,41 @@
 package com.pap_shop.service;
 
 import com.pap_shop.dto.AddProductRequest;
+import com.pap_shop.dto.CursorPageResponse;
+import com.pap_shop.dto.ProductFilter;
+import com.pap_shop.dto.ProductResponse;
+import com.pap_shop.dto.RatingSummaryResponse;
 import com.pap_shop.dto.UpdateProductRequest;
 import com.pap_shop.entity.Category;
 import com.pap_shop.entity.Product;
+import com.pap_shop.entity.ProductImage;
+import com.pap_shop.enums.ProductSortKey;
 import com.pap_shop.exception.ResourceNotFoundException;
 import com.pap_shop.repository.CategoryRepository;
 import com.pap_shop.repository.ProductRepository;
 import com.pap_shop.repository.ProductImageRepository;
+import com.pap_shop.repository.projection.ProductImageView;
+import com.pap_shop.repository.projection.ProductSummaryView;
+import com.pap_shop.util.CursorCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -27,6 +44,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class ProductServiceTest {
 
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
     @Mock
     ProductRepository productRepository;
 
@@ -39,6 +58,18 @@ class ProductServiceTest {
     @Mock
     CloudinaryService cloudinaryService;
 
+    @Mock
+    ProductSearchIndex productSearchIndex;
+
+    @Mock
+    EntityCacheService entityCacheService;
+
+    @Mock
+    SkuAllocator skuAllocator;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     ProductService productService;
 
@@ -64,35 +95,54 @@ class ProductServiceTest {
     void searchProductsByName_whenProductsFound_shouldReturnMatchingProducts() {
         // Given
         String searchTerm = "iphone";
-        Product product1 = new Product();
-        product1.setName("iPhone 15");
-        Product product2 = new Product();
-        product2.setName("iPhone 14 Pro");
-        List<Product> expectedProducts = Arrays.asList(product1, product2);
-        
-        when(productRepository.findByNameContainingIgnoreCase(searchTerm)).thenReturn(expectedProducts);
+        List<ProductSummaryView> summaries = Arrays.asList(summary(1, "iPhone 15"), summary(2, "iPhone 14 Pro"));
+
+        when(productSearchIndex.search(eq(searchTerm), anyInt(), anyInt())).thenReturn(Optional.empty());
+        when(productRepository.findSummariesByNameContaining(eq(searchTerm), any(Pageable.class))).thenReturn(summaries);
+        when(productImageRepository.findViewsByProductIdIn(Arrays.asList(1, 2))).thenReturn(Collections.emptyList());
 
         // When
-        List<Product> result = productService.searchProductsByName(searchTerm);
+        List<ProductResponse> result = productService.searchProductsByName(searchTerm);
 
         // Then
         assertEquals(2, result.size());
-        assertEquals(expectedProducts, result);
-        verify(productRepository).findByNameContainingIgnoreCase(searchTerm);
+        assertEquals("iPhone 15", result.get(0).getName());
+        assertEquals("iPhone 14 Pro", result.get(1).getName());
+        verify(productRepository).findSummariesByNameContaining(eq(searchTerm), any(Pageable.class));
+    }
+
+    @Test
+    void searchProductsByName_whenIndexReady_shouldReturnProductsInRankedOrder() {
+        // Given
+        when(productSearchIndex.search("iphone", 0, 20)).thenReturn(Optional.of(Arrays.asList(2, 1)));
+        when(productRepository.findSummariesByIdIn(Arrays.asList(2, 1)))
+                .thenReturn(Arrays.asList(summary(1, "iPhone 15"), summary(2, "iPhone 14 Pro")));
+        when(productImageRepository.findViewsByProductIdIn(Arrays.asList(2, 1)))
+                .thenReturn(Collections.singletonList(image(2, 5, "https://img/5.jpg")));
+
+        // When
+        List<ProductResponse> result = productService.searchProductsByName("iphone", 0, 20);
+
+        // Then
+        assertEquals(2, result.get(0).getId());
+        assertEquals(1, result.get(1).getId());
+        assertEquals("https://img/5.jpg", result.get(0).getImages().get(0).getImageUrl());
+        assertTrue(result.get(1).getImages().isEmpty());
+        verify(productRepository, never()).findSummariesByNameContaining(eq("iphone"), any(Pageable.class));
     }
 
     @Test
     void searchProductsByName_whenNoProductsFound_shouldReturnEmptyList() {
         // Given
         String searchTerm = "nonexistent";
-        when(productRepository.findByNameContainingIgnoreCase(searchTerm)).thenReturn(Collections.emptyList());
+        when(productSearchIndex.search(eq(searchTerm), anyInt(), anyInt())).thenReturn(Optional.of(Collections.emptyList()));
 
         // When
-        List<Product> result = productService.searchProductsByName(searchTerm);
+        List<ProductResponse> result = productService.searchProductsByName(searchTerm);
 
         // Then
         assertTrue(result.isEmpty());
-        verify(productRepository).findByNameContainingIgnoreCase(searchTerm);
+        verifyNoInteractions(productImageRepository);
     }
 
     @Test
@@ -115,6 +165,23 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void addProduct_withoutSku_shouldAllocateSkuForCategory() {
+        AddProductRequest request = new AddProductRequest();
+        request.setName("iPhone 15");
+        request.setPrice(new BigDecimal("999.99"));
+        request.setCategory(1);
+        request.setStock(10);
+
+        when(categoryRepository.findById(1)).thenReturn(Optional.of(testCategory));
+        when(skuAllocator.allocate("Electronics")).thenReturn("E000001");
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product result = productService.addProduct(request);
+
+        assertEquals("E000001", result.getSku());
+    }
+
     @Test
     void addProduct_withInvalidCategory_shouldThrowException() {
         AddProductRequest request = new AddProductRequest();
@@ -126,24 +193,90 @@ class ProductServiceTest {
     }
 
     @Test
-    void getAllProducts_shouldReturnAllProducts() {
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findAll()).thenReturn(products);
+    void getAllProducts_shouldReturnFirstPage() {
+        when(productRepository.findCatalogSlice(any(ProductFilter.class), eq(ProductSortKey.ID), eq(Sort.Direction.ASC),
+                isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary(1, "iPhone 15"))));
+        when(productImageRepository.findViewsByProductIdIn(Arrays.asList(1)))
+                .thenReturn(Arrays.asList(image(1, 10, "a.jpg"), image(1, 11, "b.jpg")));
         
-        List<Product> result = productService.getAllProducts();
+        List<ProductResponse> result = productService.getAllProducts();
         
         assertEquals(1, result.size());
-        assertEquals(testProduct, result.get(0));
+        assertEquals("iPhone 15", result.get(0).getName());
+        assertEquals("Electronics", result.get(0).getCategory().getName());
+        assertEquals(2, result.get(0).getImages().size());
+    }
+
+    @Test
+    void getProducts_withMoreRows_shouldReturnCursorOfLastRow() {
+        ProductFilter filter = new ProductFilter(null, new BigDecimal("100"), null, true, null);
+        when(productRepository.findCatalogSlice(eq(filter), eq(ProductSortKey.PRICE), eq(Sort.Direction.DESC),
+                isNull(), isNull(), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary(1, "iPhone 15"), summary(2, "iPhone 14")), PageRequest.of(0, 2), true));
+        when(productImageRepository.findViewsByProductIdIn(Arrays.asList(1, 2))).thenReturn(Collections.emptyList());
+
+        CursorPageResponse<ProductResponse> page = productService.getProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(CursorCodec.encode("PRICE", "DESC", "999.99", 2), page.getNextCursor());
+    }
+
+    @Test
+    void getProducts_sortedByRating_shouldReturnRatingAndCursorOfLastRow() {
+        ProductFilter filter = new ProductFilter(null, null, null, null, new BigDecimal("4"));
+        when(productRepository.findCatalogSlice(eq(filter), eq(ProductSortKey.RATING), eq(Sort.Direction.DESC),
+                isNull(), isNull(), eq(PageRequest.of(0, 1))))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(summary(1, "iPhone 15")), PageRequest.of(0, 1), true));
+        when(productImageRepository.findViewsByProductIdIn(Collections.singletonList(1))).thenReturn(Collections.emptyList());
+
+        CursorPageResponse<ProductResponse> page = productService.getProducts(filter, ProductSortKey.RATING, Sort.Direction.DESC, null, 1);
+
+        RatingSummaryResponse rating = page.getItems().get(0).getRating();
+        assertEquals(2, rating.getCount());
+        assertEquals(new BigDecimal("4.50"), rating.getAverage());
+        assertEquals(Arrays.asList(0, 0, 0, 1, 1), rating.getHistogram());
+        assertEquals(CursorCodec.encode("RATING", "DESC", "4.50", 1), page.getNextCursor());
+    }
+
+    @Test
+    void getProducts_withCursor_shouldReadAfterCursorPosition() {
+        ProductFilter filter = new ProductFilter();
+        String cursor = CursorCodec.encode("PRICE", "DESC", "999.99", 2);
+        when(productRepository.findCatalogSlice(eq(filter), eq(ProductSortKey.PRICE), eq(Sort.Direction.DESC),
+                eq(new BigDecimal("999.99")), eq(2), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        CursorPageResponse<ProductResponse> page = productService.getProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, cursor, 2);
+
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(productImageRepository);
+    }
+
+    @Test
+    void getProducts_withCursorOfAnotherSortOrder_shouldThrowIllegalArgument() {
+        String cursor = CursorCodec.encode("PRICE", "DESC", "999.99", 2);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProducts(new ProductFilter(), ProductSortKey.STOCK, Sort.Direction.DESC, cursor, 2));
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void getProductsByID_whenExists_shouldReturnProduct() {
-        when(productRepository.findById(1)).thenReturn(Optional.of(testProduct));
+        ProductImage image = new ProductImage(3, "a.jpg", testProduct);
+        testProduct.setImages(Collections.singletonList(image));
+        when(productRepository.findWithDetailsById(1)).thenReturn(Optional.of(testProduct));
         
-        Optional<Product> result = productService.getProductsByID(1);
+        Optional<ProductResponse> result = productService.getProductsByID(1);
         
         assertTrue(result.isPresent());
-        assertEquals(testProduct, result.get());
+        assertEquals("iPhone 15", result.get().getName());
+        assertEquals(1, result.get().getCategory().getId());
+        assertEquals("a.jpg", result.get().getImages().get(0).getImageUrl());
     }
 
     @Test
@@ -179,12 +312,41 @@ class ProductServiceTest {
 
     @Test
     void getProductsByCategoryID_shouldReturnProductsInCategory() {
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findAllByCategoryID(1)).thenReturn(products);
+        when(productRepository.findCatalogSlice(eq(new ProductFilter(1, null, null, null, null)), eq(ProductSortKey.ID),
+                eq(Sort.Direction.ASC), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(summary(1, "iPhone 15"))));
+        when(productImageRepository.findViewsByProductIdIn(Arrays.asList(1))).thenReturn(Collections.emptyList());
         
-        List<Product> result = productService.getProductsByCategoryID(1);
+        List<ProductResponse> result = productService.getProductsByCategoryID(1);
         
         assertEquals(1, result.size());
-        assertEquals(testProduct, result.get(0));
+        assertEquals(1, result.get(0).getId());
+    }
+
+    private static ProductSummaryView summary(Integer id, String name) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("name", name);
+        values.put("sku", "SKU" + id);
+        values.put("price", new BigDecimal("999.99"));
+        values.put("stock", 10);
+        values.put("categoryId", 1);
+        values.put("categoryName", "Electronics");
+        values.put("ratingCount", 2);
+        values.put("ratingAverage", new BigDecimal("4.50"));
+        values.put("rating1", 0);
+        values.put("rating2", 0);
+        values.put("rating3", 0);
+        values.put("rating4", 1);
+        values.put("rating5", 1);
+        return PROJECTIONS.createProjection(ProductSummaryView.class, values);
+    }
+
+    private static ProductImageView image(Integer productId, Integer id, String url) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("productId", productId);
+        values.put("id", id);
+        values.put("imageUrl", url);
+        return PROJECTIONS.createProjection(ProductImageView.class, values);
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.RecentOrderResponse;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.event.OrderCreatedEvent;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecentOrdersServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private RecentOrdersService recentOrdersService;
+
+    @BeforeEach
+    void setUp() {
+        recentOrdersService = new RecentOrdersService(orderRepository, 3);
+    }
+
+    @Test
+    void getRecentOrders_BeforeLoad_QueriesLimitedSummaries() {
+        List<RecentOrderResponse> newest = Arrays.asList(summary(2, 2000), summary(1, 1000));
+        when(orderRepository.findRecentSummaries(PageRequest.of(0, 3))).thenReturn(newest);
+
+        assertEquals(newest, recentOrdersService.getRecentOrders());
+    }
+
+    @Test
+    void onOrderCreated_OverwritesOldestAndReturnsNewestFirst() {
+        when(orderRepository.findRecentSummaries(PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(summary(2, 2000), summary(1, 1000)));
+        recentOrdersService.reload();
+
+        recentOrdersService.onOrderCreated(created(4, 4000));
+        recentOrdersService.onOrderCreated(created(3, 3000));
+
+        List<RecentOrderResponse> orders = recentOrdersService.getRecentOrders();
+        assertEquals(Arrays.asList(4, 3, 2), Arrays.asList(orders.get(0).getId(), orders.get(1).getId(), orders.get(2).getId()));
+        assertEquals(2L, orders.get(0).getItemCount());
+        verify(orderRepository, times(1)).findRecentSummaries(any());
+    }
+
+    @Test
+    void onOrderStatusChanged_UpdatesBufferedOrder() {
+        when(orderRepository.findRecentSummaries(PageRequest.of(0, 3))).thenReturn(Arrays.asList(summary(1, 1000)));
+        recentOrdersService.reload();
+
+        recentOrdersService.onOrderStatusChanged(new OrderStatusChangedEvent(1, OrderStatus.PENDING,
+                OrderStatus.CANCELED, new BigDecimal("20.00")));
+
+        assertEquals(OrderStatus.CANCELED, recentOrdersService.getRecentOrders().get(0).getStatus());
+    }
+
+    @Test
+    void reload_KeepsOrdersPlacedOrChangedWhileQuerying() {
+        when(orderRepository.findRecentSummaries(PageRequest.of(0, 3))).thenAnswer(invocation -> {
+            // Order 3 commits after the query's snapshot; order 1 is canceled before the result is applied
+            recentOrdersService.onOrderCreated(created(3, 3000));
+            recentOrdersService.onOrderStatusChanged(new OrderStatusChangedEvent(1, OrderStatus.PENDING,
+                    OrderStatus.CANCELED, new BigDecimal("20.00")));
+            return Arrays.asList(summary(2, 2000), summary(1, 1000));
+        });
+
+        recentOrdersService.reload();
+
+        List<RecentOrderResponse> orders = recentOrdersService.getRecentOrders();
+        assertEquals(Arrays.asList(3, 2, 1), Arrays.asList(orders.get(0).getId(), orders.get(1).getId(), orders.get(2).getId()));
+        assertEquals(OrderStatus.CANCELED, orders.get(2).getStatus());
+
+        // Changes after the reload only go to the buffer
+        recentOrdersService.onOrderCreated(created(4, 4000));
+        assertEquals(4, recentOrdersService.getRecentOrders().get(0).getId());
+    }
+
+    private static RecentOrderResponse summary(int id, long createdAt) {
+        return new RecentOrderResponse(id, "Customer " + id, new BigDecimal("20.00"), OrderStatus.PENDING,
+                new Timestamp(createdAt), 1L);
+    }
+
+    private static OrderCreatedEvent created(int id, long createdAt) {
+        return new OrderCreatedEvent(id, "Customer " + id, new BigDecimal("20.00"), OrderStatus.PENDING,
+                new Timestamp(createdAt), 2);
+    }
+}
@@ -0,0 +1,205 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.RevenuePointResponse;
+import com.pap_shop.entity.Order;
+import com.pap_shop.entity.Revenue;
+import com.pap_shop.entity.RevenueRollup;
+import com.pap_shop.enums.OrderStatus;
+import com.pap_shop.enums.RevenuePeriod;
+import com.pap_shop.event.OrderStatusChangedEvent;
+import com.pap_shop.repository.OrderRepository;
+import com.pap_shop.repository.RevenueRepository;
+import com.pap_shop.repository.RevenueRollupRepository;
+import com.pap_shop.repository.projection.RevenueBalanceView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueLedgerServiceTest {
+
+    @Mock
+    private RevenueRepository revenueRepository;
+
+    @Mock
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private DataMigrationService dataMigrationService;
+
+    @InjectMocks
+    private RevenueLedgerService revenueLedgerService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onOrderStatusChanged_Delivered_BooksRevenueInEveryRollup() {
+        Order order = new Order();
+        when(orderRepository.getReferenceById(7)).thenReturn(order);
+
+        revenueLedgerService.onOrderStatusChanged(new OrderStatusChangedEvent(7, OrderStatus.SHIPPED,
+                OrderStatus.DELIVERED, new BigDecimal("20.00")));
+
+        ArgumentCaptor<Revenue> entry = ArgumentCaptor.forClass(Revenue.class);
+        verify(revenueRepository).save(entry.capture());
+        assertSame(order, entry.getValue().getOrder());
+        assertEquals(new BigDecimal("20.00"), entry.getValue().getTotalAmount());
+
+        ArgumentCaptor<List<RevenueRollup>> increments = ArgumentCaptor.forClass(List.class);
+        verify(revenueRollupRepository).add(increments.capture());
+        LocalDateTime bookedAt = entry.getValue().getRevenueDate().toLocalDateTime();
+        assertEquals(3, increments.getValue().size());
+        for (RevenueRollup increment : increments.getValue()) {
+            assertEquals(increment.getPeriod().truncate(bookedAt), increment.getBucketStart());
+            assertEquals(new BigDecimal("20.00"), increment.getAmount());
+            assertEquals(Integer.valueOf(1), increment.getOrderCount());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onOrderStatusChanged_CanceledAfterDelivery_ReversesRevenue() {
+        revenueLedgerService.onOrderStatusChanged(new OrderStatusChangedEvent(7, OrderStatus.DELIVERED,
+                OrderStatus.CANCELED, new BigDecimal("20.00")));
+
+        ArgumentCaptor<Revenue> entry = ArgumentCaptor.forClass(Revenue.class);
+        verify(revenueRepository).save(entry.capture());
+        assertEquals(new BigDecimal("-20.00"), entry.getValue().getTotalAmount());
+
+        ArgumentCaptor<List<RevenueRollup>> increments = ArgumentCaptor.forClass(List.class);
+        verify(revenueRollupRepository).add(increments.capture());
+        assertTrue(increments.getValue().stream().allMatch(increment -> increment.getOrderCount() == -1));
+    }
+
+    @Test
+    void onOrderStatusChanged_NotCrossingDelivered_WritesNothing() {
+        revenueLedgerService.onOrderStatusChanged(new OrderStatusChangedEvent(7, OrderStatus.PENDING,
+                OrderStatus.CANCELED, new BigDecimal("20.00")));
+
+        verifyNoInteractions(revenueRepository, revenueRollupRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bookMissingEntries_BooksOnlyWhatTheLedgerIsMissing() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 10, 30);
+        List<RevenueBalanceView> balances = Arrays.asList(
+                // Delivered before the ledger existed
+                balance(1, createdAt, "20.00"),
+                // Booked live since, already balanced
+                balance(2, createdAt, "0.00"),
+                // Delivered before the ledger existed, canceled live since: only the reversal is booked
+                balance(3, createdAt.plusDays(1), "5.00"));
+        when(revenueRepository.findLedgerBalances(eq(0), any(Pageable.class))).thenReturn(balances);
+        when(orderRepository.getReferenceById(anyInt())).thenAnswer(invocation -> new Order());
+
+        revenueLedgerService.bookMissingEntries();
+
+        ArgumentCaptor<List<Revenue>> entries = ArgumentCaptor.forClass(List.class);
+        verify(revenueRepository).saveAll(entries.capture());
+        assertEquals(2, entries.getValue().size());
+        assertEquals(Timestamp.valueOf(createdAt), entries.getValue().get(0).getRevenueDate());
+
+        ArgumentCaptor<List<RevenueRollup>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(revenueRollupRepository).add(rollups.capture());
+        List<RevenueRollup> months = new ArrayList<>();
+        for (RevenueRollup rollup : rollups.getValue()) {
+            if (rollup.getPeriod() == RevenuePeriod.MONTH) {
+                months.add(rollup);
+            }
+        }
+        assertEquals(1, months.size());
+        assertEquals(new BigDecimal("25.00"), months.get(0).getAmount());
+        assertEquals(Integer.valueOf(2), months.get(0).getOrderCount());
+        assertEquals(5, rollups.getValue().size());
+    }
+
+    @Test
+    void bookMissingEntries_CompleteLedger_WritesNoRollups() {
+        when(revenueRepository.findLedgerBalances(eq(0), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        revenueLedgerService.bookMissingEntries();
+
+        verifyNoInteractions(revenueRollupRepository);
+    }
+
+    @Test
+    void getRevenue_FillsEmptyBucketsWithZero() {
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 10, 30);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 4, 0, 0);
+        when(revenueRollupRepository.findByPeriodAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                RevenuePeriod.DAY, LocalDateTime.of(2026, 3, 1, 0, 0), to))
+                .thenReturn(Arrays.asList(
+                        new RevenueRollup(RevenuePeriod.DAY, LocalDateTime.of(2026, 3, 1, 0, 0), new BigDecimal("15.00"), 2),
+                        new RevenueRollup(RevenuePeriod.DAY, LocalDateTime.of(2026, 3, 3, 0, 0), new BigDecimal("5.00"), 1)));
+
+        List<RevenuePointResponse> points = revenueLedgerService.getRevenue(RevenuePeriod.DAY, from, to);
+
+        assertEquals(3, points.size());
+        assertEquals(new BigDecimal("15.00"), points.get(0).getAmount());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 0, 0), points.get(1).getBucketStart());
+        assertEquals(BigDecimal.ZERO, points.get(1).getAmount());
+        assertEquals(1, points.get(2).getOrders());
+    }
+
+    @Test
+    void getRevenue_TooManyBuckets_ThrowsIllegalArgument() {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> revenueLedgerService.getRevenue(RevenuePeriod.HOUR, from, from.plusDays(60)));
+        assertThrows(IllegalArgumentException.class,
+                () -> revenueLedgerService.getRevenue(RevenuePeriod.DAY, from, from));
+        verify(revenueRollupRepository, never())
+                .findByPeriodAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(any(), any(), any());
+    }
+
+    @Test
+    void revenuePeriod_TruncatesToBucketStart() {
+        LocalDateTime time = LocalDateTime.of(2026, 5, 17, 13, 45, 12);
+
+        assertEquals(LocalDateTime.of(2026, 5, 17, 13, 0), RevenuePeriod.HOUR.truncate(time));
+        assertEquals(LocalDateTime.of(2026, 5, 17, 0, 0), RevenuePeriod.DAY.truncate(time));
+        assertEquals(LocalDateTime.of(2026, 5, 1, 0, 0), RevenuePeriod.MONTH.truncate(time));
+        assertEquals(LocalDateTime.of(2026, 6, 1, 0, 0), RevenuePeriod.MONTH.next(RevenuePeriod.MONTH.truncate(time)));
+    }
+
+    private static RevenueBalanceView balance(int orderId, LocalDateTime createdAt, String amount) {
+        return new RevenueBalanceView() {
+            @Override
+            public Integer getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public Timestamp getCreatedAt() {
+                return Timestamp.valueOf(createdAt);
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.pap_shop.service;
+
+import com.pap_shop.dto.ReviewRequest;
+import com.pap_shop.entity.Product;
+import com.pap_shop.entity.Review;
+import com.pap_shop.entity.User;
+import com.pap_shop.repository.ProductRepository;
+import com.pap_shop.repository.ReviewRepository;
+import com.pap_shop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private DataMigrationService dataMigrationService;
+
+    @InjectMocks
+    private ReviewService reviewService;
+
+    private User user;
+    private Product product;
+    private Review review;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(7);
+        user.setUsername("customer");
+        product = new Product();
+        product.setId(1);
+        review = new Review(3, product, user, 2, "Okay", null);
+    }
+
+    @Test
+    void addReview_shouldAddRatingToProductAggregates() {
+        when(userRepository.findById(7)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(reviewRepository.findByProductIdAndUserId(1, 7)).thenReturn(Optional.empty());
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.addReview(1, 7, request(4));
+
+        verify(productRepository).addRatings(1, new int[]{0, 0, 0, 1, 0});
+        verify(entityCacheService).evictProduct(1);
+    }
+
+    @Test
+    void updateReview_shouldMoveRatingInOneUpdate() {
+        when(reviewRepository.findById(3)).thenReturn(Optional.of(review));
+        when(reviewRepository.save(review)).thenReturn(review);
+
+        reviewService.updateReview(3, 7, request(5));
+
+        verify(productRepository).addRatings(1, new int[]{0, -1, 0, 0, 1});
+    }
+
+    @Test
+    void updateReview_withSameRating_shouldLeaveAggregatesUntouched() {
+        when(reviewRepository.findById(3)).thenReturn(Optional.of(review));
+        when(reviewRepository.save(review)).thenReturn(review);
+
+        reviewService.updateReview(3, 7, request(2));
+
+        verify(productRepository, never()).addRatings(anyInt(), any());
+    }
+
+    @Test
+    void deleteReview_shouldRemoveRatingFromProductAggregates() {
+        when(reviewRepository.findById(3)).thenReturn(Optional.of(review));
+
+        reviewService.deleteReview(3, 7);
+
+        verify(reviewRepository).delete(review);
+        verify(productRepository).addRatings(1, new int[]{0, -1, 0, 0, 0});
+    }
+
+    @Test
+    void deleteReview_byAnotherUser_shouldThrowAndLeaveAggregatesUntouched() {
+        when(reviewRepository.findById(3)).thenReturn(Optional.of(review));
+
+        assertThrows(RuntimeException.class, () -> reviewService.deleteReview(3, 8));
+        verify(productRepository, never()).addRatings(anyInt(), any());
+    }
+
+    private static ReviewRequest request(int rating) {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(rating);
+        request.setComment("Comment");
+        return request;
+    }
+}
@@ -26,6 +26,9 @@ public class RoleServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityCacheService entityCacheService;
+
     @InjectMocks
     private RoleService roleService;
 
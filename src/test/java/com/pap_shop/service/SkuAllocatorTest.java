@@ -0,0 +1,120 @@
+package com.pap_shop.service;
+
+import com.pap_shop.repository.SkuCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SkuAllocatorTest {
+
+    @Mock
+    SkuCounterRepository skuCounterRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    /**
+     * Counter rows of the sku_counters table.
+     */
+    private final Map<String, Long> counters = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(skuCounterRepository.advance(anyString(), anyLong())).thenAnswer(invocation -> {
+            String prefix = invocation.getArgument(0);
+            long count = invocation.getArgument(1);
+            return counters.computeIfPresent(prefix, (key, value) -> value + count) != null ? 1 : 0;
+        });
+        lenient().when(skuCounterRepository.findNextValue(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(counters.get(invocation.<String>getArgument(0))));
+        lenient().when(skuCounterRepository.create(anyString(), anyLong())).thenAnswer(invocation -> {
+            if (counters.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return 1;
+        });
+    }
+
+    @Test
+    void allocate_returnsConsecutiveSkusAndReservesOncePerBlock() {
+        SkuAllocator allocator = new SkuAllocator(skuCounterRepository, transactionManager, 3);
+
+        List<String> skus = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            skus.add(allocator.allocate("Điện thoại"));
+        }
+
+        assertEquals(List.of("D000001", "D000002", "D000003", "D000004", "D000005", "D000006", "D000007"), skus);
+        verify(skuCounterRepository, times(3)).advance("D", 3);
+        verify(skuCounterRepository, times(1)).create("D", 4L);
+        assertEquals(10L, counters.get("D"));
+    }
+
+    @Test
+    void allocate_whenAnotherNodeCreatesTheCounterFirst_reservesTheFollowingBlock() {
+        SkuAllocator allocator = new SkuAllocator(skuCounterRepository, transactionManager, 3);
+        // The other node's insert lands between this node's 0-row advance and its own insert
+        when(skuCounterRepository.advance("D", 3)).thenReturn(0)
+                .thenAnswer(invocation -> counters.computeIfPresent("D", (key, value) -> value + 3) != null ? 1 : 0);
+        doAnswer(invocation -> {
+            counters.put("D", 4L);
+            throw new DataIntegrityViolationException("Duplicate entry");
+        }).when(skuCounterRepository).create("D", 4L);
+
+        assertEquals("D000004", allocator.allocate("Điện thoại"));
+        assertEquals(7L, counters.get("D"));
+    }
+
+    @Test
+    void allocate_keepsSeparateCountersPerPrefix() {
+        SkuAllocator allocator = new SkuAllocator(skuCounterRepository, transactionManager, 10);
+
+        assertEquals("L000001", allocator.allocate("Laptop"));
+        assertEquals("P000001", allocator.allocate("Phụ kiện"));
+        assertEquals("L000002", allocator.allocate("Loa"));
+        assertEquals("X000001", allocator.allocate("123"));
+    }
+
+    @Test
+    void allocate_concurrently_neverReturnsTheSameSku() throws Exception {
+        SkuAllocator allocator = new SkuAllocator(skuCounterRepository, transactionManager, 100);
+        Set<String> skus = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        skus.add(allocator.allocate("Phones"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(40000, skus.size());
+        verify(skuCounterRepository, times(400)).advance("P", 100);
+    }
+}
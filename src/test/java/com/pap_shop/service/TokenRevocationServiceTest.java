@@ -0,0 +1,74 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.InvalidatedToken;
+import com.pap_shop.repository.InvalidatedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationService = new TokenRevocationService(invalidatedTokenRepository, meterRegistry);
+    }
+
+    @Test
+    void isRevoked_unknownToken_shouldNotQueryDatabase() {
+        assertFalse(tokenRevocationService.isRevoked("unknown-jti"));
+
+        verify(invalidatedTokenRepository, never()).existsByJti(any());
+        assertEquals(1.0, meterRegistry.get("jwt.revocation.checks").tag("outcome", "filtered").counter().count());
+    }
+
+    @Test
+    void revoke_shouldPersistAndAnswerFromMemory() {
+        when(invalidatedTokenRepository.existsByJti("jti-1")).thenReturn(false);
+
+        tokenRevocationService.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        verify(invalidatedTokenRepository).save(any(InvalidatedToken.class));
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        verify(invalidatedTokenRepository, times(1)).existsByJti("jti-1");
+        assertEquals(1.0, meterRegistry.get("jwt.revocation.checks").tag("outcome", "cache").counter().count());
+    }
+
+    @Test
+    void reload_shouldWarmCacheFromDatabase() {
+        when(invalidatedTokenRepository.findByExpiryTimeAfter(any(Instant.class)))
+                .thenReturn(Collections.singletonList(new InvalidatedToken("jti-2", Instant.now().plusSeconds(60))));
+
+        tokenRevocationService.reload();
+
+        assertTrue(tokenRevocationService.isRevoked("jti-2"));
+        verify(invalidatedTokenRepository, never()).existsByJti(any());
+    }
+
+    @Test
+    void prune_shouldForgetExpiredTokens() {
+        when(invalidatedTokenRepository.existsByJti("jti-3")).thenReturn(false);
+        tokenRevocationService.revoke("jti-3", Instant.now().minusSeconds(1));
+
+        tokenRevocationService.prune();
+
+        assertFalse(tokenRevocationService.isRevoked("jti-3"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.pap_shop.service;
+
+import com.pap_shop.entity.Roles;
+import com.pap_shop.entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET_KEY = "fh8d+sYvG+GDpR1ibC0WMsD7q40pTwc4x1d5dTZ1t9nO83ge46CI5JNhbpB9bM9W";
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenService tokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenService = new TokenService(SECRET_KEY, meterRegistry);
+        user = User.builder()
+                .id(7)
+                .username("customer")
+                .role(new Roles(2, "USER"))
+                .build();
+    }
+
+    @Test
+    void issue_ThenDecode_ReturnsClaims() {
+        String token = tokenService.issue(user);
+
+        Jwt jwt = tokenService.decode(token);
+
+        assertEquals("customer", jwt.getSubject());
+        assertEquals(7, ((Number) jwt.getClaims().get("uid")).intValue());
+        assertEquals("USER", jwt.getClaimAsString("scope"));
+        assertNotNull(jwt.getId());
+        assertNotNull(jwt.getIssuedAt());
+        assertEquals(jwt.getIssuedAt().plusSeconds(86400), jwt.getExpiresAt());
+    }
+
+    @Test
+    void issue_TokenIsAcceptedByNimbusDecoder() {
+        NimbusJwtDecoder nimbus = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HS256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+
+        Jwt jwt = nimbus.decode(tokenService.issue(user));
+
+        assertEquals("customer", jwt.getSubject());
+        assertEquals("USER", jwt.getClaimAsString("scope"));
+    }
+
+    @Test
+    void decode_AcceptsTokenIssuedBeforeTheTokenService() {
+        String token = Jwts.builder()
+                .setSubject("customer")
+                .setId("old-token")
+                .claim("scope", "ADMIN")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Jwt jwt = tokenService.decode(token);
+
+        assertEquals("old-token", jwt.getId());
+        assertEquals("ADMIN", jwt.getClaimAsString("scope"));
+    }
+
+    @Test
+    void decode_TamperedPayload_ThrowsBadJwtException() {
+        String token = tokenService.issue(user);
+        String[] parts = token.split("\\.");
+        String forged = Jwts.builder()
+                .setSubject("customer")
+                .claim("scope", "ADMIN")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-another-secret-key-0123".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact()
+                .split("\\.")[1];
+
+        assertThrows(BadJwtException.class, () -> tokenService.decode(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void decode_ExpiredToken_ThrowsJwtValidationException() {
+        String token = Jwts.builder()
+                .setSubject("customer")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 7_200_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(JwtValidationException.class, () -> tokenService.decode(token));
+    }
+
+    @Test
+    void decode_UnsignedToken_ThrowsBadJwtException() {
+        String token = Jwts.builder()
+                .setSubject("customer")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        assertThrows(BadJwtException.class, () -> tokenService.decode(token));
+        assertThrows(BadJwtException.class, () -> tokenService.decode("not-a-token"));
+    }
+
+    @Test
+    void decode_UnknownCriticalHeader_ThrowsBadJwtException() {
+        String token = Jwts.builder()
+                .setHeaderParam("crit", Collections.singletonList("x-policy"))
+                .setHeaderParam("x-policy", "strict")
+                .setSubject("customer")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(BadJwtException.class, () -> tokenService.decode(token));
+    }
+
+    @Test
+    void issueAndDecode_RecordAllocationPerToken() {
+        tokenService.decode(tokenService.issue(user));
+
+        assertEquals(1, meterRegistry.get("jwt.token.allocated").tag("operation", "issue").summary().count());
+        assertEquals(1, meterRegistry.get("jwt.token.allocated").tag("operation", "decode").summary().count());
+    }
+}
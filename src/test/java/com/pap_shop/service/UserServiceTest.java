@@ -2,28 +2,34 @@ package com.pap_shop.service;
 
 import com.pap_shop.entity.Roles;
 import com.pap_shop.entity.User;
+import com.pap_shop.event.UserCreatedEvent;
+import com.pap_shop.event.UserDeletedEvent;
+import com.pap_shop.exception.DuplicateResourceException;
 import com.pap_shop.repository.RoleRepository;
 import com.pap_shop.repository.UserRepository;
-import com.pap_shop.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +42,13 @@ public class UserServiceTest {
     private RoleRepository roleRepository;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private  UserService userService;
@@ -59,23 +71,24 @@ public class UserServiceTest {
     @Test
     void testRegister_Success(){
         //Arrange
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-        when(userRepository.findByPhone(anyString())).thenReturn(Optional.empty());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-        when(passwordEncoder.encode("123456")).thenReturn("encodedPassword");
+        when(userRepository.findConflictingFields("test@gmail.com", "123456789", "testUser"))
+                .thenReturn(Collections.emptyList());
+        when(passwordHashingService.encode("123456")).thenReturn("encodedPassword");
 
         Roles userRole = new Roles();
         userRole.setRoleId(2);
         userRole.setRole("User");
         when(roleRepository.findById(2)).thenReturn(Optional.of(userRole));
+        when(userRepository.save(testUser)).thenReturn(testUser);
 
         //Act
         userService.register(testUser);
 
         //Assert
-        verify(passwordEncoder, times(1)).encode("123456");
+        verify(passwordHashingService, times(1)).encode("123456");
         verify(roleRepository, times(1)).findById(2);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher).publishEvent(any(UserCreatedEvent.class));
         assertEquals("encodedPassword", testUser.getPassword());
         assertEquals(userRole, testUser.getRole());
     }
@@ -92,20 +105,18 @@ public class UserServiceTest {
         testUser.setPassword(encodedPassword);
 
         when(userRepository.findByEmail(loginIdentifier)).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(rawPassword, encodedPassword)).thenReturn(true);
+        when(passwordHashingService.matches(rawPassword, encodedPassword)).thenReturn(true);
 
-        try (MockedStatic<JwtUtil> mockedJwtUtil = Mockito.mockStatic(JwtUtil.class)) {
-            mockedJwtUtil.when(() -> JwtUtil.generateToken(testUser)).thenReturn(expectedToken);
+        when(tokenService.issue(testUser)).thenReturn(expectedToken);
 
-            // Act
-            String actualToken = userService.login(loginIdentifier, rawPassword);
+        // Act
+        String actualToken = userService.login(loginIdentifier, rawPassword);
 
-            // Assert
-            assertEquals(expectedToken, actualToken);
+        // Assert
+        assertEquals(expectedToken, actualToken);
 
-            verify(userRepository).findByEmail(loginIdentifier);
-            verify(passwordEncoder).matches(rawPassword, encodedPassword);
-        }
+        verify(userRepository).findByEmail(loginIdentifier);
+        verify(passwordHashingService).matches(rawPassword, encodedPassword);
     }
 
 
@@ -120,18 +131,16 @@ public class UserServiceTest {
         testUser.setPassword(encodedPassword);
 
         when(userRepository.findByPhone(loginIdentifier)).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(rawPassword, encodedPassword)).thenReturn(true);
+        when(passwordHashingService.matches(rawPassword, encodedPassword)).thenReturn(true);
 
-        try (MockedStatic<JwtUtil> mockedJwtUtil = Mockito.mockStatic(JwtUtil.class)) {
-            mockedJwtUtil.when(() -> JwtUtil.generateToken(testUser)).thenReturn(expectedToken);
+        when(tokenService.issue(testUser)).thenReturn(expectedToken);
 
-            // Act
-            String actualToken = userService.login(loginIdentifier, rawPassword);
+        // Act
+        String actualToken = userService.login(loginIdentifier, rawPassword);
 
-            // Assert
-            assertEquals(expectedToken, actualToken);
-            verify(userRepository).findByPhone(loginIdentifier);
-        }
+        // Assert
+        assertEquals(expectedToken, actualToken);
+        verify(userRepository).findByPhone(loginIdentifier);
     }
 
     @Test
@@ -145,18 +154,41 @@ public class UserServiceTest {
         testUser.setPassword(encodedPassword);
 
         when(userRepository.findByUsername(loginIdentifier)).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(rawPassword, encodedPassword)).thenReturn(true);
+        when(passwordHashingService.matches(rawPassword, encodedPassword)).thenReturn(true);
+
+        when(tokenService.issue(testUser)).thenReturn(expectedToken);
+
+        // Act
+        String actualToken = userService.login(loginIdentifier, rawPassword);
+
+        // Assert
+        assertEquals(expectedToken, actualToken);
+        verify(userRepository).findByUsername(loginIdentifier);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLogin_OutdatedHash_RehashesInBackground() {
+        // Arrange
+        String loginIdentifier = "testUser";
+        String rawPassword = "password123";
+        String encodedPassword = "$2a$10$outdatedHash";
 
-        try (MockedStatic<JwtUtil> mockedJwtUtil = Mockito.mockStatic(JwtUtil.class)) {
-            mockedJwtUtil.when(() -> JwtUtil.generateToken(testUser)).thenReturn(expectedToken);
+        testUser.setPassword(encodedPassword);
 
-            // Act
-            String actualToken = userService.login(loginIdentifier, rawPassword);
+        when(userRepository.findByUsername(loginIdentifier)).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches(rawPassword, encodedPassword)).thenReturn(true);
+        when(passwordHashingService.upgradeEncoding(encodedPassword)).thenReturn(true);
+        when(tokenService.issue(testUser)).thenReturn("mocked-jwt-token");
 
-            // Assert
-            assertEquals(expectedToken, actualToken);
-            verify(userRepository).findByUsername(loginIdentifier);
-        }
+        // Act
+        userService.login(loginIdentifier, rawPassword);
+
+        // Assert
+        ArgumentCaptor<Consumer<String>> store = ArgumentCaptor.forClass(Consumer.class);
+        verify(passwordHashingService).rehashInBackground(eq(rawPassword), store.capture());
+        store.getValue().accept("{bcrypt}$2a$12$newHash");
+        verify(userRepository).updatePassword(testUser.getId(), encodedPassword, "{bcrypt}$2a$12$newHash");
     }
 
     @Test
@@ -200,7 +232,7 @@ public class UserServiceTest {
 
         List<User> users = Arrays.asList(user1, user2);
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findAllByOrderByIdDesc(any(Pageable.class))).thenReturn(new SliceImpl<>(users));
 
         //Act
         List<User> result = userService.getAllUsers();
@@ -209,7 +241,7 @@ public class UserServiceTest {
         assertEquals(2,result.size());
         assertEquals("Pham Anh A",result.get(0).getName());
         assertEquals("Nguyen Van B",result.get(1).getName());
-        verify(userRepository,times(1)).findAll();
+        verify(userRepository,times(1)).findAllByOrderByIdDesc(any(Pageable.class));
     }
 
     @Test
@@ -231,18 +263,44 @@ public class UserServiceTest {
 
     @Test
     void createUser_shouldCreateUserWithDefaultPassword() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-        when(passwordEncoder.encode("123456")).thenReturn("encodedPassword");
+        when(userRepository.findConflictingFields("test@gmail.com", "123456789", "testUser"))
+                .thenReturn(Collections.emptyList());
+        when(passwordHashingService.encode("123456")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         
         User result = userService.createUser(testUser);
         
         assertNotNull(result);
-        verify(passwordEncoder).encode("123456");
+        verify(passwordHashingService).encode("123456");
         verify(userRepository).save(testUser);
     }
 
+    @Test
+    void testRegister_TakenKeys_ThrowsWithoutHashing() {
+        when(userRepository.findConflictingFields("test@gmail.com", "123456789", "testUser"))
+                .thenReturn(Arrays.asList("email", "username"));
+
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> userService.register(testUser));
+
+        assertEquals("Email, username already in use", exception.getMessage());
+        verifyNoInteractions(passwordHashingService);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_whenConcurrentInsertWins_shouldThrowDuplicate() {
+        when(userRepository.findConflictingFields("test@gmail.com", "123456789", "testUser"))
+                .thenReturn(Collections.emptyList(), Collections.singletonList("phone"));
+        when(passwordHashingService.encode("123456")).thenReturn("encodedPassword");
+        when(userRepository.save(testUser)).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> userService.createUser(testUser));
+
+        assertEquals("Phone already in use", exception.getMessage());
+    }
+
     @Test
     void updateUserRole_shouldUpdateRole() {
         Roles newRole = new Roles();
@@ -290,5 +348,6 @@ public class UserServiceTest {
         userService.deleteUser(1);
         
         verify(userRepository).deleteById(1);
+        verify(eventPublisher).publishEvent(any(UserDeletedEvent.class));
     }
 }
@@ -0,0 +1,51 @@
+package com.pap_shop.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptDelegatingPasswordEncoderTest {
+
+    private final BCryptDelegatingPasswordEncoder encoder = new BCryptDelegatingPasswordEncoder(5);
+
+    @Test
+    void encode_PrefixesHashWithBcryptAndCost() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void matches_AcceptsHashStoredWithoutPrefix() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+
+    @Test
+    void upgradeEncoding_OnlyWhenCostIsLower() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptDelegatingPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptDelegatingPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void costOf_ReadsCostWithOrWithoutPrefix() {
+        assertEquals(5, BCryptDelegatingPasswordEncoder.costOf(encoder.encode("secret")));
+        assertEquals(4, BCryptDelegatingPasswordEncoder.costOf(new BCryptPasswordEncoder(4).encode("secret")));
+        assertEquals(-1, BCryptDelegatingPasswordEncoder.costOf("{noop}secret"));
+        assertEquals(-1, BCryptDelegatingPasswordEncoder.costOf(null));
+    }
+
+    @Test
+    void calibrate_StaysWithinBounds() {
+        assertEquals(4, BCryptDelegatingPasswordEncoder.calibrate(Duration.ZERO, 4, 6));
+        assertEquals(6, BCryptDelegatingPasswordEncoder.calibrate(Duration.ofMinutes(1), 4, 6));
+    }
+}
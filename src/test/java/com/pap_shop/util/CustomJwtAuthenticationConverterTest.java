@@ -0,0 +1,80 @@
+package com.pap_shop.util;
+
+import com.pap_shop.service.TokenRevocationService;
+import com.pap_shop.service.UserIdentityCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomJwtAuthenticationConverterTest {
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @InjectMocks
+    private CustomJwtAuthenticationConverter converter;
+
+    @Test
+    void convert_WithUserIdClaim_ResolvesPrincipalWithoutLookup() {
+        Jwt jwt = jwt().claim("uid", 42).build();
+
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+
+        AuthenticatedUser user = AuthenticatedUser.from(authentication);
+        assertEquals(42, user.getId());
+        assertEquals("customer", user.getUsername());
+        assertEquals("USER", user.getRole());
+        assertEquals("customer", authentication.getName());
+        assertEquals("SCOPE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userIdentityCache);
+    }
+
+    @Test
+    void convert_WithoutUserIdClaim_FallsBackToCachedLookup() {
+        when(userIdentityCache.findUserId("customer")).thenReturn(Optional.of(7));
+
+        AbstractAuthenticationToken authentication = converter.convert(jwt().build());
+
+        assertEquals(7, AuthenticatedUser.from(authentication).getId());
+    }
+
+    @Test
+    void convert_WithoutUserIdClaimForUnknownUser_Throws() {
+        when(userIdentityCache.findUserId("customer")).thenReturn(Optional.empty());
+
+        assertThrows(JwtException.class, () -> converter.convert(jwt().build()));
+    }
+
+    @Test
+    void convert_RevokedToken_Throws() {
+        when(tokenRevocationService.isRevoked("jti-1")).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> converter.convert(jwt().claim("uid", 42).build()));
+    }
+
+    private static Jwt.Builder jwt() {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("customer")
+                .jti("jti-1")
+                .claim("scope", "USER")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600));
+    }
+}
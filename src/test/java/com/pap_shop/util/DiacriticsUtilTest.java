@@ -0,0 +1,36 @@
+package com.pap_shop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiacriticsUtilTest {
+
+    @Test
+    void removeDiacritics_foldsPrecomposedLettersKeepingCase() {
+        assertEquals("Dien thoai di dong", DiacriticsUtil.removeDiacritics("Điện thoại di động"));
+        assertEquals("AAAAAAAAAAAAAAAAA", DiacriticsUtil.removeDiacritics("ÀÁẠẢÃÂẦẤẬẨẪĂẰẮẶẲẴ"));
+        assertEquals("uuuuuuuuuuu yyyyy", DiacriticsUtil.removeDiacritics("ùúụủũưừứựửữ ỳýỵỷỹ"));
+    }
+
+    @Test
+    void removeDiacritics_dropsCombiningMarks() {
+        String decomposed = Normalizer.normalize("Bàn phím cơ Ứng dụng", Normalizer.Form.NFD);
+
+        assertEquals("Ban phim co Ung dung", DiacriticsUtil.removeDiacritics(decomposed));
+    }
+
+    @Test
+    void removeDiacritics_returnsSameInstanceWhenNothingToFold() {
+        String input = "Wireless headphones 2024";
+
+        assertSame(input, DiacriticsUtil.removeDiacritics(input));
+    }
+
+    @Test
+    void removeDiacritics_keepsCharactersOutsideLatinLetters() {
+        assertEquals("Gia 100€ – ok", DiacriticsUtil.removeDiacritics("Giá 100€ – ok"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.pap_shop.util;
+
+import com.pap_shop.util.ProductExcelImporter.ImportRow;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductExcelImporterTest {
+
+    @Test
+    void importFromExcel_EmitsRowsInChunks() throws IOException {
+        byte[] file = workbook(5);
+        List<List<ImportRow>> chunks = new ArrayList<>();
+
+        ProductExcelImporter.importFromExcel(new ByteArrayInputStream(file), 2, chunk -> chunks.add(new ArrayList<>(chunk)));
+
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(2).size());
+
+        ImportRow first = chunks.get(0).get(0);
+        assertEquals(2, first.getRowNumber());
+        assertEquals("SKU1", first.getSku());
+        assertEquals("Product 1", first.getName());
+        assertEquals(3, first.getCategoryId());
+        assertEquals(0, new BigDecimal("1500.5").compareTo(first.getPrice()));
+        assertEquals(10, first.getStock());
+        assertEquals("Supplier", first.getSupplier());
+    }
+
+    @Test
+    void importFromExcel_SkipsBlankRowsAndLeavesMissingCellsEmpty() throws IOException {
+        byte[] file;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            sheet.createRow(1);
+            Row row = sheet.createRow(3);
+            row.createCell(1).setCellValue("No SKU");
+            row.createCell(4).setCellValue(100);
+            workbook.write(out);
+            file = out.toByteArray();
+        }
+        List<ImportRow> rows = new ArrayList<>();
+
+        ProductExcelImporter.importFromExcel(new ByteArrayInputStream(file), 10, rows::addAll);
+
+        assertEquals(1, rows.size());
+        assertEquals(4, rows.get(0).getRowNumber());
+        assertEquals("", rows.get(0).getSku());
+        assertEquals("No SKU", rows.get(0).getName());
+        assertNull(rows.get(0).getCategoryId());
+        assertNull(rows.get(0).getStock());
+    }
+
+    @Test
+    void importFromExcel_FormattedNumbers_ReadsRawValues() throws IOException {
+        byte[] file;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CellStyle currency = workbook.createCellStyle();
+            currency.setDataFormat(workbook.createDataFormat().getFormat("\"$\"#,##0.00"));
+            CellStyle percent = workbook.createCellStyle();
+            percent.setDataFormat(workbook.createDataFormat().getFormat("0%"));
+            CellStyle thousands = workbook.createCellStyle();
+            thousands.setDataFormat(workbook.createDataFormat().getFormat("#,##0"));
+
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            Row row = sheet.createRow(1);
+            row.createCell(1).setCellValue("Formatted");
+            row.createCell(4).setCellValue(1234);
+            row.getCell(4).setCellStyle(currency);
+            row.createCell(5).setCellValue(12000);
+            row.getCell(5).setCellStyle(thousands);
+            row.createCell(6).setCellValue(0.1);
+            row.getCell(6).setCellStyle(percent);
+            workbook.write(out);
+            file = out.toByteArray();
+        }
+        List<ImportRow> rows = new ArrayList<>();
+
+        ProductExcelImporter.importFromExcel(new ByteArrayInputStream(file), 10, rows::addAll);
+
+        assertEquals(0, new BigDecimal("1234").compareTo(rows.get(0).getPrice()));
+        assertEquals(12000, rows.get(0).getStock());
+        assertEquals(0, new BigDecimal("0.1").compareTo(rows.get(0).getPurchasePrice()));
+        assertNull(rows.get(0).getError());
+    }
+
+    @Test
+    void importFromExcel_UnreadableNumbers_RecordsRowErrorAndKeepsReading() throws IOException {
+        byte[] file;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            Row text = sheet.createRow(1);
+            text.createCell(1).setCellValue("Text price");
+            text.createCell(4).setCellValue("1.234,50");
+            Row fraction = sheet.createRow(2);
+            fraction.createCell(1).setCellValue("Fractional stock");
+            fraction.createCell(4).setCellValue(10);
+            fraction.createCell(5).setCellValue(12.7);
+            Row valid = sheet.createRow(3);
+            valid.createCell(1).setCellValue("Valid");
+            valid.createCell(4).setCellValue("99.5");
+            workbook.write(out);
+            file = out.toByteArray();
+        }
+        List<ImportRow> rows = new ArrayList<>();
+
+        ProductExcelImporter.importFromExcel(new ByteArrayInputStream(file), 10, rows::addAll);
+
+        assertEquals(3, rows.size());
+        assertEquals("Price is not a number: 1.234,50", rows.get(0).getError());
+        assertNull(rows.get(0).getPrice());
+        assertEquals("Stock must be a whole number: 12.7", rows.get(1).getError());
+        assertNull(rows.get(1).getStock());
+        assertNull(rows.get(2).getError());
+        assertEquals(0, new BigDecimal("99.5").compareTo(rows.get(2).getPrice()));
+    }
+
+    @Test
+    void importFromExcel_InvalidFile_ThrowsIOException() {
+        assertThrows(IOException.class, () ->
+                ProductExcelImporter.importFromExcel(new ByteArrayInputStream(new byte[]{1, 2, 3}), 10, rows -> { }));
+    }
+
+    private static byte[] workbook(int rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Products");
+            sheet.createRow(0).createCell(0).setCellValue("SKU");
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("SKU" + i);
+                row.createCell(1).setCellValue("Product " + i);
+                row.createCell(2).setCellValue(3);
+                row.createCell(3).setCellValue("Description");
+                row.createCell(4).setCellValue(1500.5);
+                row.createCell(5).setCellValue(10);
+                row.createCell(6).setCellValue(1000);
+                row.createCell(7).setCellValue("Supplier");
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.pap_shop.util;
+
+import com.pap_shop.service.DashboardFeedService;
+import com.pap_shop.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthenticationInterceptorTest {
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private CustomJwtAuthenticationConverter jwtAuthenticationConverter;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthenticationInterceptor interceptor;
+
+    @Test
+    void preSend_ConnectWithBearerToken_AuthenticatesSession() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("admin").build();
+        UserAuthenticationToken authentication = admin(jwt);
+        when(tokenService.decode("token")).thenReturn(jwt);
+        when(jwtAuthenticationConverter.convert(jwt)).thenReturn(authentication);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader("Authorization", "Bearer token");
+        accessor.setLeaveMutable(true);
+
+        Message<?> message = interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+
+        assertSame(authentication, StompHeaderAccessor.wrap(message).getUser());
+    }
+
+    @Test
+    void preSend_AnonymousDashboardSubscription_IsDenied() {
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preSend(subscribe(DashboardFeedService.TOPIC, null), channel));
+    }
+
+    @Test
+    void preSend_AnonymousWildcardSubscriptionCoveringDashboard_IsDenied() {
+        for (String destination : new String[]{"/topic/**", "/topic/*", "/topic/dashboar?", "/**", "/topic/{name}"}) {
+            assertThrows(AccessDeniedException.class,
+                    () -> interceptor.preSend(subscribe(destination, null), channel), destination);
+        }
+    }
+
+    @Test
+    void preSend_AnonymousWildcardSubscriptionMissingDashboard_IsAllowed() {
+        Message<byte[]> message = subscribe("/topic/announcement*", null);
+
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_AdminWildcardSubscription_IsAllowed() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("admin").build();
+        Message<byte[]> message = subscribe("/topic/**", admin(jwt));
+
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_AdminDashboardSubscription_IsAllowed() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("admin").build();
+        Message<byte[]> message = subscribe(DashboardFeedService.TOPIC, admin(jwt));
+
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_AnonymousAnnouncementSubscription_IsAllowed() {
+        Message<byte[]> message = subscribe("/topic/announcements", null);
+
+        assertSame(message, interceptor.preSend(message, channel));
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void preSend_ClientSendToBrokerDestination_IsDenied() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("admin").build();
+        for (Principal user : new Principal[]{null, admin(jwt)}) {
+            assertThrows(AccessDeniedException.class,
+                    () -> interceptor.preSend(send(DashboardFeedService.TOPIC, user), channel));
+            assertThrows(AccessDeniedException.class,
+                    () -> interceptor.preSend(send("/topic/announcements", user), channel));
+        }
+    }
+
+    @Test
+    void preSend_ClientSendToApplicationDestination_IsAllowed() {
+        Message<byte[]> message = send("/app/chat", null);
+
+        assertSame(message, interceptor.preSend(message, channel));
+    }
+
+    private static UserAuthenticationToken admin(Jwt jwt) {
+        return new UserAuthenticationToken(jwt, new AuthenticatedUser(1, "admin", "ADMIN"),
+                AuthorityUtils.createAuthorityList("SCOPE_ADMIN"));
+    }
+
+    private static Message<byte[]> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> send(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}